@@ -0,0 +1,230 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Genera el archivo de grafo vial que leen {@code GrafoVial} / {@code RuteadorLocal}
+ * (ms-GestionDeOperaciones y ms-GestionDeInfraestructura, propiedad {@code ruteo.local.grafo}).
+ * <p>
+ * Entrada: dos CSV, nodos (id,lat,lon; ids 0..n-1) y aristas (origen,destino,metros,segundos).
+ * Además de convertir el grafo, hace el preprocesamiento ALT: elige landmarks por selección del más lejano
+ * y guarda las duraciones desde y hacia cada uno, para que los servicios solo tengan que mapear el archivo.
+ * <p>
+ * Uso (sin compilar, Java 21): {@code java herramientas/GeneradorGrafoVial.java nodos.csv aristas.csv grafo-vial.bin [landmarks]}
+ * (los {@code RuteadorLocalTest} de ambos servicios lo ejecutan así sobre una grilla de prueba)
+ * <p>
+ * Formato (enteros de 32 bits, big-endian):
+ * <pre>
+ * "GRAF" | versión (2) | n nodos | m aristas | l landmarks
+ * latitud[n], longitud[n]          en microgrados
+ * inicio[n + 1]                    aristas salientes del nodo v: [inicio[v], inicio[v + 1])
+ * destino[m], metros[m], decisegundos[m]
+ * desde[l][n], hacia[l][n]         decisegundos d(landmark, v) y d(v, landmark); MAX_VALUE si no hay camino
+ * </pre>
+ * Los servicios mapean cada sección por separado y una sección no puede pasar de 2 GB:
+ * el grafo admite hasta {@code Integer.MAX_VALUE / 4 - 1} nodos y {@code Integer.MAX_VALUE / 4} aristas.
+ */
+public class GeneradorGrafoVial {
+
+    private static final int MAGIA = 0x47524146; // "GRAF"
+    private static final int VERSION = 2;
+    private static final int INFINITO = Integer.MAX_VALUE;
+    private static final int LANDMARKS_POR_DEFECTO = 8;
+    private static final int MAXIMO_POR_SECCION = Integer.MAX_VALUE / Integer.BYTES;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || args.length > 4) {
+            System.err.println("Uso: java GeneradorGrafoVial.java <nodos.csv> <aristas.csv> <salida.bin> [landmarks]");
+            System.exit(1);
+        }
+        int cantidadLandmarks = args.length == 4 ? Integer.parseInt(args[3]) : LANDMARKS_POR_DEFECTO;
+
+        List<String[]> nodos = leerCsv(Path.of(args[0]));
+        int n = nodos.size();
+        int[] latitudes = new int[n];
+        int[] longitudes = new int[n];
+        for (String[] nodo : nodos) {
+            int id = Integer.parseInt(nodo[0].trim());
+            latitudes[id] = (int) Math.round(Double.parseDouble(nodo[1].trim()) * 1e6);
+            longitudes[id] = (int) Math.round(Double.parseDouble(nodo[2].trim()) * 1e6);
+        }
+
+        List<String[]> filas = leerCsv(Path.of(args[1]));
+        int m = filas.size();
+        if (n >= MAXIMO_POR_SECCION || m > MAXIMO_POR_SECCION) {
+            throw new IllegalArgumentException(String.format(
+                    "Grafo de %d nodos y %d aristas: los servicios no pueden mapear secciones de más de 2 GB", n, m));
+        }
+        int[] origenes = new int[m];
+        int[] inicio = new int[n + 1];
+        for (String[] fila : filas) {
+            inicio[Integer.parseInt(fila[0].trim()) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inicio[v + 1] += inicio[v];
+        }
+        int[] siguiente = inicio.clone();
+        int[] destinos = new int[m];
+        int[] metros = new int[m];
+        int[] decisegundos = new int[m];
+        for (String[] fila : filas) {
+            int origen = Integer.parseInt(fila[0].trim());
+            int e = siguiente[origen]++;
+            origenes[e] = origen;
+            destinos[e] = Integer.parseInt(fila[1].trim());
+            metros[e] = (int) Math.round(Double.parseDouble(fila[2].trim()));
+            decisegundos[e] = (int) Math.round(Double.parseDouble(fila[3].trim()) * 10);
+        }
+
+        // Grafo inverso, para las duraciones hacia cada landmark
+        int[] inicioInverso = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            inicioInverso[destinos[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inicioInverso[v + 1] += inicioInverso[v];
+        }
+        int[] siguienteInverso = inicioInverso.clone();
+        int[] aristaInversa = new int[m];
+        for (int e = 0; e < m; e++) {
+            aristaInversa[siguienteInverso[destinos[e]]++] = e;
+        }
+
+        long comienzo = System.currentTimeMillis();
+        List<int[]> desde = new ArrayList<>();
+        List<int[]> hacia = new ArrayList<>();
+        elegirLandmarks(Math.min(cantidadLandmarks, n), inicio, destinos, decisegundos,
+                inicioInverso, aristaInversa, origenes, desde, hacia);
+
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(Path.of(args[2])), 1 << 16))) {
+            for (int valor : new int[]{MAGIA, VERSION, n, m, desde.size()}) {
+                salida.writeInt(valor);
+            }
+            List<int[]> secciones = new ArrayList<>(List.of(latitudes, longitudes, inicio, destinos, metros, decisegundos));
+            secciones.addAll(desde);
+            secciones.addAll(hacia);
+            for (int[] seccion : secciones) {
+                for (int valor : seccion) {
+                    salida.writeInt(valor);
+                }
+            }
+        }
+        System.out.printf("Grafo escrito: %d nodos, %d aristas, %d landmarks (%d ms)%n",
+                n, m, desde.size(), System.currentTimeMillis() - comienzo);
+    }
+
+    /**
+     * Selección del más lejano: cada landmark nuevo es el nodo alcanzable más lejano a los ya elegidos
+     */
+    private static void elegirLandmarks(int cantidad, int[] inicio, int[] destinos, int[] decisegundos,
+                                        int[] inicioInverso, int[] aristaInversa, int[] origenes,
+                                        List<int[]> desde, List<int[]> hacia) {
+        int n = inicio.length - 1;
+        if (n == 0 || cantidad == 0) {
+            return;
+        }
+        int[] desdeCero = dijkstra(0, inicio, destinos, decisegundos, null);
+        int candidato = 0;
+        for (int v = 0; v < n; v++) {
+            if (desdeCero[v] != INFINITO && desdeCero[v] > desdeCero[candidato]) {
+                candidato = v;
+            }
+        }
+
+        int[] cercania = new int[n];
+        Arrays.fill(cercania, INFINITO);
+        while (desde.size() < cantidad && candidato >= 0) {
+            int[] duracionesDesde = dijkstra(candidato, inicio, destinos, decisegundos, null);
+            desde.add(duracionesDesde);
+            hacia.add(dijkstra(candidato, inicioInverso, aristaInversa, decisegundos, origenes));
+
+            int siguiente = -1;
+            for (int v = 0; v < n; v++) {
+                if (duracionesDesde[v] != INFINITO && duracionesDesde[v] < cercania[v]) {
+                    cercania[v] = duracionesDesde[v];
+                }
+                if (cercania[v] != INFINITO && cercania[v] > 0
+                        && (siguiente < 0 || cercania[v] > cercania[siguiente])) {
+                    siguiente = v;
+                }
+            }
+            candidato = siguiente;
+        }
+    }
+
+    /**
+     * Dijkstra completo. Con {@code origenes} recorre el grafo inverso: {@code adyacentes} son posiciones
+     * de aristas y el vecino es el origen de cada una
+     */
+    private static int[] dijkstra(int fuente, int[] inicio, int[] adyacentes, int[] decisegundos, int[] origenes) {
+        int n = inicio.length - 1;
+        int[] duraciones = new int[n];
+        Arrays.fill(duraciones, INFINITO);
+        duraciones[fuente] = 0;
+
+        long[] cola = new long[Math.max(16, n)];
+        int tamanio = 0;
+        cola[tamanio++] = fuente;
+        while (tamanio > 0) {
+            long minimo = cola[0];
+            long ultimo = cola[--tamanio];
+            int i = 0;
+            for (int hijo = 1; hijo < tamanio; hijo = 2 * i + 1) {
+                if (hijo + 1 < tamanio && cola[hijo + 1] < cola[hijo]) {
+                    hijo++;
+                }
+                if (cola[hijo] >= ultimo) {
+                    break;
+                }
+                cola[i] = cola[hijo];
+                i = hijo;
+            }
+            cola[i] = ultimo;
+
+            int v = (int) (minimo & 0xFFFFFFFFL);
+            int duracion = (int) (minimo >>> 32);
+            if (duracion > duraciones[v]) {
+                continue;
+            }
+            for (int p = inicio[v]; p < inicio[v + 1]; p++) {
+                int e = origenes != null ? adyacentes[p] : p;
+                int w = origenes != null ? origenes[e] : adyacentes[e];
+                int candidata = duracion + decisegundos[e];
+                if (candidata < duraciones[w]) {
+                    duraciones[w] = candidata;
+                    if (tamanio == cola.length) {
+                        cola = Arrays.copyOf(cola, tamanio * 2);
+                    }
+                    long clave = ((long) candidata << 32) | w;
+                    int j = tamanio++;
+                    while (j > 0 && cola[(j - 1) >>> 1] > clave) {
+                        cola[j] = cola[(j - 1) >>> 1];
+                        j = (j - 1) >>> 1;
+                    }
+                    cola[j] = clave;
+                }
+            }
+        }
+        return duraciones;
+    }
+
+    private static List<String[]> leerCsv(Path archivo) throws IOException {
+        List<String[]> filas = new ArrayList<>();
+        try (BufferedReader lector = Files.newBufferedReader(archivo)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (!linea.isBlank() && Character.isDigit(linea.trim().charAt(0))) {
+                    filas.add(linea.split(","));
+                }
+            }
+        }
+        return filas;
+    }
+}
@@ -0,0 +1,148 @@
+package back.tpi.ms_GestionDeInfraestructura.client;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Grafo vial dirigido, ya preprocesado para ALT, leído de un archivo binario mapeado en memoria
+ * (ni el grafo ni las tablas de landmarks se copian al heap).
+ * <p>
+ * El archivo y su formato los genera {@code herramientas/GeneradorGrafoVial.java} a partir de CSV.
+ * Cada sección se mapea por separado, así el archivo puede superar los 2 GB; cada sección no
+ * (unos 536 millones de nodos o aristas como máximo).
+ * ms-GestionDeOperaciones tiene una copia idéntica de esta clase.
+ */
+public final class GrafoVial {
+
+    private static final int MAGIA = 0x47524146; // "GRAF"
+    private static final int VERSION = 2;
+    private static final int CABECERA = 5;
+    // Un MappedByteBuffer no puede superar Integer.MAX_VALUE bytes
+    private static final int MAXIMO_POR_SECCION = Integer.MAX_VALUE / Integer.BYTES;
+
+    private final int nodos;
+    private final int aristas;
+    private final IntBuffer latitudes;
+    private final IntBuffer longitudes;
+    private final IntBuffer inicio;
+    private final IntBuffer destinos;
+    private final IntBuffer metros;
+    private final IntBuffer decisegundos;
+    // desdeLandmark[l].get(v) = d(l, v); haciaLandmark[l].get(v) = d(v, l), en decisegundos
+    private final IntBuffer[] desdeLandmark;
+    private final IntBuffer[] haciaLandmark;
+
+    private GrafoVial(FileChannel canal) throws IOException {
+        IntBuffer cabecera = mapear(canal, 0, CABECERA);
+        if (cabecera.get(0) != MAGIA || cabecera.get(1) != VERSION) {
+            throw new IllegalArgumentException("El archivo no es un grafo vial versión " + VERSION);
+        }
+        this.nodos = cabecera.get(2);
+        this.aristas = cabecera.get(3);
+        int landmarks = cabecera.get(4);
+        if (nodos < 0 || aristas < 0 || landmarks < 0 || nodos >= MAXIMO_POR_SECCION || aristas > MAXIMO_POR_SECCION) {
+            throw new IllegalArgumentException(String.format(
+                    "Grafo de %d nodos y %d aristas fuera de rango (máximo %d por sección)", nodos, aristas, MAXIMO_POR_SECCION));
+        }
+        long esperado = (CABECERA + 3L * nodos + 1 + 3L * aristas + 2L * landmarks * nodos) * Integer.BYTES;
+        if (canal.size() != esperado) {
+            throw new IllegalArgumentException("El archivo del grafo mide " + canal.size() + " bytes y se esperaban " + esperado);
+        }
+
+        long posicion = CABECERA;
+        this.latitudes = mapear(canal, posicion, nodos);
+        posicion += nodos;
+        this.longitudes = mapear(canal, posicion, nodos);
+        posicion += nodos;
+        this.inicio = mapear(canal, posicion, nodos + 1);
+        posicion += nodos + 1;
+        this.destinos = mapear(canal, posicion, aristas);
+        posicion += aristas;
+        this.metros = mapear(canal, posicion, aristas);
+        posicion += aristas;
+        this.decisegundos = mapear(canal, posicion, aristas);
+        posicion += aristas;
+        this.desdeLandmark = new IntBuffer[landmarks];
+        for (int l = 0; l < landmarks; l++, posicion += nodos) {
+            desdeLandmark[l] = mapear(canal, posicion, nodos);
+        }
+        this.haciaLandmark = new IntBuffer[landmarks];
+        for (int l = 0; l < landmarks; l++, posicion += nodos) {
+            haciaLandmark[l] = mapear(canal, posicion, nodos);
+        }
+    }
+
+    /**
+     * Mapea el archivo en memoria (solo lectura)
+     */
+    public static GrafoVial cargar(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            return new GrafoVial(canal);
+        }
+    }
+
+    private static IntBuffer mapear(FileChannel canal, long posicion, int enteros) throws IOException {
+        MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY,
+                posicion * Integer.BYTES, (long) enteros * Integer.BYTES);
+        return mapa.order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+    }
+
+    public int cantidadNodos() {
+        return nodos;
+    }
+
+    public int cantidadAristas() {
+        return aristas;
+    }
+
+    public int cantidadLandmarks() {
+        return desdeLandmark.length;
+    }
+
+    public double latitud(int nodo) {
+        return latitudes.get(nodo) / 1e6;
+    }
+
+    public double longitud(int nodo) {
+        return longitudes.get(nodo) / 1e6;
+    }
+
+    public int primeraArista(int nodo) {
+        return inicio.get(nodo);
+    }
+
+    public int finAristas(int nodo) {
+        return inicio.get(nodo + 1);
+    }
+
+    public int destino(int arista) {
+        return destinos.get(arista);
+    }
+
+    public int metros(int arista) {
+        return metros.get(arista);
+    }
+
+    public int decisegundos(int arista) {
+        return decisegundos.get(arista);
+    }
+
+    /**
+     * Duración del landmark al nodo ({@code Integer.MAX_VALUE} si no hay camino)
+     */
+    public int desdeLandmark(int landmark, int nodo) {
+        return desdeLandmark[landmark].get(nodo);
+    }
+
+    /**
+     * Duración del nodo al landmark ({@code Integer.MAX_VALUE} si no hay camino)
+     */
+    public int haciaLandmark(int landmark, int nodo) {
+        return haciaLandmark[landmark].get(nodo);
+    }
+}
@@ -9,12 +9,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 
 import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OsrmClient {
     private final RestClient restClient;
+    private final RuteadorLocal ruteadorLocal;
 
     @Value("${osrm.base-url}")
     private String osrmServiceUrl;
@@ -22,8 +24,24 @@ public class OsrmClient {
 
     /**
      * Calcula distancia (km) y tiempo (horas) entre dos puntos usando OSRM (perfil driving).
+     * Si el ruteo local está habilitado y encuentra ruta, no se llama a OSRM.
      */
     public DistanciaResponse calcularDistancia(double origenLat, double origenLon, double destinoLat, double destinoLon) {
+        if (ruteadorLocal.habilitado()) {
+            Optional<RuteadorLocal.Ruta> local = ruteadorLocal.calcular(origenLat, origenLon, destinoLat, destinoLon);
+            if (local.isPresent()) {
+                DistanciaResponse.Route route = new DistanciaResponse.Route();
+                route.setDistance(local.get().metros());
+                route.setDuration(local.get().segundos());
+
+                DistanciaResponse response = new DistanciaResponse();
+                response.setRoutes(List.of(route));
+                return response;
+            }
+            log.debug("Sin ruta en el grafo local para ({}, {}) -> ({}, {}). Consultando OSRM.",
+                    origenLat, origenLon, destinoLat, destinoLon);
+        }
+
         // OSRM: /route/v1/driving/{lon1},{lat1};{lon2},{lat2}
         String coords = String.format("%f,%f;%f,%f", origenLon, origenLat, destinoLon, destinoLat);
         String path = String.format("/route/v1/driving/%s?overview=false&alternatives=false&annotations=false", coords);
@@ -86,7 +86,8 @@ public class DepositoController {
     // -------------------------------------------------------------------------
     @Operation(
             summary = "Obtener depósitos en ruta",
-            description = "Retorna los depósitos más cercanos a la ruta entre origen y destino."
+            description = "Retorna los depósitos dentro de un corredor alrededor del segmento origen-destino, " +
+                    "ordenados por desvío respecto de la ruta directa."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Depósitos encontrados"),
@@ -99,14 +100,16 @@ public class DepositoController {
             @Parameter(description = "Latitud de destino") @RequestParam Double latDestino,
             @Parameter(description = "Longitud de destino") @RequestParam Double lngDestino,
             @Parameter(description = "Cantidad de depósitos a retornar (default 3)")
-            @RequestParam(defaultValue = "3") Integer cantidad) {
+            @RequestParam(defaultValue = "3") Integer cantidad,
+            @Parameter(description = "Ancho del corredor a cada lado del segmento en km (default 100)")
+            @RequestParam(defaultValue = "100") Double anchoCorredorKm) {
 
         try {
             log.info("Buscando depósitos en ruta: origen({},{}) destino({},{})",
                     latOrigen, lngOrigen, latDestino, lngDestino);
 
             List<DepositoDTO> depositos = depositoService.encontrarDepositosEnRuta(
-                    latOrigen, lngOrigen, latDestino, lngDestino, cantidad);
+                    latOrigen, lngOrigen, latDestino, lngDestino, cantidad, anchoCorredorKm);
 
             return ResponseEntity.ok(depositos);
         } catch (Exception e) {
@@ -118,7 +121,7 @@ public class DepositoController {
     // -------------------------------------------------------------------------
     @Operation(
             summary = "Obtener depósitos cercanos a un punto",
-            description = "Retorna depósitos dentro de un radio definido desde una ubicación geográfica."
+            description = "Retorna depósitos dentro de un radio definido desde una ubicación geográfica, ordenados por distancia."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Depósitos encontrados"),
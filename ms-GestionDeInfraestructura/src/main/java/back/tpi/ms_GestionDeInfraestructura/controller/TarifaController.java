@@ -1,6 +1,8 @@
 package back.tpi.ms_GestionDeInfraestructura.controller;
 
 import back.tpi.ms_GestionDeInfraestructura.domain.Tarifa;
+import back.tpi.ms_GestionDeInfraestructura.dto.CostoEstimadoDTO;
+import back.tpi.ms_GestionDeInfraestructura.dto.CostoEstimadoLoteDTO;
 import back.tpi.ms_GestionDeInfraestructura.dto.TarifaDTO;
 import back.tpi.ms_GestionDeInfraestructura.mapper.TarifaMapper;
 import back.tpi.ms_GestionDeInfraestructura.service.TarifaService;
@@ -13,11 +15,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @Tag(name = "Tarifa", description = "Operaciones relacionadas con tarifas")
 @RestController
 @RequestMapping("/api/tarifas")
@@ -77,19 +83,61 @@ public class TarifaController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Tarifa encontrada",
                     content = @Content(schema = @Schema(implementation = TarifaDTO.class))),
+            @ApiResponse(responseCode = "304", description = "La tarifa no cambió desde la versión indicada en If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Tarifa no encontrada")
     })
     @GetMapping("/{id}")
     //@PreAuthorize("hasRole('ADMINISTRADOR')")
     public ResponseEntity<TarifaDTO> obtenerTarifa(
             @Parameter(description = "ID de la tarifa a obtener")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "ETag (versión) de la tarifa que el cliente ya tiene en cache")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         return service.obtenerPorId(id)
-                .map(tarifa -> ResponseEntity.ok(tarifaMapper.toDTO(tarifa)))
+                .map(tarifa -> {
+                    String etag = "\"" + tarifa.getVersion() + "\"";
+                    if (etag.equals(ifNoneMatch)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<TarifaDTO>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(tarifaMapper.toDTO(tarifa));
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Obtener varias tarifas por ID",
+            description = "Retorna en una sola llamada las tarifas existentes entre los IDs indicados. "
+                    + "Los IDs inexistentes se omiten."
+    )
+    @ApiResponse(responseCode = "200", description = "Tarifas encontradas",
+            content = @Content(schema = @Schema(implementation = TarifaDTO.class)))
+    @GetMapping("/lote")
+    //@PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<TarifaDTO>> obtenerTarifas(
+            @Parameter(description = "IDs de las tarifas a obtener", example = "1,2,3")
+            @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(service.obtenerPorIds(ids).stream()
+                .map(tarifaMapper::toDTO)
+                .toList());
+    }
+
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Obtener la versión de varias tarifas",
+            description = "Retorna un mapa ID -> versión para validar tarifas en cache sin descargarlas. "
+                    + "Las tarifas inexistentes o eliminadas no aparecen en el resultado."
+    )
+    @ApiResponse(responseCode = "200", description = "Versiones obtenidas")
+    @GetMapping("/versiones")
+    //@PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Map<Long, Long>> obtenerVersiones(
+            @Parameter(description = "IDs de las tarifas a consultar", example = "1,2,3")
+            @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(service.obtenerVersiones(ids));
+    }
+
     // -------------------------------------------------------------------------
     @Operation(
             summary = "Calcular el costo estimado",
@@ -113,4 +161,29 @@ public class TarifaController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Calcular costos estimados en lote",
+            description = "Calcula en una sola llamada el costo estimado de varias distancias. Acepta una tarifa "
+                    + "con una lista de distancias y/o una lista de pares tarifa/distancia. "
+                    + "Los resultados se devuelven en el mismo orden del pedido."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Costos calculados correctamente",
+                    content = @Content(schema = @Schema(implementation = CostoEstimadoDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Lote inválido, demasiado grande o con tarifas inexistentes")
+    })
+    @PostMapping("/calcular-costo-estimado/lote")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('CLIENTE')")
+    public ResponseEntity<List<CostoEstimadoDTO>> calcularCostosEstimados(
+            @Parameter(description = "Tarifas y distancias a calcular")
+            @RequestBody CostoEstimadoLoteDTO lote) {
+        try {
+            return ResponseEntity.ok(service.calcularCostosEstimados(lote));
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Lote de costos estimados rechazado: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -6,7 +6,10 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.stereotype.Service;
 
 @Entity
-@Table(name = "deposito")
+@Table(name = "deposito", indexes = {
+        // Búsquedas por bounding box (depósitos cercanos / en ruta)
+        @Index(name = "idx_deposito_latitud_longitud", columnList = "latitud, longitud")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -45,4 +45,9 @@ public class Tarifa {
 
     @Column(name = "id_deposito")
     Long idDeposito;
+
+    // Se incrementa en cada actualización; los clientes lo usan como ETag para invalidar su cache
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    long version;
 }
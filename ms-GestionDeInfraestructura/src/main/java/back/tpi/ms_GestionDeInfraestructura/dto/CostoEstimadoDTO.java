@@ -0,0 +1,24 @@
+package back.tpi.ms_GestionDeInfraestructura.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(
+        name = "CostoEstimadoDTO",
+        description = "Par tarifa/distancia de un cálculo en lote. En la respuesta incluye el costo estimado resultante."
+)
+public class CostoEstimadoDTO {
+
+    @Schema(description = "ID de la tarifa utilizada para el cálculo", example = "101")
+    private Long tarifaId;
+
+    @Schema(description = "Distancia en km del tramo", example = "350.5")
+    private Double distancia;
+
+    @Schema(description = "Costo estimado calculado (solo en la respuesta)", example = "181370.4", accessMode = Schema.AccessMode.READ_ONLY)
+    private Double costoEstimado;
+}
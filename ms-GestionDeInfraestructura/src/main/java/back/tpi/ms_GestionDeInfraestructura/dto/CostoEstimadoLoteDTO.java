@@ -0,0 +1,27 @@
+package back.tpi.ms_GestionDeInfraestructura.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(
+        name = "CostoEstimadoLoteDTO",
+        description = "Solicitud de cálculo de costos estimados en lote. Se puede indicar una tarifa con varias distancias, "
+                + "una lista de pares tarifa/distancia, o ambas cosas."
+)
+public class CostoEstimadoLoteDTO {
+
+    @Schema(description = "ID de la tarifa que se aplica a todas las distancias de 'distancias'", example = "101")
+    private Long tarifaId;
+
+    @Schema(description = "Distancias en km a calcular con 'tarifaId'", example = "[120.0, 350.5, 42.3]")
+    private List<Double> distancias;
+
+    @Schema(description = "Pares tarifa/distancia a calcular")
+    private List<CostoEstimadoDTO> items;
+}
@@ -48,5 +48,8 @@ public class TarifaDTO {
     @JsonProperty("idDeposito")
     @Schema(description = "ID del depósito asociado a esta tarifa (si corresponde)", example = "7")
     private Long idDeposito;
-}
 
+    @JsonProperty("version")
+    @Schema(description = "Versión de la tarifa. Cambia cada vez que la tarifa se modifica", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+}
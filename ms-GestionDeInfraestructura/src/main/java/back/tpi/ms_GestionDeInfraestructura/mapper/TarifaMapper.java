@@ -27,6 +27,7 @@ public class TarifaMapper {
                 .fechaVigencia(tarifa.getFechaVigencia())
                 .idTipoCamion(tarifa.getIdTipoCamion())
                 .idDeposito(tarifa.getIdDeposito())
+                .version(tarifa.getVersion())
                 .build();
 
         log.debug("✅ TarifaDTO mapeado: ID={}, Nombre={}", dto.getTarifaId(), dto.getNombre());
@@ -4,6 +4,12 @@ import back.tpi.ms_GestionDeInfraestructura.domain.Deposito;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface DepositoRepository extends JpaRepository<Deposito, Long> {
+
+    // Depósitos dentro de un bounding box (usa el índice sobre latitud, longitud)
+    List<Deposito> findByLatitudBetweenAndLongitudBetween(Double latitudMin, Double latitudMax,
+                                                          Double longitudMin, Double longitudMax);
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import back.tpi.ms_GestionDeInfraestructura.domain.Tarifa;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -19,4 +20,13 @@ public interface TarifaRepository extends JpaRepository<Tarifa, Long> {
     List<Tarifa> findByIdTipoCamion(Long idTipoCamion);
 
     List<Tarifa> findByIdDeposito(Long idDeposito);
+
+    // Solo id y versión, para validar caches de tarifas sin leer la fila completa
+    List<VersionTarifa> findByIdIn(Collection<Long> ids);
+
+    interface VersionTarifa {
+        Long getId();
+
+        long getVersion();
+    }
 }
\ No newline at end of file
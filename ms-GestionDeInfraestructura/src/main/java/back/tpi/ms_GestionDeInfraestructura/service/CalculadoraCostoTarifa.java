@@ -0,0 +1,32 @@
+package back.tpi.ms_GestionDeInfraestructura.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Fórmula del costo estimado de un traslado según la tarifa.
+ * ms-GestionDeOperaciones tiene una copia idéntica (CalculadoraCostoTarifa) para cotizar
+ * tramos sin llamar a este servicio: cualquier cambio acá debe replicarse allá y en los
+ * casos de CalculadoraCostoTarifaTest de ambos servicios.
+ */
+@Component
+public class CalculadoraCostoTarifa {
+
+    // Consumo promedio por km (en litros/km). Suponemos camión mediano por defecto para estimar
+    static final double CONSUMO_POR_KM = 0.3; // 30 L/100 km
+
+    // Costo operativo promedio por km (mantenimiento, chofer, peajes, etc.)
+    static final double COSTO_OPERATIVO_POR_KM = 200.0;
+
+    /**
+     * Costo estimado = combustible + operativo + cargo de gestión, redondeado a 2 decimales
+     */
+    public double calcularCostoEstimado(double valorCombustibleLitro, double cargoGestionTrama,
+                                        double distanciaKm) {
+        double costoCombustible = distanciaKm * CONSUMO_POR_KM * valorCombustibleLitro;
+        double costoOperativo = distanciaKm * COSTO_OPERATIVO_POR_KM;
+
+        double costoEstimado = costoCombustible + costoOperativo + cargoGestionTrama;
+
+        return Math.round(costoEstimado * 100.0) / 100.0;
+    }
+}
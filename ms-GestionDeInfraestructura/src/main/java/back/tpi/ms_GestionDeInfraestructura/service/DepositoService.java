@@ -8,6 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,6 +17,9 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DepositoService {
 
+    private static final double RADIO_TIERRA_KM = 6371;
+    private static final double KM_POR_GRADO_LATITUD = 111.32;
+
     private final DepositoRepository depositoRepository;
 
     @Transactional(readOnly = true)
@@ -38,32 +42,77 @@ public class DepositoService {
     }
 
     /**
-     * Retorna TODOS los depósitos con sus coordenadas.
-     * El cálculo de distancias se hace en el servicio consumidor.
+     * Retorna los depósitos dentro de un corredor de {@code anchoCorredorKm} alrededor del segmento
+     * origen-destino, ordenados por desvío (origen -> depósito -> destino menos la distancia directa).
+     * La base filtra primero por el bounding box del corredor; el corredor exacto se evalúa en memoria.
      */
     @Transactional(readOnly = true)
     public List<DepositoDTO> encontrarDepositosEnRuta(
             Double latOrigen, Double lngOrigen,
             Double latDestino, Double lngDestino,
-            Integer cantidad) {
-
-        log.info("Retornando todos los depósitos disponibles para cálculo en cliente");
-
-        // Simplemente retornar todos los depósitos
-        // El filtrado y cálculo de distancias lo hará RutaTentativaService
-        return depositoRepository.findAll().stream()
-                .map(this::convertirADTO)
+            Integer cantidad, Double anchoCorredorKm) {
+
+        double latMedia = (latOrigen + latDestino) / 2;
+        double margenLat = anchoCorredorKm / KM_POR_GRADO_LATITUD;
+        double margenLng = anchoCorredorKm / kmPorGradoLongitud(latMedia);
+
+        List<Deposito> candidatos = depositoRepository.findByLatitudBetweenAndLongitudBetween(
+                Math.min(latOrigen, latDestino) - margenLat, Math.max(latOrigen, latDestino) + margenLat,
+                Math.min(lngOrigen, lngDestino) - margenLng, Math.max(lngOrigen, lngDestino) + margenLng);
+
+        double distanciaDirecta = calcularDistanciaHaversine(latOrigen, lngOrigen, latDestino, lngDestino);
+
+        List<DepositoDTO> depositos = candidatos.stream()
+                .filter(d -> distanciaAlSegmentoKm(d.getLatitud(), d.getLongitud(),
+                        latOrigen, lngOrigen, latDestino, lngDestino) <= anchoCorredorKm)
+                .map(d -> {
+                    DepositoDTO dto = convertirADTO(d);
+                    double desdeOrigen = calcularDistanciaHaversine(latOrigen, lngOrigen, d.getLatitud(), d.getLongitud());
+                    double hastaDestino = calcularDistanciaHaversine(d.getLatitud(), d.getLongitud(), latDestino, lngDestino);
+                    double desviacion = desdeOrigen + hastaDestino - distanciaDirecta;
+
+                    dto.setDistanciaDesdeOrigen(redondear(desdeOrigen));
+                    dto.setDistanciaHastaDestino(redondear(hastaDestino));
+                    dto.setDistanciaTotal(redondear(desdeOrigen + hastaDestino));
+                    dto.setDesviacionKm(redondear(desviacion));
+                    dto.setEnRuta(true);
+                    return dto;
+                })
+                .sorted(Comparator.comparing(DepositoDTO::getDesviacionKm))
+                .limit(cantidad)
                 .collect(Collectors.toList());
+
+        log.info("Depósitos en ruta: {} candidatos en bounding box, {} dentro del corredor de {} km",
+                candidatos.size(), depositos.size(), anchoCorredorKm);
+        return depositos;
     }
 
+    /**
+     * Retorna los depósitos a menos de {@code radioKm} del punto, ordenados por distancia.
+     * La base filtra primero por el bounding box del radio; la distancia exacta se evalúa en memoria.
+     */
     @Transactional(readOnly = true)
     public List<DepositoDTO> encontrarDepositosCercanos(Double lat, Double lng, Double radioKm) {
-        log.info("Retornando todos los depósitos disponibles");
-
-        // Retornar todos, el filtrado se hace en el cliente
-        return depositoRepository.findAll().stream()
-                .map(this::convertirADTO)
+        double margenLat = radioKm / KM_POR_GRADO_LATITUD;
+        double margenLng = radioKm / kmPorGradoLongitud(lat);
+
+        List<Deposito> candidatos = depositoRepository.findByLatitudBetweenAndLongitudBetween(
+                lat - margenLat, lat + margenLat, lng - margenLng, lng + margenLng);
+
+        List<DepositoDTO> depositos = candidatos.stream()
+                .map(d -> {
+                    DepositoDTO dto = convertirADTO(d);
+                    dto.setDistanciaDesdeOrigen(redondear(
+                            calcularDistanciaHaversine(lat, lng, d.getLatitud(), d.getLongitud())));
+                    return dto;
+                })
+                .filter(d -> d.getDistanciaDesdeOrigen() <= radioKm)
+                .sorted(Comparator.comparing(DepositoDTO::getDistanciaDesdeOrigen))
                 .collect(Collectors.toList());
+
+        log.info("Depósitos cercanos a ({}, {}): {} candidatos en bounding box, {} dentro de {} km",
+                lat, lng, candidatos.size(), depositos.size(), radioKm);
+        return depositos;
     }
 
     @Transactional
@@ -108,6 +157,50 @@ public class DepositoService {
         log.info("Depósito eliminado con ID: {}", id);
     }
 
+    /**
+     * Distancia aproximada (km) de un punto al segmento origen-destino.
+     * Proyección equirectangular centrada en el segmento: suficiente para distancias de corredor.
+     */
+    private double distanciaAlSegmentoKm(double lat, double lng,
+                                         double latOrigen, double lngOrigen,
+                                         double latDestino, double lngDestino) {
+        double kmPorGradoLng = kmPorGradoLongitud((latOrigen + latDestino) / 2);
+
+        double px = (lng - lngOrigen) * kmPorGradoLng;
+        double py = (lat - latOrigen) * KM_POR_GRADO_LATITUD;
+        double sx = (lngDestino - lngOrigen) * kmPorGradoLng;
+        double sy = (latDestino - latOrigen) * KM_POR_GRADO_LATITUD;
+
+        double largo2 = sx * sx + sy * sy;
+        double t = largo2 == 0 ? 0 : Math.max(0, Math.min(1, (px * sx + py * sy) / largo2));
+
+        return Math.hypot(px - t * sx, py - t * sy);
+    }
+
+    private double kmPorGradoLongitud(double latitud) {
+        return Math.max(KM_POR_GRADO_LATITUD * Math.cos(Math.toRadians(latitud)), 1e-6);
+    }
+
+    /**
+     * Fórmula de Haversine para calcular distancia entre dos puntos (km)
+     */
+    private double calcularDistanciaHaversine(double lat1, double lon1, double lat2, double lon2) {
+        double latDistancia = Math.toRadians(lat2 - lat1);
+        double lonDistancia = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(latDistancia / 2) * Math.sin(latDistancia / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistancia / 2) * Math.sin(lonDistancia / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return RADIO_TIERRA_KM * c;
+    }
+
+    private double redondear(double valor) {
+        return Math.round(valor * 100.0) / 100.0;
+    }
+
     private DepositoDTO convertirADTO(Deposito deposito) {
         return DepositoDTO.builder()
                 .id(deposito.getId())
@@ -1,17 +1,27 @@
 package back.tpi.ms_GestionDeInfraestructura.service;
 
 import back.tpi.ms_GestionDeInfraestructura.domain.Tarifa;
+import back.tpi.ms_GestionDeInfraestructura.dto.CostoEstimadoDTO;
+import back.tpi.ms_GestionDeInfraestructura.dto.CostoEstimadoLoteDTO;
 import back.tpi.ms_GestionDeInfraestructura.dto.TarifaDTO;
 import back.tpi.ms_GestionDeInfraestructura.repository.TarifaRepository;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +29,10 @@ import java.util.Optional;
 public class TarifaService {
 
     private final TarifaRepository repository;
+    private final CalculadoraCostoTarifa calculadoraCostoTarifa;
+
+    @Value("${tarifas.costo-lote.max-items:1000}")
+    private int maxItemsLote;
 
     /**
      * Crea una nueva tarifa a partir de un DTO
@@ -64,23 +78,74 @@ public class TarifaService {
         Tarifa tarifa = repository.findById(tarifaId)
                 .orElseThrow(() -> new RuntimeException("Tarifa no encontrada con ID: " + tarifaId));
 
-        // Consumo promedio por km (en litros/km)
-        // Suponemos camión mediano por defecto para estimar
-        double consumoPorKm = 0.3; // 30 L/100 km
+        double costoEstimado = calculadoraCostoTarifa.calcularCostoEstimado(
+                tarifa.getValorCombustibleLitro(), tarifa.getCargoGestionTrama(), distanciaKm);
+
+        log.info("💰 Costo estimado: tarifa={}, distancia={} km, total={}",
+                tarifaId, distanciaKm, costoEstimado);
+
+        return costoEstimado;
+    }
 
-        // Costo operativo promedio por km (mantenimiento, chofer, peajes, etc.)
-        double costoOperativoPorKm = 200.0;
+    /**
+     * Calcula en una sola operación los costos estimados de todas las distancias del lote.
+     * Las tarifas involucradas se leen con una única consulta y el resultado respeta el orden
+     * del pedido: primero las 'distancias' de 'tarifaId' y luego los 'items'.
+     */
+    @Transactional(readOnly = true)
+    public List<CostoEstimadoDTO> calcularCostosEstimados(CostoEstimadoLoteDTO lote) {
+        List<CostoEstimadoDTO> items = new ArrayList<>();
+        if (lote.getDistancias() != null && !lote.getDistancias().isEmpty()) {
+            if (lote.getTarifaId() == null) {
+                throw new RuntimeException("Debe indicar 'tarifaId' para calcular la lista de distancias");
+            }
+            lote.getDistancias().forEach(distancia -> items.add(CostoEstimadoDTO.builder()
+                    .tarifaId(lote.getTarifaId())
+                    .distancia(distancia)
+                    .build()));
+        }
+        if (lote.getItems() != null) {
+            items.addAll(lote.getItems());
+        }
+
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        if (items.size() > maxItemsLote) {
+            throw new RuntimeException("El lote supera el máximo de " + maxItemsLote + " cálculos");
+        }
 
-        // Cálculo base
-        double costoCombustible = distanciaKm * consumoPorKm * tarifa.getValorCombustibleLitro();
-        double costoOperativo = distanciaKm * costoOperativoPorKm;
+        Set<Long> tarifaIds = new HashSet<>();
+        for (CostoEstimadoDTO item : items) {
+            if (item.getTarifaId() == null || item.getDistancia() == null) {
+                throw new RuntimeException("Cada cálculo del lote debe indicar tarifaId y distancia");
+            }
+            tarifaIds.add(item.getTarifaId());
+        }
 
-        double costoEstimado = costoCombustible + costoOperativo + tarifa.getCargoGestionTrama();
+        Map<Long, Tarifa> tarifas = repository.findAllById(tarifaIds).stream()
+                .collect(Collectors.toMap(Tarifa::getId, Function.identity()));
 
-        log.info("💰 Costo estimado: distancia={} km, combustible={} $, operativo={} $, total={}",
-                distanciaKm, costoCombustible, costoOperativo, costoEstimado);
+        tarifaIds.removeAll(tarifas.keySet());
+        if (!tarifaIds.isEmpty()) {
+            throw new RuntimeException("Tarifas no encontradas con ID: " + tarifaIds);
+        }
 
-        return Math.round(costoEstimado * 100.0) / 100.0;
+        List<CostoEstimadoDTO> resultado = items.stream()
+                .map(item -> {
+                    Tarifa tarifa = tarifas.get(item.getTarifaId());
+                    return CostoEstimadoDTO.builder()
+                            .tarifaId(item.getTarifaId())
+                            .distancia(item.getDistancia())
+                            .costoEstimado(calculadoraCostoTarifa.calcularCostoEstimado(
+                                    tarifa.getValorCombustibleLitro(), tarifa.getCargoGestionTrama(),
+                                    item.getDistancia()))
+                            .build();
+                })
+                .toList();
+
+        log.info("💰 Costos estimados en lote: {} cálculos con {} tarifa(s)", resultado.size(), tarifas.size());
+        return resultado;
     }
 
 
@@ -94,6 +159,21 @@ public class TarifaService {
         return repository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public List<Tarifa> obtenerPorIds(Collection<Long> ids) {
+        return repository.findAllById(ids);
+    }
+
+    /**
+     * Versión actual de cada tarifa pedida. Las tarifas inexistentes (o eliminadas) no aparecen en el resultado
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Long> obtenerVersiones(Collection<Long> ids) {
+        return repository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(TarifaRepository.VersionTarifa::getId,
+                        TarifaRepository.VersionTarifa::getVersion));
+    }
+
     @Transactional(readOnly = true)
     public boolean existeTarifa(Long id) {
         return repository.existsById(id);
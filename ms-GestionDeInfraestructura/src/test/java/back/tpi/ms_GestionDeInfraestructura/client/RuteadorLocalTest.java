@@ -0,0 +1,182 @@
+package back.tpi.ms_GestionDeInfraestructura.client;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuteadorLocalTest {
+
+    private static final int LADO = 12;
+    private static final double PASO = 0.02; // grados entre nodos vecinos
+    private static final int LANDMARKS = 4;
+    private static final Path GENERADOR = Path.of("..", "herramientas", "GeneradorGrafoVial.java");
+
+    @TempDir
+    static Path directorio;
+
+    private static final RuteadorLocal ruteador = new RuteadorLocal();
+    private static GrafoVial grafo;
+    private static int[] inicio;
+    private static int[] destinos;
+    private static int[] decisegundos;
+
+    /**
+     * Grilla LADO x LADO de calles de doble mano, con duración aleatoria y distinta en cada sentido.
+     * Se escribe en CSV y se convierte con herramientas/GeneradorGrafoVial.java, como en producción
+     */
+    @BeforeAll
+    static void cargarGrafo() throws IOException, InterruptedException {
+        Random random = new Random(7);
+        int n = LADO * LADO;
+        List<List<int[]>> salientes = new ArrayList<>();
+        StringBuilder nodos = new StringBuilder("id,lat,lon\n");
+        for (int v = 0; v < n; v++) {
+            nodos.append(v).append(',').append(lat(v)).append(',').append(lon(v)).append('\n');
+            salientes.add(new ArrayList<>());
+        }
+        for (int v = 0; v < n; v++) {
+            for (int w : new int[]{v % LADO + 1 < LADO ? v + 1 : -1, v + LADO < n ? v + LADO : -1}) {
+                if (w < 0) {
+                    continue;
+                }
+                int tiempo = 100 + random.nextInt(400);
+                int metros = 1500 + random.nextInt(1000);
+                salientes.get(v).add(new int[]{w, metros, tiempo});
+                salientes.get(w).add(new int[]{v, metros, tiempo + random.nextInt(200)});
+            }
+        }
+
+        inicio = new int[n + 1];
+        List<int[]> aristas = new ArrayList<>();
+        StringBuilder csvAristas = new StringBuilder("origen,destino,metros,segundos\n");
+        for (int v = 0; v < n; v++) {
+            for (int[] arista : salientes.get(v)) {
+                csvAristas.append(v).append(',').append(arista[0]).append(',').append(arista[1])
+                        .append(',').append(arista[2] / 10.0).append('\n');
+            }
+            aristas.addAll(salientes.get(v));
+            inicio[v + 1] = aristas.size();
+        }
+        destinos = aristas.stream().mapToInt(a -> a[0]).toArray();
+        decisegundos = aristas.stream().mapToInt(a -> a[2]).toArray();
+
+        Path archivoNodos = Files.writeString(directorio.resolve("nodos.csv"), nodos);
+        Path archivoAristas = Files.writeString(directorio.resolve("aristas.csv"), csvAristas);
+        Path archivo = directorio.resolve("grafo.bin");
+        Process generador = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                GENERADOR.toString(), archivoNodos.toString(), archivoAristas.toString(), archivo.toString(),
+                String.valueOf(LANDMARKS))
+                .redirectErrorStream(true)
+                .start();
+        String salida = new String(generador.getInputStream().readAllBytes());
+        assertEquals(0, generador.waitFor(), salida);
+
+        grafo = GrafoVial.cargar(archivo);
+        ruteador.cargar(grafo);
+    }
+
+    @Test
+    void elGeneradorGuardaLasDistanciasExactasDeCadaLandmark() {
+        assertEquals(LANDMARKS, grafo.cantidadLandmarks());
+        assertEquals(destinos.length, grafo.cantidadAristas());
+        for (int l = 0; l < grafo.cantidadLandmarks(); l++) {
+            int landmark = -1;
+            for (int v = 0; v < grafo.cantidadNodos(); v++) {
+                if (grafo.desdeLandmark(l, v) == 0) {
+                    landmark = v;
+                }
+            }
+            assertTrue(landmark >= 0);
+
+            int[] desde = dijkstra(landmark);
+            for (int v = 0; v < grafo.cantidadNodos(); v++) {
+                assertEquals(desde[v], grafo.desdeLandmark(l, v));
+                assertEquals(dijkstra(v)[landmark], grafo.haciaLandmark(l, v));
+            }
+        }
+    }
+
+    @Test
+    void coincideConDijkstraEntreNodos() {
+        Random random = new Random(11);
+        for (int caso = 0; caso < 200; caso++) {
+            int origen = random.nextInt(LADO * LADO);
+            int destino = random.nextInt(LADO * LADO);
+
+            Optional<RuteadorLocal.Ruta> ruta = ruteador.calcular(lat(origen), lon(origen), lat(destino), lon(destino));
+
+            int esperado = dijkstra(origen)[destino];
+            assertTrue(ruta.isPresent());
+            assertEquals(esperado / 10.0, ruta.get().segundos(), 0.5);
+        }
+    }
+
+    @Test
+    void laMatrizCoincideConLasRutasIndividuales() {
+        List<double[]> puntos = List.of(
+                new double[]{lat(0), lon(0)},
+                new double[]{lat(37), lon(37)},
+                new double[]{lat(LADO * LADO - 1), lon(LADO * LADO - 1)});
+
+        RuteadorLocal.Ruta[][] matriz = ruteador.calcularMatriz(puntos).orElseThrow();
+
+        for (int i = 0; i < puntos.size(); i++) {
+            assertEquals(0.0, matriz[i][i].metros());
+            for (int j = 0; j < puntos.size(); j++) {
+                if (i != j) {
+                    RuteadorLocal.Ruta ruta = ruteador.calcular(puntos.get(i)[0], puntos.get(i)[1],
+                            puntos.get(j)[0], puntos.get(j)[1]).orElseThrow();
+                    assertEquals(ruta.segundos(), matriz[i][j].segundos(), 0.01);
+                }
+            }
+        }
+    }
+
+    @Test
+    void fueraDeLaRedNoHayRuta() {
+        assertTrue(ruteador.calcular(lat(0), lon(0), -34.6, -58.4).isEmpty());
+    }
+
+    private static double lat(int nodo) {
+        return -31.0 + (nodo / LADO) * PASO;
+    }
+
+    private static double lon(int nodo) {
+        return -64.0 + (nodo % LADO) * PASO;
+    }
+
+    private static int[] dijkstra(int origen) {
+        int[] distancias = new int[LADO * LADO];
+        Arrays.fill(distancias, Integer.MAX_VALUE);
+        distancias[origen] = 0;
+        PriorityQueue<int[]> cola = new PriorityQueue<>((a, b) -> Integer.compare(a[1], b[1]));
+        cola.add(new int[]{origen, 0});
+        while (!cola.isEmpty()) {
+            int[] actual = cola.poll();
+            if (actual[1] > distancias[actual[0]]) {
+                continue;
+            }
+            for (int e = inicio[actual[0]]; e < inicio[actual[0] + 1]; e++) {
+                int candidato = actual[1] + decisegundos[e];
+                if (candidato < distancias[destinos[e]]) {
+                    distancias[destinos[e]] = candidato;
+                    cola.add(new int[]{destinos[e], candidato});
+                }
+            }
+        }
+        return distancias;
+    }
+}
@@ -1,24 +1,29 @@
 package back.tpi.ms_GestionDeOperaciones.client;
 
+import back.tpi.ms_GestionDeOperaciones.dto.CambiosFlotaDTO;
 import back.tpi.ms_GestionDeOperaciones.dto.CamionDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CamionClient {
 
-    private final RestClient restClient;
+    private final RestClient transporteRestClient;
 
     @Value("${microservices.gestion-transportes.url:http://ms-gestiondetransporte:8084}")
     private String camionServiceUrl;
@@ -31,7 +36,7 @@ public class CamionClient {
             log.info("Consultando camión con patente: {}", patente);
             String token = obtenerTokenActual();
 
-            return restClient.get()
+            return transporteRestClient.get()
                     .uri(camionServiceUrl + "/api/camiones/{patente}", patente)
                     .header("Authorization", "Bearer " + token)
                     .retrieve()
@@ -43,18 +48,63 @@ public class CamionClient {
     }
 
     /**
-     * Obtiene todos los camiones disponibles
+     * Obtiene los camiones cuyos datos cambiaron después de {@code desde}
      */
-    public List<CamionDTO> obtenerCamionesDisponibles() {
+    public CambiosFlotaDTO obtenerCambiosFlota(LocalDateTime desde) {
         try {
-            log.info("Consultando camiones disponibles");
+            log.debug("Consultando cambios de la flota desde {}", desde);
             String token = obtenerTokenActual();
 
-            return restClient.get()
-                    .uri(camionServiceUrl + "/api/camiones/disponibles")
+            return transporteRestClient.get()
+                    .uri(camionServiceUrl + "/api/camiones/cambios?desde={desde}", desde)
                     .header("Authorization", "Bearer " + token)
                     .retrieve()
-                    .body(new ParameterizedTypeReference<List<CamionDTO>>() {});
+                    .body(CambiosFlotaDTO.class);
+        } catch (Exception e) {
+            log.error("Error al obtener cambios de la flota: {}", e.getMessage());
+            throw new RuntimeException("Error al obtener cambios de la flota: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Página de camiones disponibles y la siguiente página (encabezado X-Pagina-Siguiente; null si no hay más)
+     */
+    public record PaginaCamiones(List<CamionDTO> camiones, Integer paginaSiguiente) {
+    }
+
+    /**
+     * Obtiene una página de camiones disponibles con capacidad para el peso y volumen indicados,
+     * ordenados por mejor ajuste. El filtro y el orden los resuelve el microservicio de transporte
+     */
+    public List<CamionDTO> obtenerCamionesDisponibles(Double pesoMinimo, Double volumenMinimo,
+                                                      int pagina, int tamanio) {
+        return obtenerPaginaCamionesDisponibles(pesoMinimo, volumenMinimo, pagina, tamanio).camiones();
+    }
+
+    /**
+     * Igual que {@link #obtenerCamionesDisponibles}, con la página siguiente que informa transporte.
+     * Transporte puede devolver menos que {@code tamanio} (aplica su propio máximo por página)
+     */
+    public PaginaCamiones obtenerPaginaCamionesDisponibles(Double pesoMinimo, Double volumenMinimo,
+                                                           int pagina, int tamanio) {
+        try {
+            log.info("Consultando camiones disponibles (peso >= {}, volumen >= {}, página {})",
+                    pesoMinimo, volumenMinimo, pagina);
+            String token = obtenerTokenActual();
+
+            ResponseEntity<List<CamionDTO>> respuesta = transporteRestClient.get()
+                    .uri(camionServiceUrl + "/api/camiones/disponibles" +
+                                    "?pesoMinimo={peso}&volumenMinimo={volumen}&pagina={pagina}&tamanio={tamanio}",
+                            pesoMinimo != null ? pesoMinimo : 0.0,
+                            volumenMinimo != null ? volumenMinimo : 0.0,
+                            pagina, tamanio)
+                    .header("Authorization", "Bearer " + token)
+                    .retrieve()
+                    .toEntity(new ParameterizedTypeReference<List<CamionDTO>>() {});
+
+            String siguiente = respuesta.getHeaders().getFirst("X-Pagina-Siguiente");
+            List<CamionDTO> camiones = respuesta.getBody() != null ? respuesta.getBody() : List.of();
+            return new PaginaCamiones(camiones, siguiente != null ? Integer.valueOf(siguiente) : null);
         } catch (Exception e) {
             log.error("Error al obtener camiones disponibles: {}", e.getMessage());
             throw new RuntimeException("Error al obtener camiones disponibles: " + e.getMessage());
@@ -69,7 +119,7 @@ public class CamionClient {
             log.info("Actualizando disponibilidad del camión {} a: {}", patente, disponible);
             String token = obtenerTokenActual();
 
-            restClient.put()
+            transporteRestClient.put()
                     .uri(camionServiceUrl + "/api/camiones/{patente}/disponibilidad?disponible={disponible}",
                             patente, disponible)
                     .header("Authorization", "Bearer " + token)
@@ -82,6 +132,119 @@ public class CamionClient {
         }
     }
 
+    /**
+     * Reserva el camión de forma atómica en el microservicio de transporte para iniciar el tramo.
+     * Devuelve false si el camión ya estaba reservado o agendado para otro tramo (409)
+     */
+    public boolean reservarCamion(String patente, Long tramoId) {
+        try {
+            log.info("Reservando camión {} para el tramo {}", patente, tramoId);
+            String token = obtenerTokenActual();
+
+            transporteRestClient.post()
+                    .uri(camionServiceUrl + "/api/camiones/{patente}/reserva?tramoId={tramoId}", patente, tramoId)
+                    .header("Authorization", "Bearer " + token)
+                    .retrieve()
+                    .toBodilessEntity();
+            log.info("✅ Camión {} reservado", patente);
+            return true;
+        } catch (HttpClientErrorException.Conflict e) {
+            log.warn("Camión {} no disponible para reservar", patente);
+            return false;
+        } catch (Exception e) {
+            log.error("Error al reservar camión {}: {}", patente, e.getMessage());
+            throw new RuntimeException("Error al reservar el camión: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Libera el camión (idempotente)
+     */
+    public void liberarCamion(String patente) {
+        try {
+            log.info("Liberando camión {}", patente);
+            String token = obtenerTokenActual();
+
+            transporteRestClient.delete()
+                    .uri(camionServiceUrl + "/api/camiones/{patente}/reserva", patente)
+                    .header("Authorization", "Bearer " + token)
+                    .retrieve()
+                    .toBodilessEntity();
+            log.info("✅ Camión {} liberado", patente);
+        } catch (Exception e) {
+            log.error("Error al liberar camión {}: {}", patente, e.getMessage());
+            throw new RuntimeException("Error al liberar el camión: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Agenda el camión para el tramo en la franja [inicio, fin).
+     * Devuelve false si se superpone con otra reserva del camión (409)
+     */
+    public boolean agendarCamion(String patente, LocalDateTime inicio, LocalDateTime fin, Long tramoId) {
+        try {
+            log.info("Agendando camión {} de {} a {} para el tramo {}", patente, inicio, fin, tramoId);
+            String token = obtenerTokenActual();
+
+            transporteRestClient.post()
+                    .uri(camionServiceUrl + "/api/camiones/{patente}/agenda", patente)
+                    .header("Authorization", "Bearer " + token)
+                    .body(Map.of("inicio", inicio, "fin", fin, "tramoId", tramoId))
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (HttpClientErrorException.Conflict e) {
+            log.warn("Camión {} ya agendado entre {} y {}", patente, inicio, fin);
+            return false;
+        } catch (Exception e) {
+            log.error("Error al agendar camión {}: {}", patente, e.getMessage());
+            throw new RuntimeException("Error al agendar el camión: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Quita de la agenda las reservas del tramo (idempotente)
+     */
+    public void cancelarAgendaTramo(Long tramoId) {
+        try {
+            String token = obtenerTokenActual();
+
+            transporteRestClient.delete()
+                    .uri(camionServiceUrl + "/api/camiones/agenda/tramo/{tramoId}", tramoId)
+                    .header("Authorization", "Bearer " + token)
+                    .retrieve()
+                    .toBodilessEntity();
+            log.info("✅ Agenda del tramo {} cancelada", tramoId);
+        } catch (Exception e) {
+            log.error("Error al cancelar la agenda del tramo {}: {}", tramoId, e.getMessage());
+            throw new RuntimeException("Error al cancelar la agenda del tramo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Camiones con capacidad para el peso y volumen indicados y sin reservas en [inicio, fin)
+     */
+    public List<CamionDTO> obtenerCamionesLibres(LocalDateTime inicio, LocalDateTime fin,
+                                                 Double pesoMinimo, Double volumenMinimo) {
+        try {
+            log.info("Consultando camiones libres de {} a {}", inicio, fin);
+            String token = obtenerTokenActual();
+
+            return transporteRestClient.get()
+                    .uri(camionServiceUrl + "/api/camiones/libres" +
+                                    "?inicio={inicio}&fin={fin}&pesoMinimo={peso}&volumenMinimo={volumen}",
+                            inicio, fin,
+                            pesoMinimo != null ? pesoMinimo : 0.0,
+                            volumenMinimo != null ? volumenMinimo : 0.0)
+                    .header("Authorization", "Bearer " + token)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<CamionDTO>>() {});
+        } catch (Exception e) {
+            log.error("Error al obtener camiones libres: {}", e.getMessage());
+            throw new RuntimeException("Error al obtener camiones libres: " + e.getMessage());
+        }
+    }
+
     /**
      * Obtiene el token JWT del contexto de seguridad actual
      */
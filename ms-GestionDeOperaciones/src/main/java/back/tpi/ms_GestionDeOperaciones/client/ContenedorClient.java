@@ -12,7 +12,7 @@ import org.springframework.web.client.RestClient;
 @Slf4j
 public class ContenedorClient {
 
-    private final RestClient restClient;
+    private final RestClient infraestructuraRestClient;
 
     @Value("${microservices.gestion-infraestructura.url:http://localhost:8082}")
     private String infraestructuraServiceUrl;
@@ -22,7 +22,7 @@ public class ContenedorClient {
      */
     public ContenedorDTO crearContenedor(ContenedorDTO contenedorDTO) {
         try {
-            return restClient.post()
+            return infraestructuraRestClient.post()
                     .uri(infraestructuraServiceUrl + "/api/contenedores")
                     .body(contenedorDTO)
                     .retrieve()
@@ -38,7 +38,7 @@ public class ContenedorClient {
      */
     public boolean existeContenedor(Long contenedorId) {
         try {
-            Boolean existe = restClient.get()
+            Boolean existe = infraestructuraRestClient.get()
                     .uri(infraestructuraServiceUrl + "/api/contenedores/{id}/existe", contenedorId)
                     .retrieve()
                     .body(Boolean.class);
@@ -55,7 +55,7 @@ public class ContenedorClient {
      */
     public ContenedorDTO getContenedor(Long contenedorId) {
         try {
-            return restClient.get()
+            return infraestructuraRestClient.get()
                     .uri(infraestructuraServiceUrl + "/api/contenedores/{id}", contenedorId)
                     .retrieve()
                     .body(ContenedorDTO.class);
@@ -18,7 +18,7 @@ import java.util.List;
 @Slf4j
 public class DepositoClient {
 
-    private final RestClient restClient;
+    private final RestClient infraestructuraRestClient;
 
     @Value("${microservices.gestion-infraestructura.url:http://ms-gestiondeinfraestructura:8082}")
     private String infraestructuraServiceUrl;
@@ -34,7 +34,7 @@ public class DepositoClient {
                     latOrigen, lngOrigen, latDestino, lngDestino);
             String token = obtenerTokenActual();
 
-            List<DepositoDTO> depositos = restClient.get()
+            List<DepositoDTO> depositos = infraestructuraRestClient.get()
                     .uri(infraestructuraServiceUrl + "/api/depositos/en-ruta?latOrigen={latO}&lngOrigen={lngO}&latDestino={latD}&lngDestino={lngD}&cantidad={cant}",
                             latOrigen, lngOrigen, latDestino, lngDestino, cantidad)
                     .header("Authorization", "Bearer " + token)
@@ -59,7 +59,7 @@ public class DepositoClient {
             log.info("Consultando depósitos activos");
             String token = obtenerTokenActual();
 
-            List<DepositoDTO> depositos = restClient.get()
+            List<DepositoDTO> depositos = infraestructuraRestClient.get()
                     .uri(infraestructuraServiceUrl + "/api/depositos")
                     .header("Authorization", "Bearer " + token)
                     .retrieve()
@@ -83,7 +83,7 @@ public class DepositoClient {
                     lat, lng, radioKm);
             String token = obtenerTokenActual();
 
-            List<DepositoDTO> depositos = restClient.get()
+            List<DepositoDTO> depositos = infraestructuraRestClient.get()
                     .uri(uriBuilder -> uriBuilder
                             .path(infraestructuraServiceUrl + "/api/depositos/cercanos")
                             .queryParam("lat", lat)
@@ -111,7 +111,7 @@ public class DepositoClient {
             log.info("Consultando depósito con ID: {}", depositoId);
             String token = obtenerTokenActual();
 
-            DepositoDTO deposito = restClient.get()
+            DepositoDTO deposito = infraestructuraRestClient.get()
                     .uri(infraestructuraServiceUrl + "/api/depositos/{id}", depositoId)
                     .header("Authorization", "Bearer " + token)
                     .retrieve()
@@ -133,7 +133,7 @@ public class DepositoClient {
         try {
             String token = obtenerTokenActual();
 
-            Boolean existe = restClient.get()
+            Boolean existe = infraestructuraRestClient.get()
                     .uri(infraestructuraServiceUrl + "/api/depositos/{id}/existe", depositoId)
                     .header("Authorization", "Bearer " + token)
                     .retrieve()
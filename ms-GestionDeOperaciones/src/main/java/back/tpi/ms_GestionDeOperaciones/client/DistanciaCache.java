@@ -0,0 +1,165 @@
+package back.tpi.ms_GestionDeOperaciones.client;
+
+import back.tpi.ms_GestionDeOperaciones.dto.DistanciaResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache en memoria de distancias OSRM.
+ * La clave son las coordenadas de origen/destino redondeadas a {@code osrm.cache.precision} decimales,
+ * así los tramos que se repiten (depósito-depósito, ciudad-ciudad) no vuelven a consultar OSRM.
+ * Es LRU, acotada a {@code osrm.cache.max-entries} y cada entrada vence a los {@code osrm.cache.ttl}.
+ */
+@Component
+@Slf4j
+public class DistanciaCache {
+
+    private final boolean habilitada;
+    private final int maxEntradas;
+    private final long ttlNanos;
+    private final double factorRedondeo;
+
+    private final LinkedHashMap<Clave, Entrada> entradas;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public DistanciaCache(@Value("${osrm.cache.enabled:true}") boolean habilitada,
+                          @Value("${osrm.cache.max-entries:10000}") int maxEntradas,
+                          @Value("${osrm.cache.ttl:PT6H}") Duration ttl,
+                          @Value("${osrm.cache.precision:4}") int precision,
+                          MeterRegistry meterRegistry) {
+        this.habilitada = habilitada;
+        this.maxEntradas = maxEntradas;
+        this.ttlNanos = ttl.toNanos();
+        this.factorRedondeo = Math.pow(10, precision);
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Clave, Entrada> eldest) {
+                if (size() > DistanciaCache.this.maxEntradas) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        FunctionCounter.builder("osrm.cache.hits", hits, AtomicLong::get)
+                .description("Consultas de distancia resueltas desde la cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("osrm.cache.misses", misses, AtomicLong::get)
+                .description("Consultas de distancia que requirieron llamar a OSRM")
+                .register(meterRegistry);
+        FunctionCounter.builder("osrm.cache.evictions", evictions, AtomicLong::get)
+                .description("Entradas descartadas por exceder el tamaño máximo")
+                .register(meterRegistry);
+        Gauge.builder("osrm.cache.size", this, DistanciaCache::tamanio)
+                .description("Cantidad de distancias almacenadas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca una distancia vigente para el par origen/destino
+     */
+    public Optional<DistanciaResponse> obtener(double origenLat, double origenLon,
+                                               double destinoLat, double destinoLon) {
+        if (!habilitada) {
+            return Optional.empty();
+        }
+
+        Clave clave = crearClave(origenLat, origenLon, destinoLat, destinoLon);
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada != null && entrada.venceEn() - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                return Optional.of(entrada.respuesta());
+            }
+            if (entrada != null) {
+                entradas.remove(clave);
+            }
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Guarda la distancia calculada por OSRM para el par origen/destino
+     */
+    public void guardar(double origenLat, double origenLon,
+                        double destinoLat, double destinoLon,
+                        DistanciaResponse respuesta) {
+        if (!habilitada || respuesta == null) {
+            return;
+        }
+
+        Clave clave = crearClave(origenLat, origenLon, destinoLat, destinoLon);
+        synchronized (entradas) {
+            entradas.put(clave, new Entrada(respuesta, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Vacía la cache y devuelve la cantidad de entradas eliminadas
+     */
+    public int limpiar() {
+        synchronized (entradas) {
+            int eliminadas = entradas.size();
+            entradas.clear();
+            log.info("🧹 Cache de distancias OSRM vaciada ({} entradas)", eliminadas);
+            return eliminadas;
+        }
+    }
+
+    /**
+     * Estadísticas actuales de la cache
+     */
+    public Map<String, Object> estadisticas() {
+        long totalHits = hits.get();
+        long totalMisses = misses.get();
+        long consultas = totalHits + totalMisses;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("habilitada", habilitada);
+        stats.put("entradas", tamanio());
+        stats.put("maxEntradas", maxEntradas);
+        stats.put("ttlSegundos", Duration.ofNanos(ttlNanos).toSeconds());
+        stats.put("hits", totalHits);
+        stats.put("misses", totalMisses);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRatio", consultas == 0 ? 0.0 : Math.round(totalHits * 10000.0 / consultas) / 10000.0);
+        return stats;
+    }
+
+    private int tamanio() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    private Clave crearClave(double origenLat, double origenLon, double destinoLat, double destinoLon) {
+        return new Clave(
+                Math.round(origenLat * factorRedondeo),
+                Math.round(origenLon * factorRedondeo),
+                Math.round(destinoLat * factorRedondeo),
+                Math.round(destinoLon * factorRedondeo)
+        );
+    }
+
+    private record Clave(long origenLat, long origenLon, long destinoLat, long destinoLon) {
+    }
+
+    private record Entrada(DistanciaResponse respuesta, long venceEn) {
+    }
+}
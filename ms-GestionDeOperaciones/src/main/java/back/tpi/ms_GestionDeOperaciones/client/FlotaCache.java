@@ -0,0 +1,213 @@
+package back.tpi.ms_GestionDeOperaciones.client;
+
+import back.tpi.ms_GestionDeOperaciones.dto.CambiosFlotaDTO;
+import back.tpi.ms_GestionDeOperaciones.dto.CamionDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Copia local de los datos de la flota (costos y tipo de cada camión) de ms-GestionDeTransporte.
+ * Se descarga completa en el primer uso y después se actualiza con los cambios
+ * ({@code /api/camiones/cambios}) cada {@code flota.cache.refrescar-despues}, pidiéndolos con un
+ * solapamiento de {@code flota.cache.solapamiento} para no perder modificaciones confirmadas tarde.
+ * Cada {@code flota.cache.recarga-completa} se vuelve a descargar entera (así se ven las bajas).
+ * <p>
+ * La disponibilidad no se guarda: cambia con cada reserva y sigue consultándose al servicio de transporte.
+ */
+@Component
+@Slf4j
+public class FlotaCache {
+
+    private static final LocalDateTime CARGA_COMPLETA_DESDE = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final CamionClient camionClient;
+    private final boolean habilitada;
+    private final long refrescarNanos;
+    private final long recargaCompletaNanos;
+    private final Duration solapamiento;
+
+    private volatile Map<String, CamionDTO> camiones = new ConcurrentHashMap<>();
+    // Marca del servidor de la última sincronización; null mientras no haya carga inicial
+    private volatile LocalDateTime sincronizadoHasta;
+    // Último intento de sincronización (exitoso o no); evita reintentar en cada consulta si transporte no responde
+    private volatile boolean intentada;
+    private volatile long refrescadaEn;
+    private volatile long cargadaEn;
+    private final ReentrantLock sincronizacion = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong cambiosAplicados = new AtomicLong();
+
+    public FlotaCache(CamionClient camionClient,
+                      @Value("${flota.cache.enabled:true}") boolean habilitada,
+                      @Value("${flota.cache.refrescar-despues:PT30S}") Duration refrescarDespues,
+                      @Value("${flota.cache.recarga-completa:PT1H}") Duration recargaCompleta,
+                      @Value("${flota.cache.solapamiento:PT1M}") Duration solapamiento,
+                      MeterRegistry meterRegistry) {
+        this.camionClient = camionClient;
+        this.habilitada = habilitada;
+        this.refrescarNanos = refrescarDespues.toNanos();
+        this.recargaCompletaNanos = recargaCompleta.toNanos();
+        this.solapamiento = solapamiento;
+
+        FunctionCounter.builder("flota.cache.hits", hits, AtomicLong::get)
+                .description("Camiones resueltos desde la copia local de la flota")
+                .register(meterRegistry);
+        FunctionCounter.builder("flota.cache.misses", misses, AtomicLong::get)
+                .description("Camiones que no estaban en la copia local y se consultaron al servicio de transporte")
+                .register(meterRegistry);
+        FunctionCounter.builder("flota.cache.cambios", cambiosAplicados, AtomicLong::get)
+                .description("Camiones actualizados por sincronización incremental")
+                .register(meterRegistry);
+        Gauge.builder("flota.cache.size", this, c -> c.camiones.size())
+                .description("Cantidad de camiones en la copia local")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Datos del camión (sin disponibilidad). Si no está en la copia local se consulta al
+     * servicio de transporte y se agrega
+     */
+    public CamionDTO obtener(String patente) {
+        if (!habilitada) {
+            return camionClient.obtenerCamionPorPatente(patente);
+        }
+
+        sincronizarSiCorresponde();
+
+        CamionDTO camion = camiones.get(patente);
+        if (camion != null) {
+            hits.incrementAndGet();
+            return camion;
+        }
+
+        misses.incrementAndGet();
+        CamionDTO remoto = camionClient.obtenerCamionPorPatente(patente);
+        guardar(remoto);
+        return remoto;
+    }
+
+    /**
+     * Descarta la copia local; la próxima consulta vuelve a descargar la flota completa
+     */
+    public int limpiar() {
+        sincronizacion.lock();
+        try {
+            int eliminados = camiones.size();
+            camiones = new ConcurrentHashMap<>();
+            sincronizadoHasta = null;
+            intentada = false;
+            return eliminados;
+        } finally {
+            sincronizacion.unlock();
+        }
+    }
+
+    public Map<String, Object> estadisticas() {
+        long h = hits.get();
+        long m = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("habilitada", habilitada);
+        stats.put("camiones", camiones.size());
+        stats.put("sincronizadoHasta", sincronizadoHasta);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("cambiosAplicados", cambiosAplicados.get());
+        stats.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        return stats;
+    }
+
+    /**
+     * Carga inicial, recarga completa o sincronización incremental según corresponda.
+     * Solo un hilo sincroniza; mientras tanto los demás siguen leyendo la copia actual
+     * (salvo en la carga inicial, que esperan)
+     */
+    private void sincronizarSiCorresponde() {
+        if (intentada && refrescadaEn + refrescarNanos - System.nanoTime() > 0) {
+            return;
+        }
+
+        boolean sinCargar = sincronizadoHasta == null;
+        if (sinCargar) {
+            sincronizacion.lock();
+        } else if (!sincronizacion.tryLock()) {
+            return;
+        }
+
+        try {
+            if (intentada && refrescadaEn + refrescarNanos - System.nanoTime() > 0) {
+                return;
+            }
+            if (sincronizadoHasta == null) {
+                cargarCompleta();
+            } else if (cargadaEn + recargaCompletaNanos - System.nanoTime() <= 0) {
+                cargarCompleta();
+            } else {
+                aplicarCambios();
+            }
+        } catch (Exception e) {
+            // Sin sincronizar se sigue con la copia actual (o con consultas individuales si no hay)
+            log.warn("⚠️ No se pudo sincronizar la flota: {}", e.getMessage());
+            refrescadaEn = System.nanoTime();
+        } finally {
+            intentada = true;
+            sincronizacion.unlock();
+        }
+    }
+
+    private void cargarCompleta() {
+        // Todos los camiones tienen actualizadoEn, así que "cambios desde siempre" es la flota completa
+        CambiosFlotaDTO flota = camionClient.obtenerCambiosFlota(CARGA_COMPLETA_DESDE);
+
+        Map<String, CamionDTO> nueva = new ConcurrentHashMap<>();
+        if (flota.getCamiones() != null) {
+            flota.getCamiones().forEach(c -> agregar(nueva, c));
+        }
+        camiones = nueva;
+        sincronizadoHasta = flota.getConsultadoEn();
+        cargadaEn = refrescadaEn = System.nanoTime();
+        log.info("🚛 Flota cargada: {} camiones", nueva.size());
+    }
+
+    private void aplicarCambios() {
+        CambiosFlotaDTO cambios = camionClient.obtenerCambiosFlota(sincronizadoHasta.minus(solapamiento));
+        List<CamionDTO> modificados = cambios.getCamiones() != null ? cambios.getCamiones() : List.of();
+
+        modificados.forEach(c -> agregar(camiones, c));
+        cambiosAplicados.addAndGet(modificados.size());
+        sincronizadoHasta = cambios.getConsultadoEn();
+        refrescadaEn = System.nanoTime();
+        if (!modificados.isEmpty()) {
+            log.info("🚛 Flota actualizada: {} camiones modificados", modificados.size());
+        }
+    }
+
+    private void guardar(CamionDTO camion) {
+        // Solo se agrega si ya hubo carga inicial; si no, la carga lo va a traer
+        if (sincronizadoHasta != null) {
+            agregar(camiones, camion);
+        }
+    }
+
+    private static void agregar(Map<String, CamionDTO> destino, CamionDTO camion) {
+        if (camion == null || camion.getPatente() == null) {
+            return;
+        }
+        camion.setDisponible(null);
+        destino.put(camion.getPatente(), camion);
+    }
+}
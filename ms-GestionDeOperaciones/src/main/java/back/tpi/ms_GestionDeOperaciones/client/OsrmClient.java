@@ -1,6 +1,12 @@
 package back.tpi.ms_GestionDeOperaciones.client;
 
 import back.tpi.ms_GestionDeOperaciones.dto.DistanciaResponse;
+import back.tpi.ms_GestionDeOperaciones.dto.MatrizDistanciaResponse;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,13 +14,23 @@ import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OsrmClient {
-    private final RestClient restClient;
+    private static final String RESILIENCIA_OSRM = "osrm";
+
+    private final RestClient osrmRestClient;
+    private final DistanciaCache distanciaCache;
+    private final RuteadorLocal ruteadorLocal;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryRegistry retryRegistry;
 
     @Value("${osrm.base-url}")
     private String osrmServiceUrl;
@@ -22,47 +38,196 @@ public class OsrmClient {
 
     /**
      * Calcula distancia (km) y tiempo (horas) entre dos puntos usando OSRM (perfil driving).
+     * Si el ruteo local está habilitado y encuentra ruta, no se llama a OSRM.
      */
     public DistanciaResponse calcularDistancia(double origenLat, double origenLon,
                                                double destinoLat, double destinoLon) {
+        DistanciaResponse cacheada = distanciaCache.obtener(origenLat, origenLon, destinoLat, destinoLon)
+                .orElse(null);
+        if (cacheada != null) {
+            log.debug("Distancia obtenida de la cache para ({}, {}) -> ({}, {})",
+                    origenLat, origenLon, destinoLat, destinoLon);
+            return cacheada;
+        }
+
+        if (ruteadorLocal.habilitado()) {
+            Optional<RuteadorLocal.Ruta> local = ruteadorLocal.calcular(origenLat, origenLon, destinoLat, destinoLon);
+            if (local.isPresent()) {
+                return crearDistancia(local.get().metros(), local.get().segundos());
+            }
+            log.debug("Sin ruta en el grafo local para ({}, {}) -> ({}, {}). Consultando OSRM.",
+                    origenLat, origenLon, destinoLat, destinoLon);
+        }
+
         String coords = String.format("%f,%f;%f,%f", origenLon, origenLat, destinoLon, destinoLat);
         String path = String.format("/route/v1/driving/%s?overview=false&alternatives=false&annotations=false", coords);
 
-        int maxRetries = 3;
-        int retryDelay = 1000; // 1 segundo
+        return ejecutarConResiliencia(
+                () -> {
+                    log.info("Calculando distancia con OSRM");
+                    DistanciaResponse response = osrmRestClient.get()
+                            .uri(osrmServiceUrl + path)
+                            .retrieve()
+                            .body(DistanciaResponse.class);
+
+                    if (response == null || response.getRoutes() == null || response.getRoutes().isEmpty()) {
+                        throw new IllegalStateException("OSRM no devolvió rutas");
+                    }
+
+                    log.info("✅ Distancia calculada exitosamente");
+                    // Solo se cachean respuestas reales de OSRM, nunca la aproximación por Haversine
+                    distanciaCache.guardar(origenLat, origenLon, destinoLat, destinoLon, response);
+                    return response;
+                },
+                () -> crearDistanciaAproximada(origenLat, origenLon, destinoLat, destinoLon)
+        );
+    }
+
+    /**
+     * Calcula en una sola llamada a OSRM (/table) la distancia (metros) y duración (segundos)
+     * entre todos los pares de puntos. Cada punto es {latitud, longitud}.
+     * Si el ruteo local está habilitado y cubre todos los pares, no se llama a OSRM.
+     */
+    public MatrizDistanciaResponse calcularMatriz(List<double[]> puntos) {
+        if (ruteadorLocal.habilitado()) {
+            Optional<RuteadorLocal.Ruta[][]> local = ruteadorLocal.calcularMatriz(puntos);
+            if (local.isPresent()) {
+                return crearMatrizLocal(local.get());
+            }
+            log.debug("El grafo local no cubre los {} puntos. Consultando OSRM.", puntos.size());
+        }
+
+        String coords = puntos.stream()
+                .map(p -> String.format("%f,%f", p[1], p[0]))
+                .collect(Collectors.joining(";"));
+        String path = String.format("/table/v1/driving/%s?annotations=distance,duration", coords);
 
-        for (int i = 0; i < maxRetries; i++) {
-            try {
-                log.info("Intentando calcular distancia con OSRM (intento {}/{})", i + 1, maxRetries);
+        return ejecutarConResiliencia(
+                () -> {
+                    log.info("Calculando matriz de {} puntos con OSRM", puntos.size());
+                    MatrizDistanciaResponse response = osrmRestClient.get()
+                            .uri(osrmServiceUrl + path)
+                            .retrieve()
+                            .body(MatrizDistanciaResponse.class);
+
+                    if (response == null || response.getDistances() == null || response.getDurations() == null) {
+                        throw new IllegalStateException("OSRM no devolvió la matriz de distancias");
+                    }
+
+                    completarMatriz(response, puntos);
+                    log.info("✅ Matriz de distancias calculada exitosamente");
+                    return response;
+                },
+                () -> crearMatrizAproximada(puntos)
+        );
+    }
 
-                DistanciaResponse response = restClient.get()
-                        .uri(osrmServiceUrl + path)
-                        .retrieve()
-                        .body(DistanciaResponse.class);
+    /**
+     * Ejecuta la llamada a OSRM detrás del circuit breaker "osrm" con reintentos
+     * (backoff exponencial con jitter). Si el circuito está abierto no se llama a OSRM
+     * y se devuelve de inmediato la aproximación.
+     */
+    private <T> T ejecutarConResiliencia(Supplier<T> llamada, Supplier<T> aproximacion) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(RESILIENCIA_OSRM);
+        Retry retry = retryRegistry.retry(RESILIENCIA_OSRM);
 
-                log.info("✅ Distancia calculada exitosamente");
-                return response;
+        Supplier<T> llamadaProtegida = Retry.decorateSupplier(retry,
+                CircuitBreaker.decorateSupplier(circuitBreaker, llamada));
 
-            } catch (Exception e) {
-                log.warn("⚠️ Error en intento {}/{}: {}", i + 1, maxRetries, e.getMessage());
+        try {
+            return llamadaProtegida.get();
+        } catch (CallNotPermittedException e) {
+            log.warn("⚡ Circuito OSRM {}. Usando aproximación sin llamar a OSRM.", circuitBreaker.getState());
+            return aproximacion.get();
+        } catch (Exception e) {
+            log.error("❌ Todos los intentos fallaron ({}). Usando aproximación.", e.getMessage());
+            return aproximacion.get();
+        }
+    }
 
-                if (i == maxRetries - 1) {
-                    // Último intento falló
-                    log.error("❌ Todos los intentos fallaron. Usando distancia aproximada.");
-                    return crearDistanciaAproximada(origenLat, origenLon, destinoLat, destinoLon);
+    /**
+     * Completa con Haversine los pares sin ruta en OSRM y guarda el resto en la cache de distancias
+     */
+    private void completarMatriz(MatrizDistanciaResponse matriz, List<double[]> puntos) {
+        for (int i = 0; i < puntos.size(); i++) {
+            for (int j = 0; j < puntos.size(); j++) {
+                if (i == j) {
+                    continue;
                 }
+                double[] origen = puntos.get(i);
+                double[] destino = puntos.get(j);
 
-                // Esperar antes del siguiente intento
-                try {
-                    Thread.sleep(retryDelay);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
+                if (matriz.tieneValor(i, j)) {
+                    distanciaCache.guardar(origen[0], origen[1], destino[0], destino[1],
+                            matriz.getDistancia(i, j));
+                } else {
+                    double distanciaKm = calcularDistanciaHaversine(origen[0], origen[1], destino[0], destino[1]);
+                    matriz.getDistances().get(i).set(j, distanciaKm * 1000);
+                    matriz.getDurations().get(i).set(j, distanciaKm / 60.0 * 3600);
                 }
             }
         }
+    }
+
+    /**
+     * Matriz con el formato de /table a partir de las rutas del grafo local
+     */
+    private MatrizDistanciaResponse crearMatrizLocal(RuteadorLocal.Ruta[][] rutas) {
+        List<List<Double>> distancias = new ArrayList<>();
+        List<List<Double>> duraciones = new ArrayList<>();
+        for (RuteadorLocal.Ruta[] fila : rutas) {
+            List<Double> filaDistancias = new ArrayList<>();
+            List<Double> filaDuraciones = new ArrayList<>();
+            for (RuteadorLocal.Ruta ruta : fila) {
+                filaDistancias.add(ruta.metros());
+                filaDuraciones.add(ruta.segundos());
+            }
+            distancias.add(filaDistancias);
+            duraciones.add(filaDuraciones);
+        }
 
-        // Fallback (nunca debería llegar aquí)
-        return crearDistanciaAproximada(origenLat, origenLon, destinoLat, destinoLon);
+        MatrizDistanciaResponse response = new MatrizDistanciaResponse();
+        response.setCode(DistanciaResponse.CODIGO_LOCAL);
+        response.setDistances(distancias);
+        response.setDurations(duraciones);
+        return response;
+    }
+
+    private DistanciaResponse crearDistancia(double metros, double segundos) {
+        DistanciaResponse.Route route = new DistanciaResponse.Route();
+        route.setDistance(metros);
+        route.setDuration(segundos);
+
+        DistanciaResponse response = new DistanciaResponse();
+        response.setCode(DistanciaResponse.CODIGO_LOCAL);
+        response.setRoutes(List.of(route));
+        return response;
+    }
+
+    /**
+     * Crea una matriz aproximada usando Haversine cuando OSRM falla
+     */
+    private MatrizDistanciaResponse crearMatrizAproximada(List<double[]> puntos) {
+        List<List<Double>> distancias = new ArrayList<>();
+        List<List<Double>> duraciones = new ArrayList<>();
+
+        for (double[] origen : puntos) {
+            List<Double> filaDistancias = new ArrayList<>();
+            List<Double> filaDuraciones = new ArrayList<>();
+            for (double[] destino : puntos) {
+                double distanciaKm = calcularDistanciaHaversine(origen[0], origen[1], destino[0], destino[1]);
+                filaDistancias.add(distanciaKm * 1000); // metros
+                filaDuraciones.add(distanciaKm / 60.0 * 3600); // segundos a 60 km/h
+            }
+            distancias.add(filaDistancias);
+            duraciones.add(filaDuraciones);
+        }
+
+        MatrizDistanciaResponse response = new MatrizDistanciaResponse();
+        response.setCode(DistanciaResponse.CODIGO_APROXIMADA);
+        response.setDistances(distancias);
+        response.setDurations(duraciones);
+        return response;
     }
 
     /**
@@ -84,6 +249,7 @@ public class OsrmClient {
         route.setDistance(distanciaKm * 1000); // metros
         route.setDuration(tiempoHoras * 3600);  // segundos
 
+        response.setCode(DistanciaResponse.CODIGO_APROXIMADA);
         response.setRoutes(List.of(route));
         return response;
     }
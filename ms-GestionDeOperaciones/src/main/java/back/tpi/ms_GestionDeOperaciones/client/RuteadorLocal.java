@@ -0,0 +1,427 @@
+package back.tpi.ms_GestionDeOperaciones.client;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Ruteo en proceso sobre un {@link GrafoVial} local, como alternativa a OSRM sin salto de red.
+ * <p>
+ * ALT: el archivo trae las duraciones desde y hacia cada landmark (calculadas al generarlo con
+ * {@code herramientas/GeneradorGrafoVial.java}); por desigualdad triangular dan una cota inferior con la que
+ * A* explora solo una franja del grafo alrededor del camino. Las búsquedas minimizan la duración (como OSRM)
+ * y acumulan los metros del camino elegido. Al arrancar solo se mapea el archivo y se indexan las coordenadas.
+ * <p>
+ * Desactivado por defecto ({@code ruteo.local.enabled}); sin grafo cargado {@link #habilitado()} es false
+ * y {@link OsrmClient} sigue usando OSRM. ms-GestionDeInfraestructura tiene una copia idéntica de esta clase.
+ */
+@Component
+@Slf4j
+public class RuteadorLocal {
+
+    private static final int INFINITO = Integer.MAX_VALUE;
+    private static final double GRADOS_POR_CELDA = 0.01;
+    private static final double METROS_POR_GRADO = 111_320;
+    private static final double VELOCIDAD_ACCESO_KMH = 60.0;
+
+    @Value("${ruteo.local.enabled:false}")
+    private boolean activo;
+
+    @Value("${ruteo.local.grafo:}")
+    private String archivoGrafo;
+
+    @Value("${ruteo.local.radio-snap-metros:5000}")
+    private double radioSnapMetros = 5000;
+
+    private volatile Datos datos;
+
+    private final ThreadLocal<Busqueda> busquedas = new ThreadLocal<>();
+
+    /**
+     * Duración en segundos y distancia en metros de una ruta
+     */
+    public record Ruta(double metros, double segundos) {
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!activo) {
+            return;
+        }
+        if (archivoGrafo == null || archivoGrafo.isBlank()) {
+            log.warn("⚠️ ruteo.local.enabled=true pero falta ruteo.local.grafo. Se usará OSRM.");
+            return;
+        }
+        try {
+            cargar(GrafoVial.cargar(Path.of(archivoGrafo)));
+        } catch (IOException | RuntimeException e) {
+            log.error("❌ No se pudo cargar el grafo vial {}: {}. Se usará OSRM.", archivoGrafo, e.getMessage());
+        }
+    }
+
+    /**
+     * Indexa las coordenadas del grafo. Desde ese momento las consultas se resuelven localmente
+     */
+    public void cargar(GrafoVial grafo) {
+        long inicio = System.currentTimeMillis();
+        this.datos = new Datos(grafo, indexar(grafo));
+        log.info("🗺️ Grafo vial local cargado: {} nodos, {} aristas, {} landmarks en {} ms",
+                grafo.cantidadNodos(), grafo.cantidadAristas(), grafo.cantidadLandmarks(),
+                System.currentTimeMillis() - inicio);
+    }
+
+    public boolean habilitado() {
+        return datos != null;
+    }
+
+    /**
+     * Ruta más rápida entre dos coordenadas. Vacío si no hay grafo, si algún punto queda
+     * a más de {@code ruteo.local.radio-snap-metros} de la red o si no hay camino
+     */
+    public Optional<Ruta> calcular(double origenLat, double origenLon, double destinoLat, double destinoLon) {
+        Datos d = datos;
+        if (d == null) {
+            return Optional.empty();
+        }
+        Punto origen = ubicar(d, origenLat, origenLon);
+        Punto destino = ubicar(d, destinoLat, destinoLon);
+        if (origen == null || destino == null) {
+            return Optional.empty();
+        }
+
+        Busqueda busqueda = busqueda(d);
+        if (!busqueda.aEstrella(d, origen.nodo, destino.nodo)) {
+            return Optional.empty();
+        }
+        return Optional.of(conAcceso(busqueda.metros(destino.nodo), busqueda.duracion(destino.nodo),
+                origen.metrosAcceso + destino.metrosAcceso));
+    }
+
+    /**
+     * Rutas entre todos los pares de puntos ({latitud, longitud}), con un Dijkstra por origen que se detiene
+     * al alcanzar todos los destinos. Vacío si algún punto no se puede ubicar o algún par no tiene camino
+     */
+    public Optional<Ruta[][]> calcularMatriz(List<double[]> puntos) {
+        Datos d = datos;
+        if (d == null) {
+            return Optional.empty();
+        }
+        int cantidad = puntos.size();
+        Punto[] ubicados = new Punto[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            ubicados[i] = ubicar(d, puntos.get(i)[0], puntos.get(i)[1]);
+            if (ubicados[i] == null) {
+                return Optional.empty();
+            }
+        }
+
+        int[] objetivos = Arrays.stream(ubicados).mapToInt(Punto::nodo).distinct().toArray();
+        Busqueda busqueda = busqueda(d);
+        Ruta[][] rutas = new Ruta[cantidad][cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            busqueda.dijkstra(d.grafo, ubicados[i].nodo, objetivos);
+            for (int j = 0; j < cantidad; j++) {
+                if (i == j) {
+                    rutas[i][j] = new Ruta(0, 0);
+                    continue;
+                }
+                int nodo = ubicados[j].nodo;
+                if (busqueda.duracion(nodo) == INFINITO) {
+                    return Optional.empty();
+                }
+                rutas[i][j] = conAcceso(busqueda.metros(nodo), busqueda.duracion(nodo),
+                        ubicados[i].metrosAcceso + ubicados[j].metrosAcceso);
+            }
+        }
+        return Optional.of(rutas);
+    }
+
+    private Busqueda busqueda(Datos d) {
+        Busqueda busqueda = busquedas.get();
+        if (busqueda == null || busqueda.generaciones.length != d.grafo.cantidadNodos()) {
+            busqueda = new Busqueda(d.grafo.cantidadNodos());
+            busquedas.set(busqueda);
+        }
+        return busqueda;
+    }
+
+    /**
+     * El tramo entre cada coordenada y su nodo más cercano se suma en línea recta a velocidad fija
+     */
+    private Ruta conAcceso(int metros, int decisegundos, double metrosAcceso) {
+        double segundosAcceso = metrosAcceso / 1000.0 / VELOCIDAD_ACCESO_KMH * 3600;
+        return new Ruta(metros + metrosAcceso, decisegundos / 10.0 + segundosAcceso);
+    }
+
+    // --------------------------------------------
+    // UBICACIÓN DE COORDENADAS EN LA RED
+    // --------------------------------------------
+
+    private record Punto(int nodo, double metrosAcceso) {
+    }
+
+    private Map<Long, int[]> indexar(GrafoVial grafo) {
+        Map<Long, List<Integer>> celdas = new HashMap<>();
+        for (int v = 0; v < grafo.cantidadNodos(); v++) {
+            celdas.computeIfAbsent(celda(celdaDe(grafo.latitud(v)), celdaDe(grafo.longitud(v))),
+                    k -> new ArrayList<>()).add(v);
+        }
+        Map<Long, int[]> indice = new HashMap<>(celdas.size() * 2);
+        celdas.forEach((clave, nodos) -> indice.put(clave, nodos.stream().mapToInt(Integer::intValue).toArray()));
+        return indice;
+    }
+
+    /**
+     * Nodo más cercano recorriendo anillos de celdas hasta que ningún anillo más lejano pueda mejorar
+     */
+    private Punto ubicar(Datos d, double lat, double lon) {
+        int filaCentro = celdaDe(lat);
+        int columnaCentro = celdaDe(lon);
+        double metrosPorCelda = GRADOS_POR_CELDA * METROS_POR_GRADO * Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        int anillos = (int) Math.ceil(radioSnapMetros / metrosPorCelda) + 1;
+
+        int mejor = -1;
+        double mejorMetros = Double.POSITIVE_INFINITY;
+        for (int r = 0; r <= anillos; r++) {
+            if (mejor >= 0 && mejorMetros <= (r - 1) * metrosPorCelda) {
+                break;
+            }
+            for (int fila = filaCentro - r; fila <= filaCentro + r; fila++) {
+                for (int columna = columnaCentro - r; columna <= columnaCentro + r; columna++) {
+                    if (Math.abs(fila - filaCentro) != r && Math.abs(columna - columnaCentro) != r) {
+                        continue; // interior, ya visitado
+                    }
+                    int[] nodos = d.indice.get(celda(fila, columna));
+                    if (nodos == null) {
+                        continue;
+                    }
+                    for (int v : nodos) {
+                        double metros = haversineMetros(lat, lon, d.grafo.latitud(v), d.grafo.longitud(v));
+                        if (metros < mejorMetros) {
+                            mejorMetros = metros;
+                            mejor = v;
+                        }
+                    }
+                }
+            }
+        }
+        return mejor >= 0 && mejorMetros <= radioSnapMetros ? new Punto(mejor, mejorMetros) : null;
+    }
+
+    private static int celdaDe(double grados) {
+        return (int) Math.floor(grados / GRADOS_POR_CELDA);
+    }
+
+    private static long celda(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xFFFFFFFFL);
+    }
+
+    private static double haversineMetros(double lat1, double lon1, double lat2, double lon2) {
+        double latDistancia = Math.toRadians(lat2 - lat1);
+        double lonDistancia = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistancia / 2) * Math.sin(latDistancia / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistancia / 2) * Math.sin(lonDistancia / 2);
+        return 6_371_000 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    // --------------------------------------------
+    // BÚSQUEDAS
+    // --------------------------------------------
+
+    private record Datos(GrafoVial grafo, Map<Long, int[]> indice) {
+    }
+
+    /**
+     * Estado de una búsqueda, reutilizado por hilo. Las marcas de generación evitan limpiar los arreglos
+     * en cada consulta; la cola es un heap binario de longs (prioridad en los 32 bits altos, nodo en los bajos)
+     */
+    private static final class Busqueda {
+        private final int[] duraciones;
+        private final int[] metros;
+        private final int[] generaciones;
+        private final boolean[] cerrados;
+        private int generacion;
+        private long[] cola = new long[64];
+        private int tamanio;
+
+        private Busqueda(int nodos) {
+            this.duraciones = new int[nodos];
+            this.metros = new int[nodos];
+            this.generaciones = new int[nodos];
+            this.cerrados = new boolean[nodos];
+        }
+
+        int duracion(int nodo) {
+            return generaciones[nodo] == generacion ? duraciones[nodo] : INFINITO;
+        }
+
+        int metros(int nodo) {
+            return metros[nodo];
+        }
+
+        /**
+         * A* con la cota de los landmarks. Devuelve si el destino es alcanzable
+         */
+        boolean aEstrella(Datos d, int origen, int destino) {
+            GrafoVial grafo = d.grafo;
+            reiniciar();
+            int cotaOrigen = cota(grafo, origen, destino);
+            if (cotaOrigen == INFINITO) {
+                return false;
+            }
+            actualizar(origen, 0, 0, cotaOrigen);
+
+            while (tamanio > 0) {
+                int v = (int) extraer();
+                if (cerrados[v]) {
+                    continue;
+                }
+                cerrados[v] = true;
+                if (v == destino) {
+                    return true;
+                }
+                for (int e = grafo.primeraArista(v); e < grafo.finAristas(v); e++) {
+                    int w = grafo.destino(e);
+                    int duracion = duraciones[v] + grafo.decisegundos(e);
+                    if (duracion < duracion(w)) {
+                        int h = cota(grafo, w, destino);
+                        if (h != INFINITO) {
+                            actualizar(w, duracion, metros[v] + grafo.metros(e), h);
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Dijkstra desde el origen hasta cerrar todos los objetivos
+         */
+        void dijkstra(GrafoVial grafo, int origen, int[] objetivos) {
+            reiniciar();
+            actualizar(origen, 0, 0, 0);
+            int pendientes = objetivos.length;
+
+            while (tamanio > 0 && pendientes > 0) {
+                int v = (int) extraer();
+                if (cerrados[v]) {
+                    continue;
+                }
+                cerrados[v] = true;
+                if (contiene(objetivos, v)) {
+                    pendientes--;
+                }
+                for (int e = grafo.primeraArista(v); e < grafo.finAristas(v); e++) {
+                    int w = grafo.destino(e);
+                    int duracion = duraciones[v] + grafo.decisegundos(e);
+                    if (duracion < duracion(w)) {
+                        actualizar(w, duracion, metros[v] + grafo.metros(e), 0);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Máximo de las cotas triangulares d(l,t) - d(l,v) y d(v,l) - d(t,l); INFINITO si t no es alcanzable desde v
+         */
+        private static int cota(GrafoVial grafo, int v, int t) {
+            int cota = 0;
+            for (int l = 0; l < grafo.cantidadLandmarks(); l++) {
+                int desdeV = grafo.desdeLandmark(l, v);
+                int desdeT = grafo.desdeLandmark(l, t);
+                if (desdeV != INFINITO) {
+                    if (desdeT == INFINITO) {
+                        return INFINITO; // l llega a v pero no a t: v no puede llegar a t
+                    }
+                    cota = Math.max(cota, desdeT - desdeV);
+                }
+                int haciaV = grafo.haciaLandmark(l, v);
+                int haciaT = grafo.haciaLandmark(l, t);
+                if (haciaT != INFINITO && haciaV != INFINITO) {
+                    cota = Math.max(cota, haciaV - haciaT);
+                }
+            }
+            return cota;
+        }
+
+        private static boolean contiene(int[] nodos, int nodo) {
+            for (int n : nodos) {
+                if (n == nodo) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void reiniciar() {
+            generacion++;
+            if (generacion == Integer.MAX_VALUE) {
+                Arrays.fill(generaciones, 0);
+                generacion = 1;
+            }
+            tamanio = 0;
+        }
+
+        private void actualizar(int nodo, int duracion, int metrosAcumulados, int cota) {
+            if (generaciones[nodo] != generacion) {
+                generaciones[nodo] = generacion;
+                cerrados[nodo] = false;
+            }
+            duraciones[nodo] = duracion;
+            metros[nodo] = metrosAcumulados;
+            insertar(((long) (duracion + cota) << 32) | nodo);
+        }
+
+        private void insertar(long clave) {
+            if (tamanio == cola.length) {
+                cola = Arrays.copyOf(cola, tamanio * 2);
+            }
+            int i = tamanio++;
+            while (i > 0) {
+                int padre = (i - 1) >>> 1;
+                if (cola[padre] <= clave) {
+                    break;
+                }
+                cola[i] = cola[padre];
+                i = padre;
+            }
+            cola[i] = clave;
+        }
+
+        /**
+         * Quita el mínimo y devuelve su nodo (los 32 bits bajos)
+         */
+        private long extraer() {
+            long minimo = cola[0];
+            long ultimo = cola[--tamanio];
+            int i = 0;
+            while (true) {
+                int hijo = 2 * i + 1;
+                if (hijo >= tamanio) {
+                    break;
+                }
+                if (hijo + 1 < tamanio && cola[hijo + 1] < cola[hijo]) {
+                    hijo++;
+                }
+                if (cola[hijo] >= ultimo) {
+                    break;
+                }
+                cola[i] = cola[hijo];
+                i = hijo;
+            }
+            cola[i] = ultimo;
+            return minimo & 0xFFFFFFFFL;
+        }
+    }
+}
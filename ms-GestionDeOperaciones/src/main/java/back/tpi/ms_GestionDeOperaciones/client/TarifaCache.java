@@ -0,0 +1,134 @@
+package back.tpi.ms_GestionDeOperaciones.client;
+
+import back.tpi.ms_GestionDeOperaciones.dto.TarifaDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache en memoria de las tarifas de ms-GestionDeInfraestructura, usada por {@link TarifaClient}.
+ * Una tarifa se usa sin consultar al otro servicio durante {@code tarifas.cache.revalidar-despues};
+ * pasado ese tiempo se revalida por versión (ETag) y solo se descarga de nuevo si cambió.
+ * Es LRU y está acotada a {@code tarifas.cache.max-entries}.
+ */
+@Component
+public class TarifaCache {
+
+    private final boolean habilitada;
+    private final int maxEntradas;
+    private final long revalidarNanos;
+
+    private final LinkedHashMap<Long, Entrada> entradas;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidaciones = new AtomicLong();
+
+    public TarifaCache(@Value("${tarifas.cache.enabled:true}") boolean habilitada,
+                       @Value("${tarifas.cache.max-entries:5000}") int maxEntradas,
+                       @Value("${tarifas.cache.revalidar-despues:PT1M}") Duration revalidarDespues,
+                       MeterRegistry meterRegistry) {
+        this.habilitada = habilitada;
+        this.maxEntradas = maxEntradas;
+        this.revalidarNanos = revalidarDespues.toNanos();
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada> eldest) {
+                return size() > TarifaCache.this.maxEntradas;
+            }
+        };
+
+        FunctionCounter.builder("tarifas.cache.hits", hits, AtomicLong::get)
+                .description("Tarifas resueltas desde la cache sin consultar al servicio de tarifas")
+                .register(meterRegistry);
+        FunctionCounter.builder("tarifas.cache.misses", misses, AtomicLong::get)
+                .description("Tarifas que no estaban en la cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("tarifas.cache.revalidaciones", revalidaciones, AtomicLong::get)
+                .description("Tarifas en cache revalidadas por versión")
+                .register(meterRegistry);
+        Gauge.builder("tarifas.cache.size", this, TarifaCache::tamanio)
+                .description("Cantidad de tarifas almacenadas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca la tarifa en la cache. El resultado indica si todavía puede usarse sin revalidar
+     */
+    public Optional<TarifaEnCache> obtener(Long tarifaId) {
+        if (!habilitada || tarifaId == null) {
+            return Optional.empty();
+        }
+
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(tarifaId);
+            if (entrada == null) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+
+            boolean vigente = entrada.validadaEn() + revalidarNanos - System.nanoTime() > 0;
+            if (vigente) {
+                hits.incrementAndGet();
+            } else {
+                revalidaciones.incrementAndGet();
+            }
+            return Optional.of(new TarifaEnCache(entrada.tarifa(), vigente));
+        }
+    }
+
+    /**
+     * Guarda (o reemplaza) la tarifa recibida del servicio de tarifas
+     */
+    public void guardar(TarifaDTO tarifa) {
+        if (!habilitada || tarifa == null || tarifa.getTarifaId() == null) {
+            return;
+        }
+
+        synchronized (entradas) {
+            entradas.put(tarifa.getTarifaId(), new Entrada(tarifa, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Marca la tarifa en cache como vigente después de comprobar que su versión no cambió
+     */
+    public void marcarValidada(Long tarifaId) {
+        synchronized (entradas) {
+            entradas.computeIfPresent(tarifaId, (id, entrada) -> new Entrada(entrada.tarifa(), System.nanoTime()));
+        }
+    }
+
+    public void invalidar(Long tarifaId) {
+        synchronized (entradas) {
+            entradas.remove(tarifaId);
+        }
+    }
+
+    private int tamanio() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    /**
+     * Tarifa encontrada en la cache; si no está vigente debe revalidarse antes de usarla
+     */
+    public record TarifaEnCache(TarifaDTO tarifa, boolean vigente) {
+
+        public String etag() {
+            return tarifa.getVersion() != null ? "\"" + tarifa.getVersion() + "\"" : null;
+        }
+    }
+
+    private record Entrada(TarifaDTO tarifa, long validadaEn) {
+    }
+}
@@ -1,21 +1,37 @@
 package back.tpi.ms_GestionDeOperaciones.client;
 
+import back.tpi.ms_GestionDeOperaciones.dto.CostoEstimadoDTO;
+import back.tpi.ms_GestionDeOperaciones.dto.CostoEstimadoLoteDTO;
 import back.tpi.ms_GestionDeOperaciones.dto.TarifaDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class TarifaClient {
 
-    private final RestClient restClient;
+    private final RestClient infraestructuraRestClient;
+    private final TarifaCache tarifaCache;
 
     @Value("${microservices.gestion-tarifas.url:http://ms-gestiondeinfraestructura:8082}")
     private String tarifasServiceUrl;
@@ -30,12 +46,15 @@ public class TarifaClient {
             // 👇 OBTENER Y AGREGAR EL TOKEN
             String token = obtenerTokenActual();
 
-            return restClient.post()
+            TarifaDTO tarifaCreada = infraestructuraRestClient.post()
                     .uri(tarifasServiceUrl + "/api/tarifas")
                     .header("Authorization", "Bearer " + token)  // 👈 AGREGAR TOKEN
                     .body(tarifaDTO)
                     .retrieve()
                     .body(TarifaDTO.class);
+
+            tarifaCache.guardar(tarifaCreada);
+            return tarifaCreada;
         } catch (Exception e) {
             log.error("Error al crear tarifa: {}", e.getMessage());
             throw new RuntimeException("Error al crear tarifa en ms-GestionDeCostosYTarifas: " + e.getMessage());
@@ -49,7 +68,7 @@ public class TarifaClient {
         try {
             String token = obtenerTokenActual();
 
-            Boolean existe = restClient.get()
+            Boolean existe = infraestructuraRestClient.get()
                     .uri(tarifasServiceUrl + "/api/tarifas/{id}/existe", tarifaId)
                     .header("Authorization", "Bearer " + token)
                     .retrieve()
@@ -63,23 +82,125 @@ public class TarifaClient {
     }
 
     /**
-     * Obtiene una tarifa por su ID
+     * Obtiene una tarifa por su ID.
+     * Usa la copia en cache mientras esté vigente; si venció, la revalida con If-None-Match
+     * y solo la descarga de nuevo si cambió su versión
      */
     public TarifaDTO getTarifa(Long tarifaId) {
+        Optional<TarifaCache.TarifaEnCache> enCache = tarifaCache.obtener(tarifaId);
+        if (enCache.isPresent() && enCache.get().vigente()) {
+            return enCache.get().tarifa();
+        }
+
         try {
             String token = obtenerTokenActual();
+            String etag = enCache.map(TarifaCache.TarifaEnCache::etag).orElse(null);
 
-            return restClient.get()
+            ResponseEntity<TarifaDTO> respuesta = infraestructuraRestClient.get()
                     .uri(tarifasServiceUrl + "/api/tarifas/{id}", tarifaId)
                     .header("Authorization", "Bearer " + token)
+                    .headers(headers -> {
+                        if (etag != null) {
+                            headers.setIfNoneMatch(etag);
+                        }
+                    })
                     .retrieve()
-                    .body(TarifaDTO.class);
+                    .toEntity(TarifaDTO.class);
+
+            if (respuesta.getStatusCode() == HttpStatus.NOT_MODIFIED && enCache.isPresent()) {
+                tarifaCache.marcarValidada(tarifaId);
+                return enCache.get().tarifa();
+            }
+
+            TarifaDTO tarifa = respuesta.getBody();
+            tarifaCache.guardar(tarifa);
+            return tarifa;
+        } catch (HttpClientErrorException.NotFound e) {
+            tarifaCache.invalidar(tarifaId);
+            log.error("Tarifa {} no encontrada", tarifaId);
+            throw new RuntimeException("Error al obtener tarifa: tarifa no encontrada con ID " + tarifaId);
         } catch (Exception e) {
             log.error("Error al obtener tarifa: {}", e.getMessage());
             throw new RuntimeException("Error al obtener tarifa: " + e.getMessage());
         }
     }
 
+    /**
+     * Obtiene varias tarifas con a lo sumo dos llamadas al servicio de tarifas:
+     * una para revalidar por versión las que están en cache vencidas y otra para descargar
+     * juntas las que faltan o cambiaron. Las tarifas inexistentes no aparecen en el resultado
+     */
+    public Map<Long, TarifaDTO> getTarifas(Collection<Long> tarifaIds) {
+        Map<Long, TarifaDTO> tarifas = new HashMap<>();
+        Map<Long, TarifaDTO> aRevalidar = new HashMap<>();
+        Set<Long> faltantes = new HashSet<>();
+
+        for (Long tarifaId : new HashSet<>(tarifaIds)) {
+            if (tarifaId == null) {
+                continue;
+            }
+            Optional<TarifaCache.TarifaEnCache> enCache = tarifaCache.obtener(tarifaId);
+            if (enCache.isEmpty()) {
+                faltantes.add(tarifaId);
+            } else if (enCache.get().vigente()) {
+                tarifas.put(tarifaId, enCache.get().tarifa());
+            } else {
+                aRevalidar.put(tarifaId, enCache.get().tarifa());
+            }
+        }
+
+        if (aRevalidar.isEmpty() && faltantes.isEmpty()) {
+            return tarifas;
+        }
+
+        try {
+            String token = obtenerTokenActual();
+
+            if (!aRevalidar.isEmpty()) {
+                Map<Long, Long> versiones = infraestructuraRestClient.get()
+                        .uri(tarifasServiceUrl + "/api/tarifas/versiones?ids={ids}", unirIds(aRevalidar.keySet()))
+                        .header("Authorization", "Bearer " + token)
+                        .retrieve()
+                        .body(new ParameterizedTypeReference<Map<Long, Long>>() {});
+
+                aRevalidar.forEach((tarifaId, tarifa) -> {
+                    Long version = versiones != null ? versiones.get(tarifaId) : null;
+                    if (version == null) {
+                        // Eliminada en el servicio de tarifas
+                        tarifaCache.invalidar(tarifaId);
+                    } else if (version.equals(tarifa.getVersion())) {
+                        tarifaCache.marcarValidada(tarifaId);
+                        tarifas.put(tarifaId, tarifa);
+                    } else {
+                        faltantes.add(tarifaId);
+                    }
+                });
+            }
+
+            if (!faltantes.isEmpty()) {
+                List<TarifaDTO> descargadas = infraestructuraRestClient.get()
+                        .uri(tarifasServiceUrl + "/api/tarifas/lote?ids={ids}", unirIds(faltantes))
+                        .header("Authorization", "Bearer " + token)
+                        .retrieve()
+                        .body(new ParameterizedTypeReference<List<TarifaDTO>>() {});
+
+                if (descargadas != null) {
+                    descargadas.forEach(tarifa -> {
+                        tarifaCache.guardar(tarifa);
+                        tarifas.put(tarifa.getTarifaId(), tarifa);
+                    });
+                }
+            }
+
+            log.debug("Tarifas obtenidas: {} pedidas, {} revalidadas, {} descargadas",
+                    tarifaIds.size(), aRevalidar.size(), faltantes.size());
+            return tarifas;
+        } catch (Exception e) {
+            log.error("Error al obtener tarifas: {}", e.getMessage());
+            throw new RuntimeException("Error al obtener tarifas: " + e.getMessage());
+        }
+    }
+
     /**
      * Calcula el costo estimado según la tarifa y distancia
      */
@@ -87,7 +208,7 @@ public class TarifaClient {
         try {
             String token = obtenerTokenActual();
 
-            return restClient.get()
+            return infraestructuraRestClient.get()
                     .uri(tarifasServiceUrl + "/api/tarifas/{id}/calcular-costo-estimado?distancia={distancia}",
                             tarifaId, distancia)
                     .header("Authorization", "Bearer " + token)
@@ -99,12 +220,50 @@ public class TarifaClient {
         }
     }
 
+    /**
+     * Calcula en una sola llamada el costo estimado de varias distancias con la misma tarifa.
+     * Los costos se devuelven en el mismo orden que las distancias
+     */
+    public List<Double> calcularCostosEstimados(Long tarifaId, List<Double> distancias) {
+        if (distancias.isEmpty()) {
+            return List.of();
+        }
+        return calcularCostosEstimados(CostoEstimadoLoteDTO.builder()
+                .tarifaId(tarifaId)
+                .distancias(distancias)
+                .build())
+                .stream()
+                .map(CostoEstimadoDTO::getCostoEstimado)
+                .toList();
+    }
+
+    /**
+     * Calcula en una sola llamada el costo estimado de varios pares tarifa/distancia
+     */
+    public List<CostoEstimadoDTO> calcularCostosEstimados(CostoEstimadoLoteDTO lote) {
+        try {
+            String token = obtenerTokenActual();
+
+            List<CostoEstimadoDTO> costos = infraestructuraRestClient.post()
+                    .uri(tarifasServiceUrl + "/api/tarifas/calcular-costo-estimado/lote")
+                    .header("Authorization", "Bearer " + token)
+                    .body(lote)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<CostoEstimadoDTO>>() {});
+
+            return costos != null ? costos : List.of();
+        } catch (Exception e) {
+            log.error("Error al calcular costos en lote: {}", e.getMessage());
+            throw new RuntimeException("Error al calcular costos en lote: " + e.getMessage());
+        }
+    }
+
     public Double calcularCostoReal(Long tarifaId, double pesoContendor,
                                     double volumenContenedor, double costoBaseTotal) {
         try {
             String token = obtenerTokenActual();
 
-            return restClient.get()
+            return infraestructuraRestClient.get()
                     .uri(tarifasServiceUrl + "/api/tarifas/{id}/calcular-costo-real",
                             tarifaId)
                     .header("Authorization", "Bearer " + token)
@@ -116,6 +275,10 @@ public class TarifaClient {
         }
     }
 
+    private String unirIds(Collection<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
     /**
      * Obtiene el token JWT del contexto de seguridad actual
      */
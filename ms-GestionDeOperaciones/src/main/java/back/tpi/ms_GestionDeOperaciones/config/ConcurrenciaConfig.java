@@ -0,0 +1,35 @@
+package back.tpi.ms_GestionDeOperaciones.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ConcurrenciaConfig {
+
+    /**
+     * Executor para las llamadas remotas de la consulta de rutas tentativas (depósitos, tarifa y matriz OSRM),
+     * que así quedan acotadas por {@code rutas-tentativas.timeout}.
+     * Usa un hilo virtual por tarea y propaga el SecurityContext del llamador,
+     * así los clientes pueden seguir leyendo el token JWT desde los hilos de trabajo.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService rutasExecutor() {
+        return new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Executor de la liquidación del costo real de los tramos finalizados.
+     * Es de tamaño fijo para acotar las llamadas remotas concurrentes cuando muchos
+     * tramos se finalizan a la vez (fin de turno); el resto espera en la cola.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService liquidacionesExecutor(@Value("${tramos.liquidacion.hilos:4}") int hilos) {
+        return new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(hilos,
+                Thread.ofPlatform().name("liquidacion-", 1).factory()));
+    }
+}
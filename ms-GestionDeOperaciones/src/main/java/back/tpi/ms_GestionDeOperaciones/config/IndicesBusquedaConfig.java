@@ -0,0 +1,43 @@
+package back.tpi.ms_GestionDeOperaciones.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Crea los índices trigram (pg_trgm) de las direcciones de origen y destino, que JPA no puede declarar.
+ * Permiten resolver con índice los filtros "la dirección contiene ..." de contenedores pendientes.
+ * Si la base no permite crear la extensión, las búsquedas siguen funcionando sin índice.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "solicitudes.indices-trigram.enabled", havingValue = "true", matchIfMissing = true)
+public class IndicesBusquedaConfig implements ApplicationRunner {
+
+    private static final List<String> SENTENCIAS = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_solicitud_origen_trgm ON solicitud_traslado "
+                    + "USING gin (lower(direccion_origen) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_solicitud_destino_trgm ON solicitud_traslado "
+                    + "USING gin (lower(direccion_destino) gin_trgm_ops)"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            SENTENCIAS.forEach(jdbcTemplate::execute);
+            log.info("✅ Índices trigram de direcciones verificados");
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudieron crear los índices trigram de direcciones: {}", e.getMessage());
+        }
+    }
+}
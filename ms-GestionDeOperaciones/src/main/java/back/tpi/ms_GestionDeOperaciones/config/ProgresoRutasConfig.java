@@ -0,0 +1,45 @@
+package back.tpi.ms_GestionDeOperaciones.config;
+
+import back.tpi.ms_GestionDeOperaciones.domain.EstadoTramo;
+import back.tpi.ms_GestionDeOperaciones.repository.RutaRepository;
+import back.tpi.ms_GestionDeOperaciones.repository.TramoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Completa al iniciar los datos derivados de rutas creadas antes de que se guardaran:
+ * la posición (orden) de cada tramo y el progreso materializado de la ruta
+ * (tramos completados y tramo actual). Los tramos completados con anterioridad
+ * quedan como liquidados. Las rutas nuevas los completan al crearse.
+ * <p>
+ * Cada backfill se ejecuta solo si quedan filas sin completar, para no reescribir las tablas en cada arranque.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class ProgresoRutasConfig implements ApplicationRunner {
+
+    private final RutaRepository rutaRepository;
+    private final TramoRepository tramoRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (tramoRepository.existsByOrdenIsNull()) {
+            int numerados = tramoRepository.numerarTramosSinOrden();
+            log.info("✅ Orden asignado a {} tramos existentes", numerados);
+        }
+
+        if (rutaRepository.existsByProgresoActualizadoEnIsNull()) {
+            int actualizadas = rutaRepository.inicializarProgresoFaltante();
+            log.info("✅ Progreso inicializado para {} rutas existentes", actualizadas);
+        }
+
+        if (tramoRepository.existsByEstadoAndEstadoLiquidacionIsNull(EstadoTramo.COMPLETADO)) {
+            int liquidados = tramoRepository.marcarLiquidadosExistentes();
+            log.info("✅ {} tramos completados existentes marcados como liquidados", liquidados);
+        }
+    }
+}
@@ -1,25 +1,88 @@
 package back.tpi.ms_GestionDeOperaciones.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
+
+/**
+ * Un RestClient por destino, cada uno con su propio pool de conexiones persistentes (keep-alive)
+ * y sus timeouts. Los clientes eligen el bean por el nombre del campo:
+ * osrmRestClient, infraestructuraRestClient y transporteRestClient.
+ */
 @Configuration
 public class RestClientConfig {
 
+    private final MeterRegistry meterRegistry;
+
+    public RestClientConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
-    public RestClient restClient() {
-        return RestClient.builder()
-                .requestFactory(clientHttpRequestFactory())
-                .build();
+    public RestClient osrmRestClient(
+            @Value("${http-client.osrm.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${http-client.osrm.read-timeout:5s}") Duration readTimeout,
+            @Value("${http-client.osrm.max-connections:50}") int maxConexiones) {
+        return crearRestClient("osrm", connectTimeout, readTimeout, maxConexiones);
+    }
+
+    @Bean
+    public RestClient infraestructuraRestClient(
+            @Value("${http-client.infraestructura.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${http-client.infraestructura.read-timeout:15s}") Duration readTimeout,
+            @Value("${http-client.infraestructura.max-connections:50}") int maxConexiones) {
+        return crearRestClient("infraestructura", connectTimeout, readTimeout, maxConexiones);
+    }
+
+    @Bean
+    public RestClient transporteRestClient(
+            @Value("${http-client.transporte.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${http-client.transporte.read-timeout:15s}") Duration readTimeout,
+            @Value("${http-client.transporte.max-connections:50}") int maxConexiones) {
+        return crearRestClient("transporte", connectTimeout, readTimeout, maxConexiones);
     }
 
-    private ClientHttpRequestFactory clientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10000); // 10 segundos (antes: 5)
-        factory.setReadTimeout(15000);    // 15 segundos (antes: 5)
-        return factory;
+    private RestClient crearRestClient(String nombre, Duration connectTimeout,
+                                       Duration readTimeout, int maxConexiones) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConexiones)
+                .setMaxConnPerRoute(maxConexiones)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+
+        // Métricas del pool: httpcomponents.httpclient.pool.* con tag httpclient=<nombre>
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, nombre)
+                .bindTo(meterRegistry);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(readTimeout);
+
+        return RestClient.builder()
+                .requestFactory(factory)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -11,10 +11,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Tag(
@@ -76,7 +78,7 @@ public class AsignacionCamionController {
 
     @Operation(
             summary = "Consulta camiones disponibles para un contenedor",
-            description = "Devuelve camiones que cumplen con el peso y volumen del contenedor."
+            description = "Devuelve una página de camiones que cumplen con el peso y volumen del contenedor, del que mejor se ajusta al que peor."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Listado obtenido correctamente"),
@@ -87,10 +89,14 @@ public class AsignacionCamionController {
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     public ResponseEntity<List<CamionDTO>> obtenerCamionesDisponiblesParaContenedor(
             @Parameter(description = "ID del contenedor", example = "15")
-            @PathVariable Long contenedorId) {
+            @PathVariable Long contenedorId,
+            @Parameter(description = "Número de página, desde 0", example = "0")
+            @RequestParam(defaultValue = "0") int pagina,
+            @Parameter(description = "Cantidad de camiones por página", example = "20")
+            @RequestParam(defaultValue = "50") int tamanio) {
 
         try {
-            List<CamionDTO> camiones = service.obtenerCamionesDisponiblesParaContenedor(contenedorId);
+            List<CamionDTO> camiones = service.obtenerCamionesDisponiblesParaContenedor(contenedorId, pagina, tamanio);
             return ResponseEntity.ok(camiones);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -104,7 +110,7 @@ public class AsignacionCamionController {
 
     @Operation(
             summary = "Consulta camiones disponibles para un tramo",
-            description = "Devuelve los camiones aptos para el tramo indicado."
+            description = "Devuelve una página de camiones aptos para el tramo indicado, del que mejor se ajusta al que peor."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Listado obtenido correctamente"),
@@ -115,10 +121,14 @@ public class AsignacionCamionController {
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     public ResponseEntity<List<CamionDTO>> obtenerCamionesDisponiblesParaTramo(
             @Parameter(description = "ID del tramo", example = "8")
-            @PathVariable Long tramoId) {
+            @PathVariable Long tramoId,
+            @Parameter(description = "Número de página, desde 0", example = "0")
+            @RequestParam(defaultValue = "0") int pagina,
+            @Parameter(description = "Cantidad de camiones por página", example = "20")
+            @RequestParam(defaultValue = "50") int tamanio) {
 
         try {
-            List<CamionDTO> camiones = service.obtenerCamionesDisponiblesParaTramo(tramoId);
+            List<CamionDTO> camiones = service.obtenerCamionesDisponiblesParaTramo(tramoId, pagina, tamanio);
             return ResponseEntity.ok(camiones);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -126,6 +136,39 @@ public class AsignacionCamionController {
     }
 
 
+    // ============================================================
+    // 3b) CAMIONES LIBRES PARA UN TRAMO EN UNA FRANJA
+    // ============================================================
+
+    @Operation(
+            summary = "Consulta camiones libres para un tramo en una franja horaria",
+            description = "Devuelve los camiones con capacidad para el contenedor del tramo que no tienen reservas " +
+                    "en su agenda entre inicio y fin (aunque hoy estén en viaje), del que mejor se ajusta al que peor."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Listado obtenido correctamente"),
+            @ApiResponse(responseCode = "400", description = "Tramo inexistente o franja inválida",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "403", description = "No autorizado — requiere rol ADMINISTRADOR"),
+    })
+    @GetMapping("/libres/tramo/{tramoId}")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<?> obtenerCamionesLibresParaTramo(
+            @Parameter(description = "ID del tramo", example = "8")
+            @PathVariable Long tramoId,
+            @Parameter(description = "Inicio planificado (ISO)", example = "2025-03-10T08:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @Parameter(description = "Fin planificado (ISO)", example = "2025-03-10T18:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+
+        try {
+            return ResponseEntity.ok(service.obtenerCamionesLibresParaTramo(tramoId, inicio, fin));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+
     // ============================================================
     // 4) LIBERAR CAMIÓN DE UN TRAMO
     // ============================================================
@@ -156,7 +199,71 @@ public class AsignacionCamionController {
 
 
     // ============================================================
-    // 5) DTO PARA ERRORES
+    // 5) ASIGNACIÓN POR LOTE
+    // ============================================================
+
+    @Operation(
+            summary = "Propone camiones para todos los tramos pendientes",
+            description = "Calcula la asignación de camiones disponibles a los tramos de transporte PENDIENTE sin camión " +
+                    "que cubre la mayor cantidad de tramos con el menor costo total (operativo + combustible sobre la " +
+                    "distancia planificada), respetando la capacidad de peso y volumen. No modifica nada."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Propuesta calculada",
+                    content = @Content(schema = @Schema(implementation = PropuestaAsignacionDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Error al calcular la propuesta",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "403", description = "No autorizado — requiere rol ADMINISTRADOR"),
+    })
+    @GetMapping("/lote/propuesta")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<?> proponerAsignacionLote() {
+        try {
+            return ResponseEntity.ok(service.proponerAsignacionLote());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Aplica un lote de asignaciones",
+            description = "Asigna los camiones indicados a sus tramos en una única operación: si alguna asignación " +
+                    "ya no es válida (tramo no pendiente, camión no disponible o sin capacidad) no se aplica ninguna.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Pares tramo-camión, normalmente los de la propuesta",
+                    required = true,
+                    content = @Content(
+                            examples = @ExampleObject(
+                                    name = "Ejemplo lote",
+                                    value = """
+                                            [
+                                                { "tramoId": 12, "patenteCamion": "AB123CD" },
+                                                { "tramoId": 15, "patenteCamion": "AC456EF" }
+                                            ]
+                                            """
+                            )
+                    )
+            )
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Asignaciones aplicadas"),
+            @ApiResponse(responseCode = "400", description = "Alguna asignación no es válida; no se aplicó ninguna",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "403", description = "No autorizado — requiere rol ADMINISTRADOR"),
+    })
+    @PostMapping("/lote")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<?> aplicarAsignacionLote(@RequestBody List<AsignarCamionDTO> asignaciones) {
+        try {
+            return ResponseEntity.ok(service.aplicarAsignacionLote(asignaciones));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+
+    // ============================================================
+    // 6) DTO PARA ERRORES
     // ============================================================
 
     @lombok.Data
@@ -86,18 +86,10 @@ public class ContenedorPendienteController {
     ) {
 
         try {
-            FiltrosContenedorDTO filtros = FiltrosContenedorDTO.builder()
-                    .estado(estado != null ? EstadoSolicitud.valueOf(estado) : null)
-                    .clienteId(clienteId)
-                    .fechaSolicitudDesde(fechaSolicitudDesde)
-                    .fechaSolicitudHasta(fechaSolicitudHasta)
-                    .pesoMinimo(pesoMinimo)
-                    .pesoMaximo(pesoMaximo)
-                    .volumenMinimo(volumenMinimo)
-                    .volumenMaximo(volumenMaximo)
-                    .ciudadOrigen(ciudadOrigen)
-                    .ciudadDestino(ciudadDestino)
-                    .build();
+            FiltrosContenedorDTO filtros = crearFiltros(estado, clienteId,
+                    fechaSolicitudDesde, fechaSolicitudHasta,
+                    pesoMinimo, pesoMaximo, volumenMinimo, volumenMaximo,
+                    ciudadOrigen, ciudadDestino);
 
             List<ContenedorPendienteDTO> contenedores =
                     service.consultarContenedoresPendientes(filtros);
@@ -108,4 +100,97 @@ public class ContenedorPendienteController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    @Operation(
+            summary = "Consultar contenedores pendientes paginados",
+            description = """
+                    Igual que la consulta anterior, pero devuelve una página de resultados
+                    (de la solicitud más reciente a la más antigua) junto con el total de registros.
+                    
+                    Ejemplo de uso:
+                    - /api/contenedores-pendientes/pagina?estado=EN_PROCESO&pagina=2&tamanio=20
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Consulta realizada correctamente",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ConsultaContenedoresResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros inválidos o error en la consulta")
+    })
+    @GetMapping("/pagina")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ConsultaContenedoresResponseDTO> consultarContenedoresPendientesPaginados(
+            @Parameter(description = "Estado de la solicitud")
+            @RequestParam(required = false) String estado,
+
+            @Parameter(description = "ID del cliente asociado")
+            @RequestParam(required = false) Long clienteId,
+
+            @Parameter(description = "Fecha mínima de solicitud (ISO-8601)", example = "2025-01-20T10:00:00")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime fechaSolicitudDesde,
+
+            @Parameter(description = "Fecha máxima de solicitud (ISO-8601)", example = "2025-01-31T23:59:59")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime fechaSolicitudHasta,
+
+            @Parameter(description = "Peso mínimo del contenedor (kg)")
+            @RequestParam(required = false) Double pesoMinimo,
+
+            @Parameter(description = "Peso máximo del contenedor (kg)")
+            @RequestParam(required = false) Double pesoMaximo,
+
+            @Parameter(description = "Volumen mínimo del contenedor (m³)")
+            @RequestParam(required = false) Double volumenMinimo,
+
+            @Parameter(description = "Volumen máximo del contenedor (m³)")
+            @RequestParam(required = false) Double volumenMaximo,
+
+            @Parameter(description = "Ciudad de origen del traslado")
+            @RequestParam(required = false) String ciudadOrigen,
+
+            @Parameter(description = "Ciudad de destino del traslado")
+            @RequestParam(required = false) String ciudadDestino,
+
+            @Parameter(description = "Número de página (comienza en 1)")
+            @RequestParam(defaultValue = "1") int pagina,
+
+            @Parameter(description = "Cantidad de contenedores por página (máximo 200)")
+            @RequestParam(defaultValue = "20") int tamanio
+    ) {
+
+        try {
+            FiltrosContenedorDTO filtros = crearFiltros(estado, clienteId,
+                    fechaSolicitudDesde, fechaSolicitudHasta,
+                    pesoMinimo, pesoMaximo, volumenMinimo, volumenMaximo,
+                    ciudadOrigen, ciudadDestino);
+
+            return ResponseEntity.ok(service.consultarContenedoresPendientes(filtros, pagina, tamanio));
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private FiltrosContenedorDTO crearFiltros(String estado, Long clienteId,
+                                              LocalDateTime fechaSolicitudDesde,
+                                              LocalDateTime fechaSolicitudHasta,
+                                              Double pesoMinimo, Double pesoMaximo,
+                                              Double volumenMinimo, Double volumenMaximo,
+                                              String ciudadOrigen, String ciudadDestino) {
+        return FiltrosContenedorDTO.builder()
+                .estado(estado != null ? EstadoSolicitud.valueOf(estado) : null)
+                .clienteId(clienteId)
+                .fechaSolicitudDesde(fechaSolicitudDesde)
+                .fechaSolicitudHasta(fechaSolicitudHasta)
+                .pesoMinimo(pesoMinimo)
+                .pesoMaximo(pesoMaximo)
+                .volumenMinimo(volumenMinimo)
+                .volumenMaximo(volumenMaximo)
+                .ciudadOrigen(ciudadOrigen)
+                .ciudadDestino(ciudadDestino)
+                .build();
+    }
 }
\ No newline at end of file
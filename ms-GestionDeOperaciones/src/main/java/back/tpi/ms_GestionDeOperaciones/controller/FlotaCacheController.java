@@ -0,0 +1,48 @@
+package back.tpi.ms_GestionDeOperaciones.controller;
+
+import back.tpi.ms_GestionDeOperaciones.client.FlotaCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@Tag(name = "Cache de flota", description = "Administración de la copia local de la flota de camiones")
+@RestController
+@RequestMapping("/api/admin/flota/cache")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearer-jwt")
+@SecurityRequirement(name = "keycloak-oauth2")
+public class FlotaCacheController {
+
+    private final FlotaCache flotaCache;
+
+    @Operation(
+            summary = "Consultar estadísticas de la copia de la flota",
+            description = "Devuelve cantidad de camiones, última sincronización, hits, misses y cambios aplicados."
+    )
+    @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas")
+    @GetMapping
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticas() {
+        return ResponseEntity.ok(flotaCache.estadisticas());
+    }
+
+    @Operation(
+            summary = "Descartar la copia de la flota",
+            description = "Elimina la copia local. La próxima consulta vuelve a descargar la flota completa " +
+                    "(útil después de cambios masivos en el servicio de transporte)."
+    )
+    @ApiResponse(responseCode = "200", description = "Copia descartada")
+    @DeleteMapping
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Map<String, Object>> limpiar() {
+        int eliminados = flotaCache.limpiar();
+        return ResponseEntity.ok(Map.of("camionesEliminados", eliminados));
+    }
+}
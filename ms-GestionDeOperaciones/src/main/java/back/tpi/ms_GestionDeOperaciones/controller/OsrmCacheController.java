@@ -0,0 +1,47 @@
+package back.tpi.ms_GestionDeOperaciones.controller;
+
+import back.tpi.ms_GestionDeOperaciones.client.DistanciaCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@Tag(name = "Cache de distancias", description = "Administración de la cache de distancias calculadas con OSRM")
+@RestController
+@RequestMapping("/api/admin/osrm/cache")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearer-jwt")
+@SecurityRequirement(name = "keycloak-oauth2")
+public class OsrmCacheController {
+
+    private final DistanciaCache distanciaCache;
+
+    @Operation(
+            summary = "Consultar estadísticas de la cache",
+            description = "Devuelve tamaño, hits, misses, evictions y ratio de aciertos de la cache de distancias."
+    )
+    @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas")
+    @GetMapping
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticas() {
+        return ResponseEntity.ok(distanciaCache.estadisticas());
+    }
+
+    @Operation(
+            summary = "Vaciar la cache",
+            description = "Elimina todas las distancias almacenadas. Las próximas consultas vuelven a llamar a OSRM."
+    )
+    @ApiResponse(responseCode = "200", description = "Cache vaciada")
+    @DeleteMapping
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Map<String, Object>> limpiar() {
+        int eliminadas = distanciaCache.limpiar();
+        return ResponseEntity.ok(Map.of("entradasEliminadas", eliminadas));
+    }
+}
@@ -1,6 +1,7 @@
 package back.tpi.ms_GestionDeOperaciones.controller;
 
 import back.tpi.ms_GestionDeOperaciones.dto.*;
+import back.tpi.ms_GestionDeOperaciones.service.LiquidacionTramoService;
 import back.tpi.ms_GestionDeOperaciones.service.RegistroTramoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,6 +24,7 @@ import java.util.List;
 public class RegistroTramoController {
 
     private final RegistroTramoService service;
+    private final LiquidacionTramoService liquidacionService;
 
     // ============================================================
     // INICIAR TRAMO
@@ -136,6 +138,50 @@ public class RegistroTramoController {
     }
 
 
+    // ============================================================
+    //  LIQUIDACIONES PENDIENTES
+    // ============================================================
+    @Operation(
+            summary = "Listar tramos con liquidación pendiente",
+            description = """
+                    Devuelve los tramos finalizados cuyo costo real todavía no se liquidó
+                    (PENDIENTE) o cuya liquidación agotó los reintentos (FALLIDO).
+                    
+                    GET /api/registro-tramos/liquidaciones/pendientes
+                    """
+    )
+    @ApiResponse(responseCode = "200", description = "Tramos con liquidación pendiente",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = TramoDTO.class)))
+    @GetMapping("/liquidaciones/pendientes")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<TramoDTO>> obtenerLiquidacionesPendientes() {
+        return ResponseEntity.ok(liquidacionService.obtenerLiquidacionesPendientes());
+    }
+
+
+    // ============================================================
+    //  REINTENTAR LIQUIDACIONES
+    // ============================================================
+    @Operation(
+            summary = "Reintentar liquidaciones pendientes",
+            description = """
+                    Vuelve a programar la liquidación del costo real de los tramos PENDIENTE o FALLIDO.
+                    Devuelve los tramos reprogramados; el resultado se consulta luego en cada tramo.
+                    
+                    POST /api/registro-tramos/liquidaciones/reintentar
+                    """
+    )
+    @ApiResponse(responseCode = "202", description = "Liquidaciones reprogramadas",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = TramoDTO.class)))
+    @PostMapping("/liquidaciones/reintentar")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<TramoDTO>> reintentarLiquidaciones() {
+        return ResponseEntity.accepted().body(liquidacionService.reintentarLiquidaciones());
+    }
+
+
     // ============================================================
     // DTO de ERROR
     // ============================================================
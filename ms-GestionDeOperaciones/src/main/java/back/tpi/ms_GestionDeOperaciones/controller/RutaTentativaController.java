@@ -87,6 +87,8 @@ public class RutaTentativaController {
             summary = "Confirmar una ruta tentativa",
             description = """
                     Confirma una de las rutas tentativas generadas previamente.
+                    Enviar el `opcionesId` devuelto por la consulta para confirmar exactamente
+                    las opciones consultadas (vigentes por un tiempo limitado).
 
                     **Proceso interno:**
                     1. Validación de que la solicitud no tenga ruta asignada  
@@ -105,7 +107,7 @@ public class RutaTentativaController {
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Ruta confirmada correctamente",
                     content = @Content(schema = @Schema(implementation = RutaDTO.class))),
-            @ApiResponse(responseCode = "400", description = "Error en la confirmación (opción inválida o solicitud ya tiene ruta)"),
+            @ApiResponse(responseCode = "400", description = "Error en la confirmación (opción inválida, opciones expiradas o solicitud ya tiene ruta)"),
             @ApiResponse(responseCode = "401", description = "Token inválido o expirado"),
             @ApiResponse(responseCode = "403", description = "Debe ser ADMINISTRADOR")
     })
@@ -117,6 +119,7 @@ public class RutaTentativaController {
         try {
             RutaDTO ruta = rutaTentativaService.confirmarRutaTentativa(
                     confirmarDTO.getSolicitudTrasladoId(),
+                    confirmarDTO.getOpcionesId(),
                     confirmarDTO.getNumeroOpcionSeleccionada()
             );
 
@@ -7,15 +7,20 @@ import back.tpi.ms_GestionDeOperaciones.dto.*;
 import back.tpi.ms_GestionDeOperaciones.service.CalculoCostoService;
 import back.tpi.ms_GestionDeOperaciones.service.SolicitudTrasladoService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Tag(name = "Solicitudes de Traslado", description = "Operaciones relacionadas con solicitudes de traslado")
@@ -116,6 +121,92 @@ public class SolicitudTrasladoController {
         return ResponseEntity.ok(service.obtenerTodas());
     }
 
+    // -------------------------------------------------------------------------
+    // Listado paginado por cursor (ADMIN)
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Obtener solicitudes paginadas",
+            description = "Devuelve las solicitudes de la más reciente a la más antigua. Para la página siguiente "
+                    + "se envía en 'cursor' el 'siguienteCursor' de la respuesta anterior."
+    )
+    @ApiResponse(responseCode = "200", description = "Página obtenida")
+    @ApiResponse(responseCode = "400", description = "Filtros o cursor inválidos")
+    @GetMapping("/pagina")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<PaginaSolicitudesDTO> obtenerPagina(
+            @Parameter(description = "Estado de la solicitud")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "ID del cliente")
+            @RequestParam(required = false) Long clienteId,
+            @Parameter(description = "Fecha mínima de solicitud (ISO-8601)", example = "2025-01-20T10:00:00")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime fechaSolicitudDesde,
+            @Parameter(description = "Fecha máxima de solicitud (ISO-8601)", example = "2025-01-31T23:59:59")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime fechaSolicitudHasta,
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de solicitudes por página (máximo 200)")
+            @RequestParam(defaultValue = "50") int tamanio) {
+        try {
+            FiltrosContenedorDTO filtros = crearFiltros(estado, clienteId, fechaSolicitudDesde, fechaSolicitudHasta);
+            return ResponseEntity.ok(service.obtenerPagina(filtros, cursor, tamanio));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Exportación NDJSON (ADMIN)
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Exportar solicitudes (NDJSON)",
+            description = "Devuelve todas las solicitudes que cumplen los filtros como application/x-ndjson, "
+                    + "una solicitud por línea, escritas a medida que se leen de la base de datos."
+    )
+    @ApiResponse(responseCode = "200", description = "Exportación iniciada")
+    @ApiResponse(responseCode = "400", description = "Filtros inválidos")
+    @GetMapping(value = "/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<StreamingResponseBody> exportarSolicitudes(
+            @Parameter(description = "Estado de la solicitud")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "ID del cliente")
+            @RequestParam(required = false) Long clienteId,
+            @Parameter(description = "Fecha mínima de solicitud (ISO-8601)", example = "2025-01-20T10:00:00")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime fechaSolicitudDesde,
+            @Parameter(description = "Fecha máxima de solicitud (ISO-8601)", example = "2025-01-31T23:59:59")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime fechaSolicitudHasta) {
+        FiltrosContenedorDTO filtros;
+        try {
+            filtros = crearFiltros(estado, clienteId, fechaSolicitudDesde, fechaSolicitudHasta);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody cuerpo = salida -> service.exportarSolicitudes(filtros, salida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
+    private FiltrosContenedorDTO crearFiltros(String estado, Long clienteId,
+                                              LocalDateTime fechaSolicitudDesde,
+                                              LocalDateTime fechaSolicitudHasta) {
+        return FiltrosContenedorDTO.builder()
+                .estado(estado != null ? EstadoSolicitud.valueOf(estado) : null)
+                .clienteId(clienteId)
+                .fechaSolicitudDesde(fechaSolicitudDesde)
+                .fechaSolicitudHasta(fechaSolicitudHasta)
+                .build();
+    }
+
     // -------------------------------------------------------------------------
     // Obtener por ID (Admin + Cliente)
     // -------------------------------------------------------------------------
@@ -0,0 +1,66 @@
+package back.tpi.ms_GestionDeOperaciones.controller;
+
+import back.tpi.ms_GestionDeOperaciones.dto.PosicionCamionDTO;
+import back.tpi.ms_GestionDeOperaciones.service.TelemetriaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Tag(name = "Telemetría", description = "Recepción de posiciones GPS de los camiones")
+@RestController
+@RequestMapping("/api/telemetria")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearer-jwt")
+@SecurityRequirement(name = "keycloak-oauth2")
+public class TelemetriaController {
+
+    private final TelemetriaService telemetriaService;
+
+    @Operation(
+            summary = "Registrar posiciones GPS",
+            description = """
+                    Recibe un lote de posiciones (patente, fecha/hora, latitud, longitud) de uno o varios camiones.
+                    Las posiciones se guardan de forma asíncrona y se usan para medir la distancia recorrida
+                    en el tramo en curso de cada camión.
+                    Si el servidor está saturado responde 503: las posiciones rechazadas deben reenviarse.
+                    
+                    POST /api/telemetria/posiciones
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Posiciones aceptadas"),
+            @ApiResponse(responseCode = "503", description = "Buffer lleno, reintentar más tarde")
+    })
+    @PostMapping("/posiciones")
+    @PreAuthorize("hasAnyRole('TRANSPORTISTA', 'ADMINISTRADOR')")
+    public ResponseEntity<Map<String, Object>> registrarPosiciones(
+            @RequestBody
+            @Parameter(description = "Lote de posiciones GPS")
+            List<PosicionCamionDTO> posiciones) {
+
+        TelemetriaService.ResultadoRecepcion resultado = telemetriaService.registrarPosiciones(posiciones);
+        Map<String, Object> body = Map.of(
+                "aceptadas", resultado.aceptadas(),
+                "invalidas", resultado.invalidas(),
+                "rechazadas", resultado.rechazadasSinCapacidad());
+
+        if (resultado.rechazadasSinCapacidad() > 0) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(body);
+        }
+        return ResponseEntity.accepted().body(body);
+    }
+}
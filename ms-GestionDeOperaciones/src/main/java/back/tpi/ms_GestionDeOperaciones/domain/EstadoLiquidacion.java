@@ -0,0 +1,7 @@
+package back.tpi.ms_GestionDeOperaciones.domain;
+
+public enum EstadoLiquidacion {
+    PENDIENTE,      // Tramo finalizado, costo real aún no calculado
+    LIQUIDADO,      // Costo real calculado y registrado
+    FALLIDO         // Se agotaron los reintentos; requiere reprocesar
+}
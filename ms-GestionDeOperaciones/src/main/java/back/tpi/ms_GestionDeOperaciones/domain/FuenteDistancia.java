@@ -0,0 +1,10 @@
+package back.tpi.ms_GestionDeOperaciones.domain;
+
+public enum FuenteDistancia {
+    ALMACENADA,     // Distancia planificada guardada al confirmar la ruta
+    TELEMETRIA,     // Recorrido medido con las posiciones GPS del camión durante el tramo
+    OSRM,           // Ruta recalculada con OSRM al liquidar
+    RUTEO_LOCAL,    // Ruta recalculada con el grafo vial local (ruteo.local.*) al liquidar
+    APROXIMADA,     // OSRM no respondió: distancia en línea recta (Haversine)
+    POR_DEFECTO     // Sin distancia ni coordenadas: valor por defecto configurado
+}
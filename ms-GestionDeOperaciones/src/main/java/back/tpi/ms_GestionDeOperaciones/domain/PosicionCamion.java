@@ -0,0 +1,50 @@
+package back.tpi.ms_GestionDeOperaciones.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Posición GPS reportada por un camión. La tabla es de solo inserción y se escribe por lotes
+ * (ver TelemetriaService); no tiene FK a tramo para no generar locks sobre las tablas operativas.
+ */
+@Entity
+@Table(name = "posicion_camion", indexes = {
+        // Recorrido de un tramo en orden y última posición conocida
+        @Index(name = "idx_posicion_tramo_fecha", columnList = "tramoId, fechaHora"),
+        // Historial de un camión
+        @Index(name = "idx_posicion_camion_fecha", columnList = "camionPatente, fechaHora")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PosicionCamion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(nullable = false, length = 20)
+    String camionPatente;
+
+    Long tramoId; // Tramo EN_CURSO del camión al recibir la posición (null si no tenía)
+
+    @Column(nullable = false)
+    LocalDateTime fechaHora;
+
+    @Column(nullable = false)
+    Double latitud;
+
+    @Column(nullable = false)
+    Double longitud;
+
+    Double distanciaAcumuladaKm; // Recorrido del tramo hasta esta posición
+
+    @Column(nullable = false)
+    LocalDateTime recibidoEn;
+}
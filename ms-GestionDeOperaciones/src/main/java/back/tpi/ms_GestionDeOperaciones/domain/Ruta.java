@@ -4,7 +4,9 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.BatchSize;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,14 +37,34 @@ public class Ruta {
     SolicitudTraslado solicitudTraslado;
 
     // Relación con Tramos (una ruta tiene múltiples tramos)
+    // Al mapear listados de solicitudes, los tramos de hasta 100 rutas se cargan en una sola consulta
     @OneToMany(mappedBy = "ruta", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("orden ASC")
+    @BatchSize(size = 100)
     @Builder.Default
     List<Tramo> tramos = new ArrayList<>();
 
+    // Progreso materializado: se actualiza al registrar inicio y fin de tramos,
+    // así el seguimiento se consulta leyendo solo la ruta, sin recorrer sus tramos
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    Integer tramosCompletados = 0;
+
+    // Tramo en curso o, si no hay ninguno, el próximo pendiente (null cuando la ruta terminó)
+    Long tramoActualId;
+
+    LocalDateTime progresoActualizadoEn;
+
+    // Bloqueo optimista: dos registros simultáneos sobre la misma ruta no pueden pisar el progreso
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    long version;
+
     // Metodo helper para agregar tramos
     public void agregarTramo(Tramo tramo) {
         tramos.add(tramo);
         tramo.setRuta(this);
+        tramo.setOrden(tramos.size());
         this.cantidadTramos = tramos.size();
     }
 
@@ -52,4 +74,28 @@ public class Ruta {
                 .filter(t -> "DEPOSITO".equalsIgnoreCase(t.getTipoTramo()))
                 .count();
     }
-}
\ No newline at end of file
+
+    // Metodo helper para inicializar el progreso una vez guardados los tramos (ya tienen ID)
+    public void inicializarProgreso() {
+        this.tramosCompletados = 0;
+        this.tramoActualId = tramos.isEmpty() ? null : tramos.get(0).getId();
+        this.progresoActualizadoEn = LocalDateTime.now();
+    }
+
+    // Metodo helper para registrar el inicio de un tramo
+    public void registrarInicioTramo(Tramo tramo) {
+        this.tramoActualId = tramo.getId();
+        this.progresoActualizadoEn = LocalDateTime.now();
+    }
+
+    // Metodo helper para registrar el fin de un tramo; siguiente es null si era el último
+    public void registrarFinTramo(Tramo siguiente) {
+        this.tramosCompletados = tramosCompletados + 1;
+        this.tramoActualId = siguiente != null ? siguiente.getId() : null;
+        this.progresoActualizadoEn = LocalDateTime.now();
+    }
+
+    public boolean todosLosTramosCompletados() {
+        return tramosCompletados >= cantidadTramos;
+    }
+}
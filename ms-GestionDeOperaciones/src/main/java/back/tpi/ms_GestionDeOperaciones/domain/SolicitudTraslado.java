@@ -7,7 +7,13 @@ import lombok.experimental.FieldDefaults;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "solicitud_traslado")
+@Table(name = "solicitud_traslado", indexes = {
+        // Listado paginado por keyset (fechaSolicitud DESC, id DESC)
+        @Index(name = "idx_solicitud_fecha_id", columnList = "fechaSolicitud DESC, id DESC"),
+        // Filtros de contenedores pendientes por estado y rango de fechas
+        @Index(name = "idx_solicitud_estado_fecha", columnList = "estado, fechaSolicitud")
+        // Los índices trigram de direccionOrigen/direccionDestino se crean en IndicesBusquedaConfig
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -7,7 +7,12 @@ import lombok.experimental.FieldDefaults;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tramo")
+@Table(name = "tramo", indexes = {
+        // Búsqueda del tramo anterior/siguiente de una ruta por su posición
+        @Index(name = "idx_tramo_ruta_orden", columnList = "ruta_id, orden", unique = true),
+        // Tramos con liquidación pendiente o fallida
+        @Index(name = "idx_tramo_estado_liquidacion", columnList = "estadoLiquidacion")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -29,6 +34,8 @@ public class Tramo {
     @Column(nullable = false, length = 50)
     String tipoTramo; // TRANSPORTE, DEPOSITO
 
+    Integer orden; // Posición del tramo en la ruta, desde 1
+
     @Column(nullable = false, length = 50)
     @Enumerated(EnumType.STRING)
     EstadoTramo estado;
@@ -38,6 +45,15 @@ public class Tramo {
 
     Double costoReal;
 
+    // Liquidación del costo real: se calcula fuera de la transacción que finaliza el tramo
+    @Column(length = 20)
+    @Enumerated(EnumType.STRING)
+    EstadoLiquidacion estadoLiquidacion; // null mientras el tramo no finalizó
+
+    Integer intentosLiquidacion;
+    Boolean camionLiberado; // false hasta devolver el camión y su agenda al finalizar (null en tramos anteriores)
+    LocalDateTime liquidadoEn;
+
     LocalDateTime fechaHoraInicio;
     LocalDateTime fechaHoraFin;
 
@@ -55,5 +71,12 @@ public class Tramo {
     Double coordDestinoLat;
     Double coordDestinoLng;
 
-    Double distancia;
+    Double distancia; // Planificada al confirmar la ruta (km)
+
+    // Distancia usada al liquidar el costo real y de dónde se obtuvo
+    Double distanciaReal;
+
+    @Column(length = 20)
+    @Enumerated(EnumType.STRING)
+    FuenteDistancia fuenteDistancia;
 }
@@ -0,0 +1,27 @@
+package back.tpi.ms_GestionDeOperaciones.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * Par tramo-camión de una propuesta de asignación por lote
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Camión propuesto para un tramo")
+public class AsignacionPropuestaDTO {
+
+    @Schema(description = "ID del tramo", example = "150")
+    private Long tramoId;
+
+    @Schema(description = "Patente del camión propuesto", example = "AB123CD")
+    private String patenteCamion;
+
+    @Schema(description = "Distancia planificada del tramo (km)", example = "320.5")
+    private Double distanciaKm;
+
+    @Schema(description = "Costo estimado del tramo con este camión (operativo + combustible)", example = "185430.75")
+    private Double costoEstimado;
+}
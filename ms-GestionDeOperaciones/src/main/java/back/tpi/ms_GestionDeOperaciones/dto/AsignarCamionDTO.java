@@ -3,6 +3,8 @@ package back.tpi.ms_GestionDeOperaciones.dto;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 /**
  * DTO para asignar un camión a un tramo
  */
@@ -32,4 +34,14 @@ public class AsignarCamionDTO {
             example = "true"
     )
     private Boolean validarCapacidad;
-}
\ No newline at end of file
+
+    @Schema(
+            description = "Inicio planificado del tramo. Junto con finPlanificado agenda el camión para esa franja, " +
+                    "lo que permite asignarlo aunque hoy esté en viaje",
+            example = "2025-03-10T08:00:00"
+    )
+    private LocalDateTime inicioPlanificado;
+
+    @Schema(description = "Fin planificado del tramo", example = "2025-03-10T18:00:00")
+    private LocalDateTime finPlanificado;
+}
@@ -0,0 +1,24 @@
+package back.tpi.ms_GestionDeOperaciones.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Camiones modificados desde una fecha, según el microservicio de transporte
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Camiones modificados desde una fecha en el microservicio de transporte")
+public class CambiosFlotaDTO {
+
+    @Schema(description = "Momento de la consulta según el servidor de transporte", example = "2025-02-14T08:30:00")
+    private LocalDateTime consultadoEn;
+
+    @Schema(description = "Camiones cuyos datos o tipo cambiaron")
+    private List<CamionDTO> camiones;
+}
@@ -19,6 +19,13 @@ public class ConfirmarRutaTentativaDTO {
     )
     private Long solicitudTrasladoId;
 
+    @Schema(
+            description = "Identificador del conjunto de opciones devuelto por la consulta de rutas tentativas. " +
+                    "Si se omite se usa la última consulta vigente de la solicitud",
+            example = "3f6c2b9e-8d1a-4c55-9a0e-1b2c3d4e5f60"
+    )
+    private String opcionesId;
+
     @Schema(
             description = "Número de la opción de ruta tentativa elegida (1, 2, 3 o 4)",
             example = "2"
@@ -0,0 +1,23 @@
+package back.tpi.ms_GestionDeOperaciones.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Par tarifa/distancia de un cálculo de costos en lote, con el costo estimado resultante.")
+public class CostoEstimadoDTO {
+
+    @Schema(description = "ID de la tarifa utilizada para el cálculo", example = "5")
+    private Long tarifaId;
+
+    @Schema(description = "Distancia en km del tramo", example = "350.5")
+    private Double distancia;
+
+    @Schema(description = "Costo estimado calculado", example = "181370.4")
+    private Double costoEstimado;
+}
@@ -0,0 +1,25 @@
+package back.tpi.ms_GestionDeOperaciones.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Pedido de cálculo de costos estimados en lote al microservicio de tarifas.")
+public class CostoEstimadoLoteDTO {
+
+    @Schema(description = "ID de la tarifa que se aplica a todas las distancias de 'distancias'", example = "5")
+    private Long tarifaId;
+
+    @Schema(description = "Distancias en km a calcular con 'tarifaId'")
+    private List<Double> distancias;
+
+    @Schema(description = "Pares tarifa/distancia a calcular")
+    private List<CostoEstimadoDTO> items;
+}
@@ -8,6 +8,16 @@ import java.util.List;
 @Schema(description = "Respuesta del servicio OSRM que contiene rutas y permite obtener distancia y tiempo de forma procesada")
 public class DistanciaResponse {
 
+    // Códigos propios para respuestas que no vienen de OSRM (OSRM responde "Ok")
+    public static final String CODIGO_APROXIMADA = "Aproximada";
+    public static final String CODIGO_LOCAL = "Local";
+
+    @Schema(
+            description = "Código de respuesta: Ok (OSRM), Local (grafo vial local) o Aproximada (línea recta)",
+            example = "Ok"
+    )
+    private String code;
+
     @Schema(
             description = "Lista de rutas encontradas por el motor de cálculo OSRM",
             example = "[{\"distance\": 12345.6, \"duration\": 850.3}]"
@@ -57,6 +67,16 @@ public class DistanciaResponse {
                 : 0.0;
     }
 
+    @Schema(description = "Indica si la ruta es una estimación en línea recta y no una ruta real")
+    public boolean isAproximada() {
+        return CODIGO_APROXIMADA.equals(code);
+    }
+
+    @Schema(description = "Indica si la ruta se calculó con el grafo vial local en lugar de OSRM")
+    public boolean isLocal() {
+        return CODIGO_LOCAL.equals(code);
+    }
+
     @Schema(
             description = "Distancia legible en formato 'X.XX km'",
             example = "12.35 km"
@@ -0,0 +1,62 @@
+package back.tpi.ms_GestionDeOperaciones.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Respuesta del servicio /table de OSRM con distancias y duraciones entre todos los pares de puntos")
+public class MatrizDistanciaResponse {
+
+    @Schema(description = "Código de respuesta de OSRM", example = "Ok")
+    private String code;
+
+    @Schema(
+            description = "Matriz de distancias en metros. distances[i][j] es la distancia del punto i al punto j",
+            example = "[[0, 12345.6], [12410.2, 0]]"
+    )
+    private List<List<Double>> distances;
+
+    @Schema(
+            description = "Matriz de duraciones en segundos. durations[i][j] es la duración del punto i al punto j",
+            example = "[[0, 850.3], [861.0, 0]]"
+    )
+    private List<List<Double>> durations;
+
+    // --------------------------------------------
+    // MÉTODOS CON VALORES CALCULADOS
+    // --------------------------------------------
+
+    /**
+     * Indica si la matriz tiene distancia y duración para el par (origen, destino)
+     */
+    public boolean tieneValor(int origen, int destino) {
+        return valor(distances, origen, destino) != null && valor(durations, origen, destino) != null;
+    }
+
+    /**
+     * Devuelve el tramo origen -> destino con el mismo formato que /route,
+     * para que el resto del código siga trabajando con {@link DistanciaResponse}
+     */
+    public DistanciaResponse getDistancia(int origen, int destino) {
+        DistanciaResponse.Route route = new DistanciaResponse.Route();
+        Double distancia = valor(distances, origen, destino);
+        Double duracion = valor(durations, origen, destino);
+        route.setDistance(distancia != null ? distancia : 0.0);
+        route.setDuration(duracion != null ? duracion : 0.0);
+
+        DistanciaResponse response = new DistanciaResponse();
+        response.setCode(code);
+        response.setRoutes(List.of(route));
+        return response;
+    }
+
+    private Double valor(List<List<Double>> matriz, int origen, int destino) {
+        if (matriz == null || origen >= matriz.size()) {
+            return null;
+        }
+        List<Double> fila = matriz.get(origen);
+        return fila != null && destino < fila.size() ? fila.get(destino) : null;
+    }
+}
@@ -0,0 +1,29 @@
+package back.tpi.ms_GestionDeOperaciones.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Página de solicitudes de traslado ordenadas de la más reciente a la más antigua (paginación por cursor)")
+public class PaginaSolicitudesDTO {
+
+    @Schema(description = "Solicitudes de la página")
+    private List<SolicitudTrasladoDTO> solicitudes;
+
+    @Schema(description = "Cantidad máxima de solicitudes por página", example = "50")
+    private Integer tamanoPagina;
+
+    @Schema(description = "Indica si hay más solicitudes después de esta página", example = "true")
+    private Boolean hayMas;
+
+    @Schema(
+            description = "Cursor a enviar en 'cursor' para obtener la página siguiente. Nulo si no hay más",
+            example = "MjAyNS0xMS0xM1QxNDozMDowMHw0Mg"
+    )
+    private String siguienteCursor;
+}
@@ -0,0 +1,31 @@
+package back.tpi.ms_GestionDeOperaciones.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Posición GPS enviada por la aplicación del transportista
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Posición GPS de un camión en un instante dado")
+public class PosicionCamionDTO {
+
+    @Schema(description = "Patente del camión", example = "AB123CD", required = true)
+    private String patente;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @Schema(description = "Fecha y hora en que se tomó la posición", example = "2025-02-14 08:30:05", required = true)
+    private LocalDateTime fechaHora;
+
+    @Schema(description = "Latitud", example = "-31.417339", required = true)
+    private Double latitud;
+
+    @Schema(description = "Longitud", example = "-64.183319", required = true)
+    private Double longitud;
+}
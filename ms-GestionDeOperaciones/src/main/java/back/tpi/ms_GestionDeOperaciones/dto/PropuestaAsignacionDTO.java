@@ -0,0 +1,32 @@
+package back.tpi.ms_GestionDeOperaciones.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Resultado de la asignación por lote de camiones a tramos pendientes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Propuesta de asignación de camiones a los tramos pendientes de menor costo total")
+public class PropuestaAsignacionDTO {
+
+    @Schema(description = "Pares tramo-camión propuestos")
+    private List<AsignacionPropuestaDTO> asignaciones;
+
+    @Schema(description = "Tramos para los que no quedó ningún camión disponible con capacidad suficiente")
+    private List<Long> tramosSinCamion;
+
+    @Schema(description = "Suma del costo estimado de las asignaciones propuestas", example = "1250340.5")
+    private Double costoTotal;
+
+    @Schema(description = "Cantidad de tramos pendientes evaluados", example = "42")
+    private Integer tramosConsiderados;
+
+    @Schema(description = "Cantidad de camiones disponibles evaluados", example = "60")
+    private Integer camionesConsiderados;
+}
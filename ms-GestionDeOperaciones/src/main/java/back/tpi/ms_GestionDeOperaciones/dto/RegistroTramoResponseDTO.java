@@ -1,5 +1,6 @@
 package back.tpi.ms_GestionDeOperaciones.dto;
 
+import back.tpi.ms_GestionDeOperaciones.domain.EstadoLiquidacion;
 import back.tpi.ms_GestionDeOperaciones.domain.EstadoTramo;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.*;
@@ -82,11 +83,17 @@ public class RegistroTramoResponseDTO {
     private Boolean tramoCompletado;
 
     @Schema(
-            description = "Costo real calculado para el tramo",
+            description = "Costo real calculado para el tramo (null mientras la liquidación está pendiente)",
             example = "18750.50"
     )
     private Double costoReal;
 
+    @Schema(
+            description = "Estado de la liquidación del costo real: PENDIENTE, LIQUIDADO o FALLIDO",
+            example = "PENDIENTE"
+    )
+    private EstadoLiquidacion estadoLiquidacion;
+
     // ----------------------------
     //     INFORMACIÓN DE RUTA
     // ----------------------------
@@ -12,6 +12,13 @@ import java.util.List;
 @Schema(description = "Ruta tentativa con tramos sugeridos y estimaciones de costo/tiempo")
 public class RutaTentativaDTO {
 
+    @Schema(
+            description = "Identificador del conjunto de opciones generado en la consulta. " +
+                    "Se envía al confirmar para usar exactamente las opciones consultadas",
+            example = "3f6c2b9e-8d1a-4c55-9a0e-1b2c3d4e5f60"
+    )
+    private String opcionesId;
+
     @Schema(
             description = "Número de opción (1, 2, 3...)",
             example = "1",
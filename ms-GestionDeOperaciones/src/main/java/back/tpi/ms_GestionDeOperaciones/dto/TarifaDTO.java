@@ -64,4 +64,11 @@ public class TarifaDTO {
             nullable = true
     )
     private Long idDeposito;
-}
\ No newline at end of file
+
+    @Schema(
+            description = "Versión de la tarifa en el microservicio de tarifas. Cambia cada vez que la tarifa se modifica.",
+            example = "3",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Long version;
+}
@@ -1,6 +1,8 @@
 package back.tpi.ms_GestionDeOperaciones.dto;
 
+import back.tpi.ms_GestionDeOperaciones.domain.EstadoLiquidacion;
 import back.tpi.ms_GestionDeOperaciones.domain.EstadoTramo;
+import back.tpi.ms_GestionDeOperaciones.domain.FuenteDistancia;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -22,6 +24,13 @@ public class TramoDTO {
     )
     private Long tramoId;
 
+    @Schema(
+            description = "Posición del tramo dentro de la ruta, comenzando en 1.",
+            example = "2",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Integer orden;
+
     @Schema(
             description = "Ciudad o punto de partida del tramo.",
             example = "Buenos Aires"
@@ -59,6 +68,20 @@ public class TramoDTO {
     )
     private Double costoReal;
 
+    @Schema(
+            description = "Estado de la liquidación del costo real: PENDIENTE, LIQUIDADO o FALLIDO. Null si el tramo no finalizó.",
+            example = "LIQUIDADO",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private EstadoLiquidacion estadoLiquidacion;
+
+    @Schema(
+            description = "Si ya se devolvió el camión (y su agenda) al finalizar el tramo. Mientras sea false la liquidación sigue pendiente.",
+            example = "true",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Boolean camionLiberado;
+
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     @Schema(
             description = "Fecha y hora de inicio del tramo.",
@@ -101,6 +124,20 @@ public class TramoDTO {
     )
     private Double distancia;
 
+    @Schema(
+            description = "Distancia en kilómetros usada para liquidar el costo real.",
+            example = "298.7",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Double distanciaReal;
+
+    @Schema(
+            description = "Origen de la distancia real: ALMACENADA, TELEMETRIA, OSRM o POR_DEFECTO.",
+            example = "ALMACENADA",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private FuenteDistancia fuenteDistancia;
+
     @Schema(
             description = "Tiempo estimado del tramo en formato legible.",
             example = "4h 25m"
@@ -7,6 +7,11 @@ import back.tpi.ms_GestionDeOperaciones.dto.TarifaDTO;
 import lombok.*;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 @Component
 @RequiredArgsConstructor
 public class SolicitudTrasladoMapper {
@@ -17,11 +22,30 @@ public class SolicitudTrasladoMapper {
     private final RutaMapper rutaMapper;
 
     public SolicitudTrasladoDTO toDTO(SolicitudTraslado solicitudTraslado) {
+        return toDTO(solicitudTraslado, tarifaClient.getTarifa(solicitudTraslado.getTarifaId()));
+    }
+
+    /**
+     * Mapea una lista de solicitudes obteniendo todas sus tarifas juntas (cache + una consulta en lote)
+     * en lugar de una llamada al servicio de tarifas por solicitud
+     */
+    public List<SolicitudTrasladoDTO> toDTOs(List<SolicitudTraslado> solicitudes) {
+        Map<Long, TarifaDTO> tarifas = tarifaClient.getTarifas(solicitudes.stream()
+                .map(SolicitudTraslado::getTarifaId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        return solicitudes.stream()
+                .map(solicitud -> toDTO(solicitud, tarifas.get(solicitud.getTarifaId())))
+                .collect(Collectors.toList());
+    }
+
+    private SolicitudTrasladoDTO toDTO(SolicitudTraslado solicitudTraslado, TarifaDTO tarifaDTO) {
         return SolicitudTrasladoDTO.builder()
                 .solicitudId(solicitudTraslado.getId())
                 .cliente(clienteMapper.toDTO(solicitudTraslado.getCliente()))
                 .contenedor(contenedorMapper.toDTO(solicitudTraslado.getContenedor()))
-                .tarifa(tarifaClient.getTarifa(solicitudTraslado.getTarifaId()))
+                .tarifa(tarifaDTO)
                 .direccionOrigen(solicitudTraslado.getDireccionOrigen())
                 .coordOrigenLat(solicitudTraslado.getCoordOrigenLat())
                 .coordOrigenLng(solicitudTraslado.getCoordOrigenLng())
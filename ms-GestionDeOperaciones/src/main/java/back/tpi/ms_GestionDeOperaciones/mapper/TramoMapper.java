@@ -43,12 +43,15 @@ public class TramoMapper {
 
         return TramoDTO.builder()
                 .tramoId(tramo.getId())
+                .orden(tramo.getOrden())
                 .origen(tramo.getOrigen())
                 .destino(tramo.getDestino())
                 .tipoTramo(tramo.getTipoTramo())
                 .estado(tramo.getEstado())
                 .costoAproximado(tramo.getCostoAproximado())
                 .costoReal(tramo.getCostoReal())
+                .estadoLiquidacion(tramo.getEstadoLiquidacion())
+                .camionLiberado(tramo.getCamionLiberado())
                 .fechaHoraInicio(tramo.getFechaHoraInicio())
                 .fechaHoraFin(tramo.getFechaHoraFin())
                 .camionPatente(tramo.getCamionPatente())
@@ -57,6 +60,8 @@ public class TramoMapper {
                 .coordDestinoLat(tramo.getCoordDestinoLat())
                 .coordDestinoLng(tramo.getCoordDestinoLng())
                 .distancia(distancia)
+                .distanciaReal(tramo.getDistanciaReal())
+                .fuenteDistancia(tramo.getFuenteDistancia())
                 .tiempoEstimado(tiempoEstimado)
                 .build();
     }
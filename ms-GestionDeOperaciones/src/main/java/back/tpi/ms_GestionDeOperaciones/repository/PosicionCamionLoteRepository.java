@@ -0,0 +1,13 @@
+package back.tpi.ms_GestionDeOperaciones.repository;
+
+import back.tpi.ms_GestionDeOperaciones.domain.PosicionCamion;
+
+import java.util.List;
+
+/**
+ * Inserción por lotes de posiciones con JDBC (la clave IDENTITY impide que Hibernate agrupe los INSERT)
+ */
+public interface PosicionCamionLoteRepository {
+
+    void insertarLote(List<PosicionCamion> posiciones);
+}
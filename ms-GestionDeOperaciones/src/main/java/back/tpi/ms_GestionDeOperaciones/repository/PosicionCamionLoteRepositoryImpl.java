@@ -0,0 +1,32 @@
+package back.tpi.ms_GestionDeOperaciones.repository;
+
+import back.tpi.ms_GestionDeOperaciones.domain.PosicionCamion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class PosicionCamionLoteRepositoryImpl implements PosicionCamionLoteRepository {
+
+    private static final String INSERT = "INSERT INTO posicion_camion " +
+            "(camion_patente, tramo_id, fecha_hora, latitud, longitud, distancia_acumulada_km, recibido_en) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarLote(List<PosicionCamion> posiciones) {
+        jdbcTemplate.batchUpdate(INSERT, posiciones, posiciones.size(), (ps, p) -> {
+            ps.setString(1, p.getCamionPatente());
+            ps.setObject(2, p.getTramoId(), Types.BIGINT);
+            ps.setTimestamp(3, Timestamp.valueOf(p.getFechaHora()));
+            ps.setDouble(4, p.getLatitud());
+            ps.setDouble(5, p.getLongitud());
+            ps.setObject(6, p.getDistanciaAcumuladaKm(), Types.DOUBLE);
+            ps.setTimestamp(7, Timestamp.valueOf(p.getRecibidoEn()));
+        });
+    }
+}
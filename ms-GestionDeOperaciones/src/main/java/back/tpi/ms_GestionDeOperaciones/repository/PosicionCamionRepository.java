@@ -0,0 +1,20 @@
+package back.tpi.ms_GestionDeOperaciones.repository;
+
+import back.tpi.ms_GestionDeOperaciones.domain.PosicionCamion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PosicionCamionRepository extends JpaRepository<PosicionCamion, Long>, PosicionCamionLoteRepository {
+
+    // Última posición registrada de un tramo (para retomar el acumulado tras un reinicio)
+    Optional<PosicionCamion> findFirstByTramoIdOrderByFechaHoraDesc(Long tramoId);
+
+    // Distancia recorrida por el camión durante un tramo según la telemetría
+    @Query("SELECT MAX(p.distanciaAcumuladaKm) FROM PosicionCamion p WHERE p.tramoId = :tramoId")
+    Optional<Double> obtenerDistanciaRecorrida(@Param("tramoId") Long tramoId);
+}
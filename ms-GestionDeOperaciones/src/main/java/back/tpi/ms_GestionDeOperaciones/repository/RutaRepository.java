@@ -2,10 +2,14 @@ package back.tpi.ms_GestionDeOperaciones.repository;
 
 import back.tpi.ms_GestionDeOperaciones.domain.Ruta;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +24,24 @@ public interface RutaRepository extends JpaRepository<Ruta, Long> {
     @Query("SELECT r FROM Ruta r WHERE r.solicitudTraslado.id = :solicitudId")
     List<Ruta> findAllBySolicitudTrasladoId(@Param("solicitudId") Long solicitudId);
 
+    // Bloquea la ruta para serializar la consolidación del costo final entre liquidaciones concurrentes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Ruta r WHERE r.id = :id")
+    Optional<Ruta> findByIdParaActualizar(@Param("id") Long id);
+
+    boolean existsByProgresoActualizadoEnIsNull();
+
+    // Calcula el progreso materializado de las rutas creadas antes de que existiera
+    // (tramos completados y tramo actual: el EN_CURSO o el primer PENDIENTE)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE ruta r SET " +
+            "tramos_completados = (SELECT count(*) FROM tramo t WHERE t.ruta_id = r.id AND t.estado = 'COMPLETADO'), " +
+            "tramo_actual_id = (SELECT t.id FROM tramo t WHERE t.ruta_id = r.id AND t.estado IN ('EN_CURSO', 'PENDIENTE') " +
+            "                   ORDER BY CASE WHEN t.estado = 'EN_CURSO' THEN 0 ELSE 1 END, t.id LIMIT 1), " +
+            "progreso_actualizado_en = now() " +
+            "WHERE r.progreso_actualizado_en IS NULL", nativeQuery = true)
+    int inicializarProgresoFaltante();
 
     // Verificar si existe ruta para una solicitud
     boolean existsBySolicitudTrasladoId(Long solicitudTrasladoId);
@@ -2,17 +2,77 @@ package back.tpi.ms_GestionDeOperaciones.repository;
 
 import back.tpi.ms_GestionDeOperaciones.domain.EstadoSolicitud;
 import back.tpi.ms_GestionDeOperaciones.domain.SolicitudTraslado;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface SolicitudTrasladoRepository extends JpaRepository<SolicitudTraslado, Long> {
+public interface SolicitudTrasladoRepository extends JpaRepository<SolicitudTraslado, Long>,
+        JpaSpecificationExecutor<SolicitudTraslado> {
+
+    // Filtros opcionales + condición de keyset: las filas posteriores al cursor (fechaSolicitud, id)
+    // en el orden fechaSolicitud DESC, id DESC. Usa el índice idx_solicitud_fecha_id
+    String CONSULTA_LISTADO = "SELECT s FROM SolicitudTraslado s " +
+            "WHERE (:estado IS NULL OR s.estado = :estado) " +
+            "AND (:clienteId IS NULL OR s.cliente.id = :clienteId) " +
+            "AND (:desde IS NULL OR s.fechaSolicitud >= :desde) " +
+            "AND (:hasta IS NULL OR s.fechaSolicitud <= :hasta) " +
+            "AND (:cursorFecha IS NULL OR s.fechaSolicitud < :cursorFecha " +
+            "     OR (s.fechaSolicitud = :cursorFecha AND s.id < :cursorId)) " +
+            "ORDER BY s.fechaSolicitud DESC, s.id DESC";
+
+    // Página del listado (keyset). Cliente, contenedor y ruta se traen en la misma consulta
+    @EntityGraph(attributePaths = {"cliente", "contenedor", "ruta"})
+    @Query(CONSULTA_LISTADO)
+    List<SolicitudTraslado> buscarPagina(
+            @Param("estado") EstadoSolicitud estado,
+            @Param("clienteId") Long clienteId,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("cursorFecha") LocalDateTime cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    // Mismo listado como cursor de base de datos, para exportar sin cargar toda la tabla en memoria.
+    // Debe consumirse dentro de una transacción y cerrarse al terminar
+    @EntityGraph(attributePaths = {"cliente", "contenedor", "ruta"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(CONSULTA_LISTADO)
+    Stream<SolicitudTraslado> streamListado(
+            @Param("estado") EstadoSolicitud estado,
+            @Param("clienteId") Long clienteId,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("cursorFecha") LocalDateTime cursorFecha,
+            @Param("cursorId") Long cursorId);
+
+    // Consultas por Specification (contenedores pendientes): cliente, contenedor y ruta en el mismo SELECT
+    @Override
+    @EntityGraph(attributePaths = {"cliente", "contenedor", "ruta"})
+    List<SolicitudTraslado> findAll(Specification<SolicitudTraslado> spec, Sort sort);
+
+    @Override
+    @EntityGraph(attributePaths = {"cliente", "contenedor", "ruta"})
+    Page<SolicitudTraslado> findAll(Specification<SolicitudTraslado> spec, Pageable pageable);
 
     // Buscar por cliente
     List<SolicitudTraslado> findByClienteId(Long clienteId);
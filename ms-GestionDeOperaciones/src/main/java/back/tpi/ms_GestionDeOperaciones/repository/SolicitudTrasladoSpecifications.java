@@ -0,0 +1,97 @@
+package back.tpi.ms_GestionDeOperaciones.repository;
+
+import back.tpi.ms_GestionDeOperaciones.domain.Contenedor;
+import back.tpi.ms_GestionDeOperaciones.domain.EstadoSolicitud;
+import back.tpi.ms_GestionDeOperaciones.domain.SolicitudTraslado;
+import back.tpi.ms_GestionDeOperaciones.dto.FiltrosContenedorDTO;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filtros de solicitudes de traslado traducidos a una única consulta JPA (Criteria),
+ * para que la base de datos filtre con sus índices en lugar de hacerlo en memoria.
+ */
+public final class SolicitudTrasladoSpecifications {
+
+    private SolicitudTrasladoSpecifications() {
+    }
+
+    /**
+     * Solicitudes que todavía no terminaron (ni COMPLETADA ni CANCELADA)
+     */
+    public static Specification<SolicitudTraslado> pendientes() {
+        return (root, query, cb) -> root.get("estado")
+                .in(EstadoSolicitud.COMPLETADA, EstadoSolicitud.CANCELADA)
+                .not();
+    }
+
+    /**
+     * Todos los filtros informados en el DTO, combinados con AND. Los filtros nulos no se aplican
+     */
+    public static Specification<SolicitudTraslado> conFiltros(FiltrosContenedorDTO filtros) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+            if (filtros == null) {
+                return cb.conjunction();
+            }
+
+            if (filtros.getEstado() != null) {
+                predicados.add(cb.equal(root.get("estado"), filtros.getEstado()));
+            }
+            if (filtros.getClienteId() != null) {
+                predicados.add(cb.equal(root.get("cliente").get("id"), filtros.getClienteId()));
+            }
+
+            // Rango de fechas (extremos excluidos)
+            if (filtros.getFechaSolicitudDesde() != null) {
+                predicados.add(cb.greaterThan(root.get("fechaSolicitud"), filtros.getFechaSolicitudDesde()));
+            }
+            if (filtros.getFechaSolicitudHasta() != null) {
+                predicados.add(cb.lessThan(root.get("fechaSolicitud"), filtros.getFechaSolicitudHasta()));
+            }
+
+            // Peso y volumen del contenedor
+            if (filtros.getPesoMinimo() != null || filtros.getPesoMaximo() != null
+                    || filtros.getVolumenMinimo() != null || filtros.getVolumenMaximo() != null) {
+                Join<SolicitudTraslado, Contenedor> contenedor = root.join("contenedor");
+                if (filtros.getPesoMinimo() != null) {
+                    predicados.add(cb.greaterThanOrEqualTo(contenedor.get("peso"), filtros.getPesoMinimo()));
+                }
+                if (filtros.getPesoMaximo() != null) {
+                    predicados.add(cb.lessThanOrEqualTo(contenedor.get("peso"), filtros.getPesoMaximo()));
+                }
+                if (filtros.getVolumenMinimo() != null) {
+                    predicados.add(cb.greaterThanOrEqualTo(contenedor.get("volumen"), filtros.getVolumenMinimo()));
+                }
+                if (filtros.getVolumenMaximo() != null) {
+                    predicados.add(cb.lessThanOrEqualTo(contenedor.get("volumen"), filtros.getVolumenMaximo()));
+                }
+            }
+
+            // Ubicación: la dirección contiene el texto, sin distinguir mayúsculas (índices trigram)
+            if (filtros.getCiudadOrigen() != null && !filtros.getCiudadOrigen().isBlank()) {
+                predicados.add(cb.like(cb.lower(root.get("direccionOrigen")),
+                        patronContiene(filtros.getCiudadOrigen()), '\\'));
+            }
+            if (filtros.getCiudadDestino() != null && !filtros.getCiudadDestino().isBlank()) {
+                predicados.add(cb.like(cb.lower(root.get("direccionDestino")),
+                        patronContiene(filtros.getCiudadDestino()), '\\'));
+            }
+
+            return cb.and(predicados.toArray(Predicate[]::new));
+        };
+    }
+
+    private static String patronContiene(String texto) {
+        String escapado = texto.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escapado + "%";
+    }
+}
@@ -1,11 +1,21 @@
 package back.tpi.ms_GestionDeOperaciones.repository;
 
+import back.tpi.ms_GestionDeOperaciones.domain.EstadoLiquidacion;
 import back.tpi.ms_GestionDeOperaciones.domain.EstadoTramo;
 import back.tpi.ms_GestionDeOperaciones.domain.Tramo;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TramoRepository extends JpaRepository<Tramo, Long> {
@@ -19,6 +29,64 @@ public interface TramoRepository extends JpaRepository<Tramo, Long> {
     // Buscar tramos por camión
     List<Tramo> findByCamionPatente(String camionPatente);
 
+    // Tramo de un camión en un estado (por ejemplo, el EN_CURSO para asociarle la telemetría)
+    Optional<Tramo> findFirstByCamionPatenteAndEstado(String camionPatente, EstadoTramo estado);
+
+    // Tramos de transporte sin camión, con su solicitud y contenedor (asignación por lote), los más antiguos primero
+    @Query("SELECT t FROM Tramo t JOIN FETCH t.ruta r JOIN FETCH r.solicitudTraslado s JOIN FETCH s.contenedor " +
+            "WHERE t.estado = :estado AND t.camionPatente IS NULL AND UPPER(t.tipoTramo) = 'TRANSPORTE' ORDER BY t.id")
+    List<Tramo> findTransportesSinCamion(@Param("estado") EstadoTramo estado, Pageable pageable);
+
+    // Patentes ya asignadas a tramos en los estados indicados
+    @Query("SELECT DISTINCT t.camionPatente FROM Tramo t WHERE t.camionPatente IS NOT NULL AND t.estado IN :estados")
+    List<String> findPatentesAsignadas(@Param("estados") Collection<EstadoTramo> estados);
+
+    // Lock de Postgres por patente hasta el fin de la transacción: serializa las asignaciones de un mismo camión
+    // (la clave 1 separa estos locks de otros usos de pg_advisory_xact_lock)
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(1, hashtext(:patente))) bloqueo", nativeQuery = true)
+    Integer bloquearAsignacionCamion(@Param("patente") String patente);
+
+    // Bloquea los tramos para aplicar una asignación por lote de forma atómica
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Tramo t WHERE t.id IN :ids ORDER BY t.id")
+    List<Tramo> findAllByIdParaActualizar(@Param("ids") Collection<Long> ids);
+
     // Buscar tramos de una ruta por estado
     List<Tramo> findByRutaIdAndEstado(Long rutaId, EstadoTramo estado);
+
+    // Tramo de una ruta en una posición (usa el índice idx_tramo_ruta_orden)
+    Optional<Tramo> findByRutaIdAndOrden(Long rutaId, Integer orden);
+
+    // Tramos finalizados cuya liquidación de costo no terminó (PENDIENTE o FALLIDO)
+    List<Tramo> findByEstadoLiquidacionIn(Collection<EstadoLiquidacion> estados);
+
+    // Tramos liquidados de una ruta (para saber si se puede consolidar el costo final)
+    long countByRutaIdAndEstadoLiquidacion(Long rutaId, EstadoLiquidacion estadoLiquidacion);
+
+    // Suma del costo real de los tramos de una ruta
+    @Query("SELECT COALESCE(SUM(t.costoReal), 0) FROM Tramo t WHERE t.ruta.id = :rutaId")
+    double sumarCostoReal(@Param("rutaId") Long rutaId);
+
+    // Backfills de inicio: solo se ejecutan si quedan filas sin completar
+    boolean existsByOrdenIsNull();
+
+    boolean existsByEstadoAndEstadoLiquidacionIsNull(EstadoTramo estado);
+
+    // Los tramos completados antes de la liquidación asíncrona ya tienen su costo real
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE tramo SET estado_liquidacion = 'LIQUIDADO' " +
+            "WHERE estado = 'COMPLETADO' AND estado_liquidacion IS NULL", nativeQuery = true)
+    int marcarLiquidadosExistentes();
+
+    // Numera por ID los tramos creados antes de que existiera la columna orden, a continuación del mayor
+    // orden ya asignado en su ruta (así no choca con idx_tramo_ruta_orden si la ruta tiene tramos numerados)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE tramo t SET orden = numerados.posicion " +
+            "FROM (SELECT s.id, COALESCE((SELECT MAX(o.orden) FROM tramo o WHERE o.ruta_id = s.ruta_id), 0) " +
+            "          + row_number() OVER (PARTITION BY s.ruta_id ORDER BY s.id) AS posicion " +
+            "      FROM tramo s WHERE s.orden IS NULL) numerados " +
+            "WHERE t.id = numerados.id", nativeQuery = true)
+    int numerarTramosSinOrden();
 }
@@ -1,16 +1,29 @@
 package back.tpi.ms_GestionDeOperaciones.service;
 
 import back.tpi.ms_GestionDeOperaciones.client.CamionClient;
+import back.tpi.ms_GestionDeOperaciones.client.TarifaClient;
 import back.tpi.ms_GestionDeOperaciones.domain.*;
 import back.tpi.ms_GestionDeOperaciones.dto.*;
 import back.tpi.ms_GestionDeOperaciones.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +34,17 @@ public class AsignacionCamionService {
     private final RutaRepository rutaRepository;
     private final SolicitudTrasladoRepository solicitudRepository;
     private final CamionClient camionClient;
+    private final TarifaClient tarifaClient;
+    private final AsignadorHungaro asignadorHungaro;
+    private final TransactionTemplate transactionTemplate;
+
+    // Tamaño de página pedido a /api/camiones/disponibles (transporte puede devolver menos; se sigue X-Pagina-Siguiente)
+    private static final int TAMANIO_PAGINA_CAMIONES = 200;
+
+    private static final List<EstadoTramo> ESTADOS_CON_CAMION = List.of(EstadoTramo.PENDIENTE, EstadoTramo.EN_CURSO);
+
+    @Value("${asignacion.lote.max-tramos:500}")
+    private int maxTramosLote;
 
     /**
      * Asigna un camión a un tramo validando capacidad Y DISPONIBILIDAD
@@ -41,6 +65,12 @@ public class AsignacionCamionService {
                             tramo.getEstado());
         }
 
+        if (asignacionDTO.getPatenteCamion() == null) {
+            throw new RuntimeException("Debe indicar la patente del camión");
+        }
+        // El lock por patente serializa esta asignación con las demás (individuales o por lote) del mismo camión
+        tramoRepository.bloquearAsignacionCamion(normalizarPatente(asignacionDTO.getPatenteCamion()));
+
         // 2. Obtener información del camión desde el microservicio
         CamionDTO camion;
         try {
@@ -51,8 +81,10 @@ public class AsignacionCamionService {
                             asignacionDTO.getPatenteCamion(), e);
         }
 
-        // 3. ✅ VALIDACIÓN 1: Verificar que el camión está disponible
-        if (!camion.getDisponible()) {
+        // 3. ✅ VALIDACIÓN 1: Verificar que el camión está disponible.
+        // Con franja planificada decide la agenda (paso 5): puede estar en viaje hoy y libre para entonces
+        boolean conFranja = asignacionDTO.getInicioPlanificado() != null && asignacionDTO.getFinPlanificado() != null;
+        if (!conFranja && !camion.getDisponible()) {
             throw new RuntimeException(
                     "El camión con patente " + asignacionDTO.getPatenteCamion() +
                             " no está disponible. Está actualmente asignado a otro tramo.");
@@ -66,7 +98,13 @@ public class AsignacionCamionService {
             validarCapacidadCamion(tramo, camion);
         }
 
-        // 5. Asignar camión al tramo
+        // 5. Agendar el camión para la franja planificada (falla si se superpone con otra reserva)
+        if (conFranja) {
+            agendarCamion(tramo, camion.getPatente(),
+                    asignacionDTO.getInicioPlanificado(), asignacionDTO.getFinPlanificado());
+        }
+
+        // 6. Asignar camión al tramo
         tramo.setCamionPatente(camion.getPatente());
         Tramo tramoActualizado = tramoRepository.save(tramo);
 
@@ -113,29 +151,25 @@ public class AsignacionCamionService {
 
     /**
      * Obtiene camiones disponibles que pueden transportar un contenedor específico
+     * (una página, del que mejor se ajusta a su peso y volumen al que peor)
      */
     @Transactional(readOnly = true)
-    public List<CamionDTO> obtenerCamionesDisponiblesParaContenedor(Long contenedorId) {
+    public List<CamionDTO> obtenerCamionesDisponiblesParaContenedor(Long contenedorId, int pagina, int tamanio) {
         log.info("Buscando camiones disponibles para contenedor ID: {}", contenedorId);
 
         // Obtener información del contenedor
         Contenedor contenedor = obtenerContenedorPorId(contenedorId);
 
-        // Obtener todos los camiones disponibles
-        List<CamionDTO> camionesDisponibles = camionClient.obtenerCamionesDisponibles();
-
-        // Filtrar por capacidad
-        return camionesDisponibles.stream()
-                .filter(camion -> camion.getTipoCamion().getCapacidadPeso() >= contenedor.getPeso())
-                .filter(camion -> camion.getTipoCamion().getCapacidadVolumen() >= contenedor.getVolumen())
-                .collect(Collectors.toList());
+        // El microservicio de transporte filtra por capacidad y ordena por mejor ajuste
+        return camionClient.obtenerCamionesDisponibles(
+                contenedor.getPeso(), contenedor.getVolumen(), pagina, tamanio);
     }
 
     /**
      * Obtiene camiones disponibles para un tramo específico
      */
     @Transactional(readOnly = true)
-    public List<CamionDTO> obtenerCamionesDisponiblesParaTramo(Long tramoId) {
+    public List<CamionDTO> obtenerCamionesDisponiblesParaTramo(Long tramoId, int pagina, int tamanio) {
         log.info("Buscando camiones disponibles para tramo ID: {}", tramoId);
 
         Tramo tramo = tramoRepository.findById(tramoId)
@@ -147,16 +181,184 @@ public class AsignacionCamionService {
         Contenedor contenedor = solicitud.getContenedor();
 
         // Obtener camiones disponibles que puedan transportar este contenedor
-        List<CamionDTO> camionesDisponibles = camionClient.obtenerCamionesDisponibles();
+        return camionClient.obtenerCamionesDisponibles(
+                contenedor.getPeso(), contenedor.getVolumen(), pagina, tamanio);
+    }
+
+    /**
+     * Camiones con capacidad para el contenedor del tramo y sin reservas en la franja [inicio, fin)
+     */
+    @Transactional(readOnly = true)
+    public List<CamionDTO> obtenerCamionesLibresParaTramo(Long tramoId, LocalDateTime inicio, LocalDateTime fin) {
+        Tramo tramo = tramoRepository.findById(tramoId)
+                .orElseThrow(() -> new RuntimeException("Tramo no encontrado con ID: " + tramoId));
+        if (inicio == null || fin == null || !fin.isAfter(inicio)) {
+            throw new RuntimeException("La franja debe tener inicio y un fin posterior al inicio");
+        }
+
+        Contenedor contenedor = tramo.getRuta().getSolicitudTraslado().getContenedor();
+        return camionClient.obtenerCamionesLibres(inicio, fin, contenedor.getPeso(), contenedor.getVolumen());
+    }
+
+    /**
+     * Propone camiones para los tramos de transporte PENDIENTE sin camión (hasta
+     * {@code asignacion.lote.max-tramos}, los más antiguos primero), asignando la mayor cantidad
+     * posible de tramos con el menor costo total. Solo considera camiones disponibles con capacidad
+     * para el contenedor y que no estén ya asignados a otro tramo pendiente o en curso.
+     * No modifica nada: la propuesta se confirma con {@link #aplicarAsignacionLote}.
+     * Sin transacción propia: las consultas a transporte y tarifas no retienen una conexión a la base
+     */
+    public PropuestaAsignacionDTO proponerAsignacionLote() {
+        List<Tramo> tramos = tramoRepository.findTransportesSinCamion(
+                EstadoTramo.PENDIENTE, PageRequest.of(0, maxTramosLote));
+        if (tramos.isEmpty()) {
+            return PropuestaAsignacionDTO.builder()
+                    .asignaciones(List.of())
+                    .tramosSinCamion(List.of())
+                    .costoTotal(0.0)
+                    .tramosConsiderados(0)
+                    .camionesConsiderados(0)
+                    .build();
+        }
+
+        Set<String> ocupados = new HashSet<>();
+        tramoRepository.findPatentesAsignadas(ESTADOS_CON_CAMION).forEach(p -> ocupados.add(normalizarPatente(p)));
+        List<CamionDTO> camiones = obtenerTodosLosDisponibles(tramos).stream()
+                .filter(c -> !ocupados.contains(normalizarPatente(c.getPatente())))
+                .toList();
+
+        // Costo de cada par; infinito si el camión no puede llevar el contenedor del tramo
+        Map<Long, Double> precioCombustible = new HashMap<>();
+        double[][] costos = new double[tramos.size()][camiones.size()];
+        for (int i = 0; i < tramos.size(); i++) {
+            Tramo tramo = tramos.get(i);
+            Contenedor contenedor = tramo.getRuta().getSolicitudTraslado().getContenedor();
+            double precioLitro = precioCombustible.computeIfAbsent(
+                    tramo.getRuta().getSolicitudTraslado().getTarifaId(), this::obtenerPrecioCombustible);
+            for (int j = 0; j < camiones.size(); j++) {
+                CamionDTO camion = camiones.get(j);
+                costos[i][j] = tieneCapacidad(camion, contenedor)
+                        ? calcularCostoEstimado(tramo, camion, precioLitro)
+                        : Double.POSITIVE_INFINITY;
+            }
+        }
+
+        int[] asignacion = asignadorHungaro.resolver(costos);
+
+        List<AsignacionPropuestaDTO> asignaciones = new ArrayList<>();
+        List<Long> sinCamion = new ArrayList<>();
+        double costoTotal = 0;
+        for (int i = 0; i < tramos.size(); i++) {
+            Tramo tramo = tramos.get(i);
+            if (asignacion[i] == AsignadorHungaro.SIN_ASIGNAR) {
+                sinCamion.add(tramo.getId());
+                continue;
+            }
+            double costo = Math.round(costos[i][asignacion[i]] * 100.0) / 100.0;
+            costoTotal += costo;
+            asignaciones.add(AsignacionPropuestaDTO.builder()
+                    .tramoId(tramo.getId())
+                    .patenteCamion(camiones.get(asignacion[i]).getPatente())
+                    .distanciaKm(tramo.getDistancia())
+                    .costoEstimado(costo)
+                    .build());
+        }
+
+        log.info("🚛 Propuesta de asignación: {} de {} tramos con {} camiones, costo total ${}",
+                asignaciones.size(), tramos.size(), camiones.size(), costoTotal);
+
+        return PropuestaAsignacionDTO.builder()
+                .asignaciones(asignaciones)
+                .tramosSinCamion(sinCamion)
+                .costoTotal(Math.round(costoTotal * 100.0) / 100.0)
+                .tramosConsiderados(tramos.size())
+                .camionesConsiderados(camiones.size())
+                .build();
+    }
+
+    /**
+     * Aplica un lote de asignaciones (por ejemplo, una propuesta de {@link #proponerAsignacionLote}):
+     * o se asignan todas o ninguna. Revalida que cada tramo siga PENDIENTE y sin camión, y que cada
+     * camión siga disponible, sin otro tramo y con capacidad suficiente.
+     * Los camiones disponibles se consultan a transporte antes de abrir la transacción que bloquea los tramos
+     */
+    public List<TramoDTO> aplicarAsignacionLote(List<AsignarCamionDTO> asignaciones) {
+        if (asignaciones == null || asignaciones.isEmpty()) {
+            throw new RuntimeException("Debe indicar al menos una asignación");
+        }
 
-        return camionesDisponibles.stream()
-                .filter(camion -> camion.getTipoCamion().getCapacidadPeso() >= contenedor.getPeso())
-                .filter(camion -> camion.getTipoCamion().getCapacidadVolumen() >= contenedor.getVolumen())
-                .collect(Collectors.toList());
+        // tramoId -> patente normalizada, en el orden recibido
+        Map<Long, String> patentesPorTramo = new LinkedHashMap<>();
+        Set<String> patentes = new HashSet<>();
+        for (AsignarCamionDTO asignacion : asignaciones) {
+            if (asignacion.getTramoId() == null || asignacion.getPatenteCamion() == null) {
+                throw new RuntimeException("Cada asignación debe indicar tramoId y patenteCamion");
+            }
+            String patente = normalizarPatente(asignacion.getPatenteCamion());
+            if (patentesPorTramo.putIfAbsent(asignacion.getTramoId(), patente) != null) {
+                throw new RuntimeException("El tramo " + asignacion.getTramoId() + " aparece más de una vez");
+            }
+            if (!patentes.add(patente)) {
+                throw new RuntimeException("El camión " + patente + " aparece más de una vez");
+            }
+        }
+
+        // Transporte no bloquea la disponibilidad: se consulta sin transacción y se revalida con los locks
+        Map<String, CamionDTO> disponibles = new HashMap<>();
+        obtenerTodosLosDisponibles(tramoRepository.findAllById(patentesPorTramo.keySet()))
+                .forEach(c -> disponibles.put(normalizarPatente(c.getPatente()), c));
+
+        List<Tramo> asignados = transactionTemplate.execute(status ->
+                asignarLoteBloqueado(asignaciones, patentesPorTramo, disponibles));
+        log.info("✅ Asignación por lote aplicada: {} tramos", asignados.size());
+
+        return asignados.stream().map(this::convertirATramoDTO).toList();
     }
 
     /**
-     * Libera un camión de un tramo (marca como disponible nuevamente)
+     * Parte transaccional de {@link #aplicarAsignacionLote}: bloquea tramos y patentes y revalida contra la base
+     */
+    private List<Tramo> asignarLoteBloqueado(List<AsignarCamionDTO> asignaciones, Map<Long, String> patentesPorTramo,
+                                             Map<String, CamionDTO> disponibles) {
+        Map<Long, Tramo> tramos = new HashMap<>();
+        tramoRepository.findAllByIdParaActualizar(patentesPorTramo.keySet()).forEach(t -> tramos.put(t.getId(), t));
+
+        // Lock por patente antes de leer los camiones ocupados: otro lote o una asignación individual
+        // no pueden dar el mismo camión hasta que esta transacción termine. En orden para evitar deadlocks
+        patentesPorTramo.values().stream().sorted().forEach(tramoRepository::bloquearAsignacionCamion);
+
+        Set<String> ocupados = new HashSet<>();
+        tramoRepository.findPatentesAsignadas(ESTADOS_CON_CAMION).forEach(p -> ocupados.add(normalizarPatente(p)));
+
+        List<Tramo> asignados = new ArrayList<>();
+        for (AsignarCamionDTO asignacion : asignaciones) {
+            Tramo tramo = tramos.get(asignacion.getTramoId());
+            if (tramo == null) {
+                throw new RuntimeException("Tramo no encontrado con ID: " + asignacion.getTramoId());
+            }
+            if (tramo.getEstado() != EstadoTramo.PENDIENTE || tramo.getCamionPatente() != null) {
+                throw new RuntimeException("El tramo " + tramo.getId() + " ya no está PENDIENTE sin camión");
+            }
+
+            String patente = patentesPorTramo.get(tramo.getId());
+            CamionDTO camion = disponibles.get(patente);
+            if (camion == null || ocupados.contains(patente)) {
+                throw new RuntimeException("El camión con patente " + patente + " ya no está disponible");
+            }
+            if (asignacion.getValidarCapacidad() == null || asignacion.getValidarCapacidad()) {
+                validarCapacidadCamion(tramo, camion);
+            }
+
+            tramo.setCamionPatente(patente);
+            asignados.add(tramo);
+        }
+
+        return tramoRepository.saveAll(asignados);
+    }
+
+    /**
+     * Desasigna el camión del tramo y quita su reserva de agenda.
+     * El camión se marca como disponible solo si el tramo estaba EN_CURSO
      */
     @Transactional
     public TramoDTO liberarCamionDeTramo(Long tramoId) {
@@ -171,11 +373,20 @@ public class AsignacionCamionService {
 
         String patente = tramo.getCamionPatente();
 
-        // Marcar camión como disponible en el microservicio
+        // Solo un tramo EN_CURSO tiene reservado el camión: si este tramo no empezó, el camión puede estar
+        // en viaje por otro tramo y liberarlo lo dejaría disponible a mitad del recorrido
+        if (tramo.getEstado() == EstadoTramo.EN_CURSO) {
+            try {
+                camionClient.liberarCamion(patente);
+            } catch (Exception e) {
+                log.error("Error al liberar camión {}: {}", patente, e.getMessage());
+            }
+        }
+        // La reserva de su agenda para este tramo se quita siempre
         try {
-            camionClient.actualizarDisponibilidad(patente, true);
+            camionClient.cancelarAgendaTramo(tramoId);
         } catch (Exception e) {
-            log.error("Error al liberar camión {}: {}", patente, e.getMessage());
+            log.error("Error al cancelar la agenda del tramo {}: {}", tramoId, e.getMessage());
         }
 
         tramo.setCamionPatente(null);
@@ -199,6 +410,101 @@ public class AsignacionCamionService {
         return solicitudes.get(0).getContenedor();
     }
 
+    /**
+     * Reserva la franja en la agenda del camión; si la asignación no llega a confirmarse, la reserva se cancela
+     */
+    private void agendarCamion(Tramo tramo, String patente, LocalDateTime inicio, LocalDateTime fin) {
+        if (!fin.isAfter(inicio)) {
+            throw new RuntimeException("El fin planificado debe ser posterior al inicio planificado");
+        }
+        if (!camionClient.agendarCamion(patente, inicio, fin, tramo.getId())) {
+            throw new RuntimeException(String.format(
+                    "El camión %s ya tiene otra reserva entre %s y %s", patente, inicio, fin));
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    try {
+                        camionClient.cancelarAgendaTramo(tramo.getId());
+                    } catch (Exception e) {
+                        log.error("No se pudo cancelar la agenda del tramo {} tras el rollback: {}",
+                                tramo.getId(), e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Todos los camiones disponibles que pueden llevar al menos el contenedor más chico de los tramos
+     */
+    private List<CamionDTO> obtenerTodosLosDisponibles(Iterable<Tramo> tramos) {
+        double pesoMinimo = Double.MAX_VALUE;
+        double volumenMinimo = Double.MAX_VALUE;
+        for (Tramo tramo : tramos) {
+            Contenedor contenedor = tramo.getRuta().getSolicitudTraslado().getContenedor();
+            pesoMinimo = Math.min(pesoMinimo, contenedor.getPeso());
+            volumenMinimo = Math.min(volumenMinimo, contenedor.getVolumen());
+        }
+        if (pesoMinimo == Double.MAX_VALUE) {
+            return List.of();
+        }
+
+        List<CamionDTO> camiones = new ArrayList<>();
+        Integer pagina = 0;
+        while (pagina != null) {
+            CamionClient.PaginaCamiones lote = camionClient.obtenerPaginaCamionesDisponibles(
+                    pesoMinimo, volumenMinimo, pagina, TAMANIO_PAGINA_CAMIONES);
+            camiones.addAll(lote.camiones());
+            pagina = lote.paginaSiguiente();
+        }
+        return camiones;
+    }
+
+    private boolean tieneCapacidad(CamionDTO camion, Contenedor contenedor) {
+        TipoCamionDTO tipo = camion.getTipoCamion();
+        return tipo != null
+                && contenedor.getPeso() <= valorOCero(tipo.getCapacidadPeso())
+                && contenedor.getVolumen() <= valorOCero(tipo.getCapacidadVolumen());
+    }
+
+    /**
+     * Costo estimado del tramo con el camión, con la misma fórmula que la liquidación del costo real
+     * (sobre la distancia planificada)
+     */
+    private double calcularCostoEstimado(Tramo tramo, CamionDTO camion, double precioLitro) {
+        double distancia = valorOCero(tramo.getDistancia());
+        double consumoPorKm = valorOCero(camion.getCostoCombustible()) / 100.0;
+        return distancia * valorOCero(camion.getCostoKm()) + distancia * consumoPorKm * precioLitro;
+    }
+
+    private double obtenerPrecioCombustible(Long tarifaId) {
+        if (tarifaId == null) {
+            return 0.0;
+        }
+        try {
+            TarifaDTO tarifa = tarifaClient.getTarifa(tarifaId);
+            return valorOCero(tarifa.getValorCombustibleLitro());
+        } catch (Exception e) {
+            log.warn("No se pudo obtener la tarifa {}; se compara sin costo de combustible: {}",
+                    tarifaId, e.getMessage());
+            return 0.0;
+        }
+    }
+
+    /**
+     * Las patentes se comparan, bloquean y guardan en mayúsculas
+     */
+    private static String normalizarPatente(String patente) {
+        return patente.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static double valorOCero(Double valor) {
+        return valor != null ? valor : 0.0;
+    }
+
     /**
      * Convierte Tramo a DTO
      */
@@ -0,0 +1,125 @@
+package back.tpi.ms_GestionDeOperaciones.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Asignación de costo mínimo (algoritmo húngaro, O(n²·m) con n = min(filas, columnas)).
+ * Recibe una matriz filas x columnas (tramos x camiones) donde {@code Double.POSITIVE_INFINITY}
+ * marca un par imposible, y asigna a cada fila a lo sumo una columna distinta:
+ * primero maximiza la cantidad de filas asignadas y, entre esas soluciones, minimiza el costo total.
+ */
+@Component
+public class AsignadorHungaro {
+
+    public static final int SIN_ASIGNAR = -1;
+
+    /**
+     * Devuelve, para cada fila, la columna asignada o {@link #SIN_ASIGNAR}
+     */
+    public int[] resolver(double[][] costos) {
+        int filas = costos.length;
+        int columnas = filas == 0 ? 0 : costos[0].length;
+        int[] asignacion = new int[filas];
+        Arrays.fill(asignacion, SIN_ASIGNAR);
+        if (filas == 0 || columnas == 0) {
+            return asignacion;
+        }
+
+        // Los pares imposibles cuestan más que cualquier asignación completa de pares posibles
+        double maximo = 0;
+        for (double[] fila : costos) {
+            for (double costo : fila) {
+                if (costo != Double.POSITIVE_INFINITY) {
+                    maximo = Math.max(maximo, Math.abs(costo));
+                }
+            }
+        }
+        double prohibido = (maximo + 1) * (Math.min(filas, columnas) + 1);
+
+        // El algoritmo necesita filas <= columnas: si hay más tramos que camiones se resuelve la traspuesta
+        boolean traspuesta = filas > columnas;
+        int n = traspuesta ? columnas : filas;
+        int m = traspuesta ? filas : columnas;
+        double[][] a = new double[n + 1][m + 1];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double costo = traspuesta ? costos[j][i] : costos[i][j];
+                a[i + 1][j + 1] = costo == Double.POSITIVE_INFINITY ? prohibido : costo;
+            }
+        }
+
+        int[] filaDeColumna = resolverCuadrada(a, n, m);
+
+        for (int j = 1; j <= m; j++) {
+            int i = filaDeColumna[j];
+            if (i == 0 || a[i][j] >= prohibido) {
+                continue;
+            }
+            if (traspuesta) {
+                asignacion[j - 1] = i - 1;
+            } else {
+                asignacion[i - 1] = j - 1;
+            }
+        }
+        return asignacion;
+    }
+
+    /**
+     * Potenciales sobre filas (u) y columnas (v) con caminos de aumento más cortos.
+     * Índices desde 1; devuelve la fila asignada a cada columna (0 = ninguna)
+     */
+    private int[] resolverCuadrada(double[][] a, int n, int m) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] camino = new int[m + 1];
+        double[] minimos = new double[m + 1];
+        boolean[] usada = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minimos, Double.POSITIVE_INFINITY);
+            Arrays.fill(usada, false);
+
+            do {
+                usada[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (usada[j]) {
+                        continue;
+                    }
+                    double reducido = a[i0][j] - u[i0] - v[j];
+                    if (reducido < minimos[j]) {
+                        minimos[j] = reducido;
+                        camino[j] = j0;
+                    }
+                    if (minimos[j] < delta) {
+                        delta = minimos[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (usada[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minimos[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+
+            do {
+                int j1 = camino[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,46 @@
+package back.tpi.ms_GestionDeOperaciones.service;
+
+import back.tpi.ms_GestionDeOperaciones.dto.TarifaDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copia local de la fórmula de costo estimado de ms-GestionDeInfraestructura
+ * (TarifaService.calcularCostoEstimado), para cotizar los tramos con la tarifa ya obtenida
+ * en lugar de hacer una llamada remota por tramo.
+ * Debe mantenerse idéntica a la del otro servicio: CalculadoraCostoTarifaTest usa los mismos casos en ambos.
+ */
+@Component
+public class CalculadoraCostoTarifa {
+
+    // Consumo promedio por km (en litros/km). Suponemos camión mediano por defecto para estimar
+    static final double CONSUMO_POR_KM = 0.3; // 30 L/100 km
+
+    // Costo operativo promedio por km (mantenimiento, chofer, peajes, etc.)
+    static final double COSTO_OPERATIVO_POR_KM = 200.0;
+
+    /**
+     * Costo estimado de un tramo con la tarifa indicada
+     */
+    public double calcularCostoEstimado(TarifaDTO tarifa, double distanciaKm) {
+        if (tarifa == null) {
+            throw new RuntimeException("No se puede calcular el costo estimado sin tarifa");
+        }
+        return calcularCostoEstimado(
+                tarifa.getValorCombustibleLitro() != null ? tarifa.getValorCombustibleLitro() : 0.0,
+                tarifa.getCargoGestionTrama() != null ? tarifa.getCargoGestionTrama() : 0.0,
+                distanciaKm);
+    }
+
+    /**
+     * Costo estimado = combustible + operativo + cargo de gestión, redondeado a 2 decimales
+     */
+    public double calcularCostoEstimado(double valorCombustibleLitro, double cargoGestionTrama,
+                                        double distanciaKm) {
+        double costoCombustible = distanciaKm * CONSUMO_POR_KM * valorCombustibleLitro;
+        double costoOperativo = distanciaKm * COSTO_OPERATIVO_POR_KM;
+
+        double costoEstimado = costoCombustible + costoOperativo + cargoGestionTrama;
+
+        return Math.round(costoEstimado * 100.0) / 100.0;
+    }
+}
@@ -5,6 +5,9 @@ import back.tpi.ms_GestionDeOperaciones.dto.*;
 import back.tpi.ms_GestionDeOperaciones.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,9 +22,11 @@ import java.util.stream.Collectors;
 public class ContenedorPendienteService {
 
     private final SolicitudTrasladoRepository solicitudRepository;
-    private final RutaRepository rutaRepository;
     private final TramoRepository tramoRepository;
 
+    private static final Sort ORDEN_SOLICITUDES = Sort.by(Sort.Order.desc("fechaSolicitud"), Sort.Order.desc("id"));
+    private static final int TAMANIO_MAXIMO_PAGINA = 200;
+
     /**
      * Consulta contenedores pendientes con filtros
      */
@@ -31,86 +36,91 @@ public class ContenedorPendienteService {
 
         log.info("Consultando contenedores pendientes con filtros: {}", filtros);
 
-        // 1. Obtener todas las solicitudes pendientes (no completadas ni canceladas)
-        List<SolicitudTraslado> solicitudes = solicitudRepository.findAll().stream()
-                .filter(s -> s.getEstado() != EstadoSolicitud.COMPLETADA &&
-                        s.getEstado() != EstadoSolicitud.CANCELADA)
-                .collect(Collectors.toList());
+        // Solicitudes no completadas ni canceladas que cumplen los filtros, en una sola consulta
+        List<SolicitudTraslado> solicitudes = solicitudRepository.findAll(
+                SolicitudTrasladoSpecifications.pendientes()
+                        .and(SolicitudTrasladoSpecifications.conFiltros(filtros)),
+                ORDEN_SOLICITUDES);
 
-        // 2. Aplicar filtros si existen
-        if (filtros != null) {
-            solicitudes = aplicarFiltros(solicitudes, filtros);
-        }
+        return convertirADTOs(solicitudes);
+    }
 
-        // 3. Convertir a DTOs
-        return solicitudes.stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+    /**
+     * Consulta paginada de contenedores pendientes con filtros (página desde 1)
+     */
+    @Transactional(readOnly = true)
+    public ConsultaContenedoresResponseDTO consultarContenedoresPendientes(
+            FiltrosContenedorDTO filtros, int pagina, int tamanio) {
+
+        int tamanoPagina = Math.max(1, Math.min(tamanio, TAMANIO_MAXIMO_PAGINA));
+        int paginaActual = Math.max(pagina, 1);
+
+        Page<SolicitudTraslado> solicitudes = solicitudRepository.findAll(
+                SolicitudTrasladoSpecifications.pendientes()
+                        .and(SolicitudTrasladoSpecifications.conFiltros(filtros)),
+                PageRequest.of(paginaActual - 1, tamanoPagina, ORDEN_SOLICITUDES));
+
+        return ConsultaContenedoresResponseDTO.builder()
+                .contenedores(convertirADTOs(solicitudes.getContent()))
+                .totalContenedores((int) solicitudes.getTotalElements())
+                .paginaActual(paginaActual)
+                .tamanoPagina(tamanoPagina)
+                .totalPaginas(solicitudes.getTotalPages())
+                .totalRegistros(solicitudes.getTotalElements())
+                .filtrosAplicados(filtros)
+                .fechaConsulta(LocalDateTime.now().toString())
+                .build();
     }
 
 
     // ========== MÉTODOS PRIVADOS ==========
 
     /**
-     * Aplica los 3 filtros simples
+     * Convierte las solicitudes a DTO. El progreso sale de los contadores de cada ruta
+     * y los tramos actuales de todas las rutas se cargan en una sola consulta
      */
-    private List<SolicitudTraslado> aplicarFiltros(List<SolicitudTraslado> solicitudes,
-                                                   FiltrosContenedorDTO filtros) {
-        return solicitudes.stream()
-                // Filtros existentes
-                .filter(s -> filtros.getEstado() == null || s.getEstado() == filtros.getEstado())
-                .filter(s -> filtros.getClienteId() == null ||
-                        s.getCliente().getId().equals(filtros.getClienteId()))
-
-                // 1️⃣ Filtro por rango de fechas
-                .filter(s -> filtros.getFechaSolicitudDesde() == null ||
-                        s.getFechaSolicitud().isAfter(filtros.getFechaSolicitudDesde()))
-                .filter(s -> filtros.getFechaSolicitudHasta() == null ||
-                        s.getFechaSolicitud().isBefore(filtros.getFechaSolicitudHasta()))
-
-                // 2️⃣ Filtros por peso y volumen
-                .filter(s -> filtros.getPesoMinimo() == null ||
-                        s.getContenedor().getPeso() >= filtros.getPesoMinimo())
-                .filter(s -> filtros.getPesoMaximo() == null ||
-                        s.getContenedor().getPeso() <= filtros.getPesoMaximo())
-                .filter(s -> filtros.getVolumenMinimo() == null ||
-                        s.getContenedor().getVolumen() >= filtros.getVolumenMinimo())
-                .filter(s -> filtros.getVolumenMaximo() == null ||
-                        s.getContenedor().getVolumen() <= filtros.getVolumenMaximo())
-
-                // 3️⃣ Filtros por ubicación
-                .filter(s -> filtros.getCiudadOrigen() == null ||
-                        s.getDireccionOrigen().toLowerCase()
-                                .contains(filtros.getCiudadOrigen().toLowerCase()))
-                .filter(s -> filtros.getCiudadDestino() == null ||
-                        s.getDireccionDestino().toLowerCase()
-                                .contains(filtros.getCiudadDestino().toLowerCase()))
+    private List<ContenedorPendienteDTO> convertirADTOs(List<SolicitudTraslado> solicitudes) {
+        if (solicitudes.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> tramoActualIds = solicitudes.stream()
+                .map(SolicitudTraslado::getRuta)
+                .filter(Objects::nonNull)
+                .map(Ruta::getTramoActualId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
 
+        Map<Long, Tramo> tramosActuales = tramoActualIds.isEmpty() ? Map.of() :
+                tramoRepository.findAllById(tramoActualIds).stream()
+                        .collect(Collectors.toMap(Tramo::getId, t -> t));
+
+        return solicitudes.stream()
+                .map(s -> {
+                    Ruta ruta = s.getRuta();
+                    Tramo tramoActual = ruta != null && ruta.getTramoActualId() != null
+                            ? tramosActuales.get(ruta.getTramoActualId())
+                            : null;
+                    return convertirADTO(s, ruta, tramoActual);
+                })
                 .collect(Collectors.toList());
     }
 
     /**
-     * Convierte solicitud a DTO simplificado
+     * Convierte solicitud a DTO simplificado, con su ruta y tramo actual ya cargados
      */
-    private ContenedorPendienteDTO convertirADTO(SolicitudTraslado solicitud) {
+    private ContenedorPendienteDTO convertirADTO(SolicitudTraslado solicitud, Ruta ruta, Tramo tramoActual) {
         Contenedor contenedor = solicitud.getContenedor();
 
-        // Obtener información de ruta y tramo
-        Optional<Ruta> rutaOpt = rutaRepository.findBySolicitudTrasladoId(solicitud.getId());
-        Tramo tramoActual = obtenerTramoActual(solicitud);
-
         // Calcular ubicación actual
         String ubicacionActual = calcularUbicacionActual(solicitud, tramoActual);
 
-        // Calcular progreso
+        // Progreso materializado en la ruta
         int totalTramos = 0;
         int tramosCompletados = 0;
-        if (rutaOpt.isPresent()) {
-            List<Tramo> tramos = rutaOpt.get().getTramos();
-            totalTramos = tramos.size();
-            tramosCompletados = (int) tramos.stream()
-                    .filter(t -> t.getEstado() == EstadoTramo.COMPLETADO)
-                    .count();
+        if (ruta != null) {
+            totalTramos = ruta.getCantidadTramos();
+            tramosCompletados = ruta.getTramosCompletados();
         }
 
         double porcentaje = totalTramos > 0 ?
@@ -142,33 +152,6 @@ public class ContenedorPendienteService {
                 .build();
     }
 
-    /**
-     * Obtiene el tramo actual (en curso o próximo pendiente)
-     */
-    private Tramo obtenerTramoActual(SolicitudTraslado solicitud) {
-        Optional<Ruta> rutaOpt = rutaRepository.findBySolicitudTrasladoId(solicitud.getId());
-        if (!rutaOpt.isPresent()) {
-            return null;
-        }
-
-        List<Tramo> tramos = rutaOpt.get().getTramos();
-
-        // Buscar tramo en curso
-        Optional<Tramo> enCurso = tramos.stream()
-                .filter(t -> t.getEstado() == EstadoTramo.EN_CURSO)
-                .findFirst();
-
-        if (enCurso.isPresent()) {
-            return enCurso.get();
-        }
-
-        // Si no hay en curso, buscar primer pendiente
-        return tramos.stream()
-                .filter(t -> t.getEstado() == EstadoTramo.PENDIENTE)
-                .findFirst()
-                .orElse(null);
-    }
-
     /**
      * Calcula la ubicación actual descriptiva
      */
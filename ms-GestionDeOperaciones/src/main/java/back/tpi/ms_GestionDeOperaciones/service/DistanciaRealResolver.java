@@ -0,0 +1,106 @@
+package back.tpi.ms_GestionDeOperaciones.service;
+
+import back.tpi.ms_GestionDeOperaciones.client.OsrmClient;
+import back.tpi.ms_GestionDeOperaciones.domain.FuenteDistancia;
+import back.tpi.ms_GestionDeOperaciones.domain.Tramo;
+import back.tpi.ms_GestionDeOperaciones.dto.DistanciaResponse;
+import back.tpi.ms_GestionDeOperaciones.repository.PosicionCamionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resuelve la distancia usada para el costo real de un tramo de transporte.
+ * Prueba primero la fuente configurada en {@code tramos.liquidacion.fuente-distancia}
+ * y, si no tiene dato, sigue por el resto en orden: distancia almacenada, OSRM y
+ * por último {@code tramos.liquidacion.distancia-por-defecto-km}. La telemetría solo
+ * se usa si es la fuente configurada.
+ * <p>
+ * La ruta recalculada se registra según de dónde vino realmente: OSRM, el grafo vial local
+ * ({@link FuenteDistancia#RUTEO_LOCAL}) o la estimación en línea recta cuando OSRM no respondió
+ * ({@link FuenteDistancia#APROXIMADA}).
+ */
+@Component
+@Slf4j
+public class DistanciaRealResolver {
+
+    private final OsrmClient osrmClient;
+    private final PosicionCamionRepository posicionRepository;
+    private final List<FuenteDistancia> orden;
+    private final double distanciaPorDefectoKm;
+
+    public DistanciaRealResolver(OsrmClient osrmClient,
+                                 PosicionCamionRepository posicionRepository,
+                                 @Value("${tramos.liquidacion.fuente-distancia:ALMACENADA}") FuenteDistancia fuentePreferida,
+                                 @Value("${tramos.liquidacion.distancia-por-defecto-km:50}") double distanciaPorDefectoKm) {
+        this.osrmClient = osrmClient;
+        this.posicionRepository = posicionRepository;
+        this.distanciaPorDefectoKm = distanciaPorDefectoKm;
+
+        Set<FuenteDistancia> fuentes = new LinkedHashSet<>();
+        fuentes.add(fuentePreferida);
+        fuentes.add(FuenteDistancia.ALMACENADA);
+        fuentes.add(FuenteDistancia.OSRM);
+        fuentes.add(FuenteDistancia.POR_DEFECTO);
+        this.orden = List.copyOf(fuentes);
+    }
+
+    /**
+     * Distancia en km del tramo y la fuente de la que se obtuvo
+     */
+    public DistanciaReal resolver(Tramo tramo) {
+        for (FuenteDistancia fuente : orden) {
+            Optional<DistanciaReal> distancia = obtener(fuente, tramo);
+            if (distancia.isPresent()) {
+                log.info("📏 Distancia para liquidar tramo {}: {} km (fuente {})",
+                        tramo.getId(), distancia.get().km(), distancia.get().fuente());
+                return distancia.get();
+            }
+        }
+        // POR_DEFECTO siempre tiene valor
+        throw new IllegalStateException("No se pudo resolver la distancia del tramo " + tramo.getId());
+    }
+
+    private Optional<DistanciaReal> obtener(FuenteDistancia fuente, Tramo tramo) {
+        return switch (fuente) {
+            case ALMACENADA -> Optional.ofNullable(tramo.getDistancia()).filter(d -> d > 0)
+                    .map(d -> new DistanciaReal(d, fuente));
+            case TELEMETRIA -> posicionRepository.obtenerDistanciaRecorrida(tramo.getId()).filter(d -> d > 0)
+                    .map(d -> new DistanciaReal(d, fuente));
+            case OSRM, RUTEO_LOCAL, APROXIMADA -> tieneCoordenadas(tramo)
+                    ? Optional.of(recalcularRuta(tramo))
+                    : Optional.empty();
+            case POR_DEFECTO -> {
+                log.warn("⚠️ Tramo {} sin distancia ni coordenadas, usando {} km", tramo.getId(), distanciaPorDefectoKm);
+                yield Optional.of(new DistanciaReal(distanciaPorDefectoKm, fuente));
+            }
+        };
+    }
+
+    /**
+     * Recalcula la ruta y registra la fuente que efectivamente la resolvió
+     */
+    private DistanciaReal recalcularRuta(Tramo tramo) {
+        DistanciaResponse ruta = osrmClient.calcularDistancia(
+                tramo.getCoordOrigenLat(), tramo.getCoordOrigenLng(),
+                tramo.getCoordDestinoLat(), tramo.getCoordDestinoLng());
+
+        FuenteDistancia fuente = ruta.isAproximada() ? FuenteDistancia.APROXIMADA
+                : ruta.isLocal() ? FuenteDistancia.RUTEO_LOCAL
+                : FuenteDistancia.OSRM;
+        return new DistanciaReal(ruta.getDistanciaKm(), fuente);
+    }
+
+    private boolean tieneCoordenadas(Tramo tramo) {
+        return tramo.getCoordOrigenLat() != null && tramo.getCoordOrigenLng() != null &&
+                tramo.getCoordDestinoLat() != null && tramo.getCoordDestinoLng() != null;
+    }
+
+    public record DistanciaReal(double km, FuenteDistancia fuente) {
+    }
+}
@@ -0,0 +1,275 @@
+package back.tpi.ms_GestionDeOperaciones.service;
+
+import back.tpi.ms_GestionDeOperaciones.client.CamionClient;
+import back.tpi.ms_GestionDeOperaciones.client.FlotaCache;
+import back.tpi.ms_GestionDeOperaciones.client.TarifaClient;
+import back.tpi.ms_GestionDeOperaciones.domain.*;
+import back.tpi.ms_GestionDeOperaciones.dto.*;
+import back.tpi.ms_GestionDeOperaciones.mapper.TramoMapper;
+import back.tpi.ms_GestionDeOperaciones.repository.RutaRepository;
+import back.tpi.ms_GestionDeOperaciones.repository.SolicitudTrasladoRepository;
+import back.tpi.ms_GestionDeOperaciones.repository.TramoRepository;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Liquidación del costo real de los tramos finalizados.
+ * Se ejecuta después del commit de la finalización, en {@code liquidacionesExecutor}:
+ * las llamadas remotas (camión, tarifa, OSRM) no retienen conexiones ni locks de la base,
+ * y el resultado se guarda en una transacción corta. Cuando todos los tramos de la ruta
+ * quedan liquidados se consolida el costo final de la solicitud.
+ * <p>
+ * La devolución del camión es el primer paso de la liquidación: si falla, el tramo queda FALLIDO
+ * con {@code camionLiberado = false} y el reintento administrativo la vuelve a intentar.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiquidacionTramoService {
+
+    private static final String RESILIENCIA_LIQUIDACION = "liquidacion";
+
+    private final TramoRepository tramoRepository;
+    private final RutaRepository rutaRepository;
+    private final SolicitudTrasladoRepository solicitudRepository;
+    private final CamionClient camionClient;
+    private final FlotaCache flotaCache;
+    private final DistanciaRealResolver distanciaRealResolver;
+    private final TarifaClient tarifaClient;
+    private final TramoMapper tramoMapper;
+    private final RetryRegistry retryRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService liquidacionesExecutor;
+
+    // Tramos encolados o liquidándose en esta instancia: un reintento no los vuelve a encolar
+    private final Set<Long> enProceso = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Programa la liberación del camión (y de su agenda) y la liquidación del tramo para cuando se confirme
+     * la transacción actual (o de inmediato si no hay una activa)
+     */
+    public void programarLiquidacion(Long tramoId) {
+        Runnable tarea = () -> encolar(tramoId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tarea.run();
+                }
+            });
+        } else {
+            tarea.run();
+        }
+    }
+
+    /**
+     * Vuelve a programar la liquidación (y la devolución del camión) de los tramos PENDIENTE o FALLIDO,
+     * salvo los que ya están encolados o en proceso. Usa el token del usuario que la solicita para las llamadas remotas.
+     */
+    public List<TramoDTO> reintentarLiquidaciones() {
+        List<Tramo> tramos = tramoRepository.findByEstadoLiquidacionIn(
+                        List.of(EstadoLiquidacion.PENDIENTE, EstadoLiquidacion.FALLIDO)).stream()
+                .filter(t -> encolar(t.getId()))
+                .toList();
+
+        log.info("🔁 Reprogramando la liquidación de {} tramos", tramos.size());
+        return tramos.stream().map(tramoMapper::toDTO).toList();
+    }
+
+    /**
+     * Encola la liquidación salvo que el tramo ya esté encolado o en proceso. Devuelve si se encoló
+     */
+    private boolean encolar(Long tramoId) {
+        if (!enProceso.add(tramoId)) {
+            return false;
+        }
+        try {
+            liquidacionesExecutor.execute(() -> {
+                try {
+                    liquidar(tramoId);
+                } finally {
+                    enProceso.remove(tramoId);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            enProceso.remove(tramoId);
+            throw e;
+        }
+    }
+
+    /**
+     * Tramos cuya liquidación todavía no terminó
+     */
+    @Transactional(readOnly = true)
+    public List<TramoDTO> obtenerLiquidacionesPendientes() {
+        return tramoRepository.findByEstadoLiquidacionIn(
+                        List.of(EstadoLiquidacion.PENDIENTE, EstadoLiquidacion.FALLIDO))
+                .stream()
+                .map(tramoMapper::toDTO)
+                .toList();
+    }
+
+    /**
+     * Devuelve el camión si sigue pendiente y calcula el costo real del tramo (ambos con reintentos)
+     */
+    void liquidar(Long tramoId) {
+        Tramo tramo = tramoRepository.findById(tramoId).orElse(null);
+        if (tramo == null || (tramo.getEstadoLiquidacion() == EstadoLiquidacion.LIQUIDADO && !liberacionPendiente(tramo))) {
+            return;
+        }
+
+        Retry retry = retryRegistry.retry(RESILIENCIA_LIQUIDACION);
+        try {
+            if (liberacionPendiente(tramo)) {
+                Retry.decorateRunnable(retry, () -> liberarCamion(tramo.getCamionPatente(), tramoId)).run();
+                transactionTemplate.executeWithoutResult(status -> registrarLiberacion(tramoId));
+            }
+            if (tramo.getEstadoLiquidacion() != EstadoLiquidacion.LIQUIDADO) {
+                CostoReal costoReal = Retry.decorateSupplier(retry, () -> calcularCostoRealTramo(tramo)).get();
+                transactionTemplate.executeWithoutResult(status -> registrarLiquidacion(tramo, costoReal));
+            }
+        } catch (Exception e) {
+            log.error("❌ No se pudo liquidar el tramo ID {}: {}", tramoId, e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> registrarFallo(tramoId));
+        }
+    }
+
+    private boolean liberacionPendiente(Tramo tramo) {
+        return Boolean.FALSE.equals(tramo.getCamionLiberado());
+    }
+
+    /**
+     * Marca el camión como disponible y libera su agenda. Ambas llamadas son idempotentes
+     */
+    private void liberarCamion(String camionPatente, Long tramoId) {
+        if (camionPatente == null) {
+            return;
+        }
+        camionClient.liberarCamion(camionPatente);
+        log.info("✅ Camión {} marcado como DISPONIBLE nuevamente", camionPatente);
+        // Si terminó antes de lo planificado, el resto de la franja queda libre en la agenda
+        camionClient.cancelarAgendaTramo(tramoId);
+    }
+
+    private void registrarLiberacion(Long tramoId) {
+        tramoRepository.findById(tramoId).ifPresent(tramo -> {
+            tramo.setCamionLiberado(true);
+            tramoRepository.save(tramo);
+        });
+    }
+
+    /**
+     * Guarda el costo real y, si era el último tramo pendiente de la ruta, consolida el costo final
+     */
+    private void registrarLiquidacion(Tramo datosTramo, CostoReal costoReal) {
+        // El lock de la ruta evita que dos liquidaciones simultáneas omitan la consolidación
+        Ruta ruta = rutaRepository.findByIdParaActualizar(datosTramo.getRuta().getId())
+                .orElseThrow(() -> new RuntimeException("Ruta no encontrada para el tramo ID: " + datosTramo.getId()));
+        Tramo tramo = tramoRepository.findById(datosTramo.getId())
+                .orElseThrow(() -> new RuntimeException("Tramo no encontrado con ID: " + datosTramo.getId()));
+
+        if (tramo.getEstadoLiquidacion() == EstadoLiquidacion.LIQUIDADO) {
+            return;
+        }
+
+        tramo.setCostoReal(costoReal.monto());
+        if (costoReal.distancia() != null) {
+            tramo.setDistanciaReal(costoReal.distancia().km());
+            tramo.setFuenteDistancia(costoReal.distancia().fuente());
+        }
+        tramo.setEstadoLiquidacion(EstadoLiquidacion.LIQUIDADO);
+        tramo.setIntentosLiquidacion(intentos(tramo) + 1);
+        tramo.setLiquidadoEn(LocalDateTime.now());
+        tramoRepository.save(tramo);
+        log.info("💰 Costo real liquidado para tramo ID {}: ${}", tramo.getId(), costoReal.monto());
+
+        long liquidados = tramoRepository.countByRutaIdAndEstadoLiquidacion(ruta.getId(), EstadoLiquidacion.LIQUIDADO);
+        if (ruta.todosLosTramosCompletados() && liquidados >= ruta.getCantidadTramos()) {
+            SolicitudTraslado solicitud = ruta.getSolicitudTraslado();
+            double costoFinal = tramoRepository.sumarCostoReal(ruta.getId());
+            solicitud.setCostoFinal(costoFinal);
+            solicitudRepository.save(solicitud);
+            log.info("✅ Solicitud ID: {} liquidada. Costo final: ${}", solicitud.getId(), costoFinal);
+        }
+    }
+
+    private void registrarFallo(Long tramoId) {
+        tramoRepository.findById(tramoId).ifPresent(tramo -> {
+            if (tramo.getEstadoLiquidacion() != EstadoLiquidacion.LIQUIDADO) {
+                tramo.setEstadoLiquidacion(EstadoLiquidacion.FALLIDO);
+                tramo.setIntentosLiquidacion(intentos(tramo) + 1);
+                tramoRepository.save(tramo);
+            }
+        });
+    }
+
+    private int intentos(Tramo tramo) {
+        return tramo.getIntentosLiquidacion() != null ? tramo.getIntentosLiquidacion() : 0;
+    }
+
+    /**
+     * Calcula el costo real de un tramo basado en:
+     * - Distancia recorrida (según la fuente configurada, ver {@link DistanciaRealResolver})
+     * - Costo por km del camión (de la copia local de la flota)
+     * - Consumo de combustible del camión
+     * - Precio del combustible de la tarifa
+     */
+    private CostoReal calcularCostoRealTramo(Tramo tramo) {
+        if (tramo.getFechaHoraInicio() == null || tramo.getFechaHoraFin() == null) {
+            log.warn("No se puede calcular el costo real del tramo ID {} porque faltan fechas.", tramo.getId());
+            return new CostoReal(0.0, null);
+        }
+
+        switch (tramo.getTipoTramo().toUpperCase()) {
+            case "TRANSPORTE":
+                CamionDTO camion = flotaCache.obtener(tramo.getCamionPatente());
+                TarifaDTO tarifaDTO = tarifaClient.getTarifa(tramo.getRuta().getSolicitudTraslado().getTarifaId());
+
+                DistanciaRealResolver.DistanciaReal distanciaReal = distanciaRealResolver.resolver(tramo);
+                double distancia = distanciaReal.km();
+
+                double consumoPorKm = camion.getCostoCombustible() / 100.0;
+                double costoCombustible = distancia * consumoPorKm * tarifaDTO.getValorCombustibleLitro();
+
+                double costoOperativo = distancia * camion.getCostoKm();
+
+                double costoReal = costoOperativo + costoCombustible;
+
+                log.info("✅ Costo real tramo {}: distancia={} km ({}), consumoPorKm={}, costoCombustible={}, costoOperativo={}, total={}",
+                        tramo.getId(), distancia, distanciaReal.fuente(), consumoPorKm, costoCombustible, costoOperativo, costoReal);
+
+                return new CostoReal(Math.round(costoReal * 100.0) / 100.0, distanciaReal);
+
+            case "DEPOSITO":
+                long diasEstadia = ChronoUnit.DAYS.between(
+                        tramo.getFechaHoraInicio().toLocalDate(),
+                        tramo.getFechaHoraFin().toLocalDate()
+                );
+                if (diasEstadia == 0) diasEstadia = 1;
+                double costoPorDia = tramo.getCostoAproximado() != null ? tramo.getCostoAproximado() : 0.0;
+                return new CostoReal(costoPorDia * diasEstadia, null);
+
+            default:
+                return new CostoReal(0.0, null);
+        }
+    }
+
+    private record CostoReal(double monto, DistanciaRealResolver.DistanciaReal distancia) {
+    }
+}
@@ -1,8 +1,6 @@
 package back.tpi.ms_GestionDeOperaciones.service;
 
 import back.tpi.ms_GestionDeOperaciones.client.CamionClient;
-import back.tpi.ms_GestionDeOperaciones.client.OsrmClient;
-import back.tpi.ms_GestionDeOperaciones.client.TarifaClient;
 import back.tpi.ms_GestionDeOperaciones.domain.*;
 import back.tpi.ms_GestionDeOperaciones.dto.*;
 import back.tpi.ms_GestionDeOperaciones.mapper.TramoMapper;
@@ -11,12 +9,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.Comparator;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -27,8 +24,8 @@ public class RegistroTramoService {
     private final RutaRepository rutaRepository;
     private final SolicitudTrasladoRepository solicitudRepository;
     private final CamionClient camionClient;
-    private final OsrmClient osrmClient;
-    private final TarifaClient tarifaClient;
+    private final LiquidacionTramoService liquidacionTramoService;
+    private final TelemetriaService telemetriaService;
     private final TramoMapper tramoMapper;
 
     /**
@@ -63,21 +60,29 @@ public class RegistroTramoService {
 
         EstadoTramo estadoAnterior = tramo.getEstado();
 
-        // 5. ✅ VALIDACIÓN 2: Marcar camión como NO DISPONIBLE
+        // 5. ✅ VALIDACIÓN 2: Reservar el camión (atómico en el microservicio de transporte)
+        boolean reservado;
         try {
-            camionClient.actualizarDisponibilidad(tramo.getCamionPatente(), false);
-            log.info("✅ Camión {} marcado como NO DISPONIBLE", tramo.getCamionPatente());
+            reservado = camionClient.reservarCamion(tramo.getCamionPatente(), tramo.getId());
         } catch (Exception e) {
-            log.error("Error al marcar camión como no disponible: {}", e.getMessage());
+            log.error("Error al reservar el camión: {}", e.getMessage());
             throw new RuntimeException(
                     "Error al actualizar disponibilidad del camión: " + e.getMessage());
         }
+        if (!reservado) {
+            throw new RuntimeException("El camión " + tramo.getCamionPatente() +
+                    " no está disponible. Está en curso o agendado para otro tramo.");
+        }
+        liberarCamionSiNoConfirma(tramo.getCamionPatente());
 
         // 6. Actualizar estado y fecha de inicio
         tramo.setEstado(EstadoTramo.EN_CURSO);
         tramo.setFechaHoraInicio(LocalDateTime.now());
 
         Tramo tramoActualizado = tramoRepository.save(tramo);
+        tramo.getRuta().registrarInicioTramo(tramo);
+        // Las próximas posiciones GPS del camión se asocian a este tramo
+        telemetriaService.olvidarCamion(tramo.getCamionPatente());
         log.info("✅ Tramo ID: {} iniciado exitosamente a las {}",
                 tramo.getId(), tramo.getFechaHoraInicio());
 
@@ -86,35 +91,42 @@ public class RegistroTramoService {
 
         // 8. Construir respuesta
         return construirRespuesta(tramoActualizado, estadoAnterior,
-                "Tramo iniciado exitosamente. Camión marcado como no disponible.", false);
+                "Tramo iniciado exitosamente. Camión reservado.", false);
     }
 
     /**
-     * ✅ VALIDACIÓN 3: Verifica que el tramo anterior de la misma ruta esté completado
+     * Si la transacción que inicia el tramo no se confirma, devuelve el camión reservado
      */
-    private void validarTramoAnteriorCompletado(Tramo tramoActual) {
-        Ruta ruta = tramoActual.getRuta();
-        List<Tramo> todosLosTramos = ruta.getTramos();
-
-        // Ordenar tramos por ID (asumiendo que se crearon en orden)
-        todosLosTramos.sort(Comparator.comparing(Tramo::getId));
-
-        // Encontrar el índice del tramo actual
-        int indiceActual = -1;
-        for (int i = 0; i < todosLosTramos.size(); i++) {
-            if (todosLosTramos.get(i).getId().equals(tramoActual.getId())) {
-                indiceActual = i;
-                break;
+    private void liberarCamionSiNoConfirma(String patente) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    try {
+                        camionClient.liberarCamion(patente);
+                    } catch (Exception e) {
+                        log.error("No se pudo liberar el camión {} tras el rollback: {}", patente, e.getMessage());
+                    }
+                }
             }
-        }
+        });
+    }
 
-        if (indiceActual == -1) {
+    /**
+     * ✅ VALIDACIÓN 3: Verifica que el tramo anterior de la misma ruta esté completado
+     */
+    private void validarTramoAnteriorCompletado(Tramo tramoActual) {
+        Integer orden = tramoActual.getOrden();
+        if (orden == null) {
             throw new RuntimeException("No se pudo determinar la posición del tramo en la ruta");
         }
 
         // Si no es el primer tramo, validar que el anterior esté completado
-        if (indiceActual > 0) {
-            Tramo tramoAnterior = todosLosTramos.get(indiceActual - 1);
+        if (orden > 1) {
+            Tramo tramoAnterior = tramoRepository
+                    .findByRutaIdAndOrden(tramoActual.getRuta().getId(), orden - 1)
+                    .orElseThrow(() -> new RuntimeException(
+                            "No se encontró el tramo anterior al tramo ID: " + tramoActual.getId()));
 
             if (tramoAnterior.getEstado() != EstadoTramo.COMPLETADO) {
                 throw new RuntimeException(
@@ -133,9 +145,9 @@ public class RegistroTramoService {
     }
 
     /**
-     * Registra el FIN de un tramo por el transportista
-     * ✅ VALIDACIÓN 2: Marca el camión como DISPONIBLE nuevamente
-     * ✅ Calcula el costo real del tramo
+     * Registra el FIN de un tramo por el transportista.
+     * Solo cambia el estado; la liberación del camión y el costo real se resuelven
+     * después del commit en {@link LiquidacionTramoService} (liquidación PENDIENTE)
      */
     @Transactional
     public RegistroTramoResponseDTO registrarFinTramo(RegistroTramoDTO registroDTO) {
@@ -169,28 +181,25 @@ public class RegistroTramoService {
         Duration duracion = Duration.between(tramo.getFechaHoraInicio(), tramo.getFechaHoraFin());
         double horas = duracion.toMinutes() / 60.0;
 
-        // 5. 💰 CALCULAR COSTO REAL DEL TRAMO
-        double costoReal = calcularCostoRealTramo(tramo);
-        tramo.setCostoReal(costoReal);
-
-        log.info("💰 Costo real calculado para tramo ID {}: ${}", tramo.getId(), costoReal);
+        // 5. 💰 El costo real queda pendiente de liquidación
+        tramo.setEstadoLiquidacion(EstadoLiquidacion.PENDIENTE);
+        tramo.setIntentosLiquidacion(0);
+        tramo.setCamionLiberado(false);
 
         Tramo tramoActualizado = tramoRepository.save(tramo);
 
-        log.info("✅ Tramo ID: {} finalizado exitosamente. Duración: {} horas, Costo real: ${}",
-                tramo.getId(), String.format("%.2f", horas), costoReal);
-
-        // 6. ✅ VALIDACIÓN 2: Marcar camión como DISPONIBLE nuevamente
-        if (tramo.getCamionPatente() != null) {
-            try {
-                camionClient.actualizarDisponibilidad(tramo.getCamionPatente(), true);
-                log.info("✅ Camión {} marcado como DISPONIBLE nuevamente",
-                        tramo.getCamionPatente());
-            } catch (Exception e) {
-                log.error("Error al marcar camión como disponible: {}", e.getMessage());
-                // No lanzar excepción aquí para no bloquear la finalización del tramo
-            }
-        }
+        // Progreso de la ruta: un tramo completado más y el siguiente pendiente pasa a ser el actual
+        Tramo siguiente = tramoRepository
+                .findByRutaIdAndOrden(tramo.getRuta().getId(), tramo.getOrden() + 1)
+                .orElse(null);
+        tramo.getRuta().registrarFinTramo(siguiente);
+        telemetriaService.olvidarCamion(tramo.getCamionPatente());
+
+        log.info("✅ Tramo ID: {} finalizado exitosamente. Duración: {} horas, liquidación pendiente",
+                tramo.getId(), String.format("%.2f", horas));
+
+        // 6. ✅ VALIDACIÓN 2: Liberar el camión y liquidar el costo real una vez confirmada la transacción
+        liquidacionTramoService.programarLiquidacion(tramo.getId());
 
         // 7. Verificar si todos los tramos de la ruta están completados
         boolean todosCompletados = verificarTodosLosTramosCompletados(tramo.getRuta());
@@ -202,7 +211,7 @@ public class RegistroTramoService {
 
         // 9. Construir respuesta
         return construirRespuesta(tramoActualizado, estadoAnterior,
-                "Tramo finalizado exitosamente. Camión marcado como disponible.", true);
+                "Tramo finalizado exitosamente. El costo real se liquidará en breve.", true);
     }
 
     /**
@@ -218,71 +227,6 @@ public class RegistroTramoService {
 
     // ========== MÉTODOS PRIVADOS ==========
 
-    /**
-     * Calcula el costo real de un tramo basado en:
-     * - Distancia recorrida (entre coordenadas del tramo)
-     * - Costo por km del camión
-     * - Consumo de combustible del camión
-     * - Precio del combustible de la tarifa
-     * - Cargo de gestión de la tarifa (si aplica)
-     */
-    private double calcularCostoRealTramo(Tramo tramo) {
-        if (tramo.getFechaHoraInicio() == null || tramo.getFechaHoraFin() == null) {
-            log.warn("No se puede calcular el costo real del tramo ID {} porque faltan fechas.", tramo.getId());
-            return 0.0;
-        }
-
-        switch (tramo.getTipoTramo().toUpperCase()) {
-            case "TRANSPORTE":
-                CamionDTO camion = camionClient.obtenerCamionPorPatente(tramo.getCamionPatente());
-                TarifaDTO tarifaDTO = tarifaClient.getTarifa(tramo.getRuta().getSolicitudTraslado().getTarifaId());
-
-                double distancia = 0.0;
-                if (tramo.getCoordOrigenLat() != null && tramo.getCoordOrigenLng() != null &&
-                        tramo.getCoordDestinoLat() != null && tramo.getCoordDestinoLng() != null) {
-
-                    DistanciaResponse distanciaResponse = osrmClient.calcularDistancia(
-                            tramo.getCoordOrigenLat(),
-                            tramo.getCoordOrigenLng(),
-                            tramo.getCoordDestinoLat(),
-                            tramo.getCoordDestinoLng()
-                    );
-                    distancia = distanciaResponse.getDistanciaKm();
-                    log.info("📏 Distancia real calculada para tramo {}: {} km",
-                            tramo.getId(), distancia);
-                } else {
-                    log.warn("⚠️ Tramo {} sin coordenadas, usando distancia aproximada", tramo.getId());
-                    distancia = 50.0; // valor por defecto
-                }
-
-
-                double consumoPorKm = camion.getCostoCombustible() / 100.0;
-                double costoCombustible = distancia * consumoPorKm * tarifaDTO.getValorCombustibleLitro();
-
-                double costoOperativo = distancia * camion.getCostoKm();
-
-                double costoReal = costoOperativo + costoCombustible;
-
-                log.info("✅ Costo real tramo {}: distancia={} km, consumoPorKm={}, costoCombustible={}, costoOperativo={}, total={}",
-                        tramo.getId(), distancia, consumoPorKm, costoCombustible, costoOperativo, costoReal);
-
-                return Math.round(costoReal * 100.0) / 100.0;
-
-            case "DEPOSITO":
-                long diasEstadia = ChronoUnit.DAYS.between(
-                        tramo.getFechaHoraInicio().toLocalDate(),
-                        tramo.getFechaHoraFin().toLocalDate()
-                );
-                if (diasEstadia == 0) diasEstadia = 1;
-                double costoPorDia = tramo.getCostoAproximado() != null ? tramo.getCostoAproximado() : 0.0;
-                return costoPorDia * diasEstadia;
-
-            default:
-                return 0.0;
-        }
-    }
-
-
     /**
      * Actualiza el estado de la solicitud cuando inicia el primer tramo
      */
@@ -303,12 +247,12 @@ public class RegistroTramoService {
      * Verifica si todos los tramos de una ruta están completados
      */
     private boolean verificarTodosLosTramosCompletados(Ruta ruta) {
-        return ruta.getTramos().stream()
-                .allMatch(t -> t.getEstado() == EstadoTramo.COMPLETADO);
+        return ruta.todosLosTramosCompletados();
     }
 
     /**
-     * Actualiza el estado de la solicitud cuando todos los tramos están completados
+     * Actualiza el estado de la solicitud cuando todos los tramos están completados.
+     * El costo final se consolida al liquidarse el último tramo
      */
     private void actualizarEstadoSolicitudAlFinalizar(Tramo tramo) {
         Ruta ruta = tramo.getRuta();
@@ -320,19 +264,13 @@ public class RegistroTramoService {
         Duration duracion = Duration.between(inicio, fin);
         double horasReales = duracion.toMinutes() / 60.0;
 
-        // Calcular costo real total
-        double costoRealTotal = ruta.getTramos().stream()
-                .mapToDouble(t -> t.getCostoReal() != null ? t.getCostoReal() : 0.0)
-                .sum();
-
         solicitud.setEstado(EstadoSolicitud.COMPLETADA);
         solicitud.setFechaFinalizacion(fin);
         solicitud.setTiempoReal(String.format("%.2f", horasReales));
-        solicitud.setCostoFinal(costoRealTotal);
 
         solicitudRepository.save(solicitud);
-        log.info("✅ Solicitud ID: {} COMPLETADA. Tiempo real: {} horas, Costo final: ${}",
-                solicitud.getId(), String.format("%.2f", horasReales), costoRealTotal);
+        log.info("✅ Solicitud ID: {} COMPLETADA. Tiempo real: {} horas, costo final pendiente de liquidación",
+                solicitud.getId(), String.format("%.2f", horasReales));
     }
 
     /**
@@ -341,13 +279,6 @@ public class RegistroTramoService {
     private RegistroTramoResponseDTO construirRespuesta(Tramo tramo, EstadoTramo estadoAnterior,
                                                         String mensaje, boolean tramoCompletado) {
         Ruta ruta = tramo.getRuta();
-        List<Tramo> todosLosTramos = ruta.getTramos();
-
-        long tramosCompletados = todosLosTramos.stream()
-                .filter(t -> t.getEstado() == EstadoTramo.COMPLETADO)
-                .count();
-
-        boolean todosCompletados = tramosCompletados == todosLosTramos.size();
 
         String duracionLegible = "";
         if (tramo.getFechaHoraInicio() != null && tramo.getFechaHoraFin() != null) {
@@ -369,10 +300,11 @@ public class RegistroTramoService {
                 .mensaje(mensaje)
                 .tramoCompletado(tramoCompletado)
                 .rutaId(ruta.getId())
-                .tramosCompletados((int) tramosCompletados)
-                .totalTramos(todosLosTramos.size())
-                .todosLosTramosCompletados(todosCompletados)
+                .tramosCompletados(ruta.getTramosCompletados())
+                .totalTramos(ruta.getCantidadTramos())
+                .todosLosTramosCompletados(ruta.todosLosTramosCompletados())
                 .costoReal(tramo.getCostoReal())
+                .estadoLiquidacion(tramo.getEstadoLiquidacion())
                 .build();
     }
 
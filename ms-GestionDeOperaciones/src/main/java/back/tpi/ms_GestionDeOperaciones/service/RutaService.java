@@ -95,6 +95,7 @@ public class RutaService {
 
         // 8. Guardar la ruta (cascade guardará los tramos)
         Ruta rutaGuardada = rutaRepository.save(ruta);
+        rutaGuardada.inicializarProgreso();
 
         log.info("Ruta asignada exitosamente con ID: {}, {} tramos, {} depósitos",
                 rutaGuardada.getId(),
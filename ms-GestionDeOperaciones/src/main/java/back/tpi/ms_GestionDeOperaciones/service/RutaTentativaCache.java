@@ -0,0 +1,112 @@
+package back.tpi.ms_GestionDeOperaciones.service;
+
+import back.tpi.ms_GestionDeOperaciones.dto.RutaTentativaDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Guarda las rutas tentativas generadas en una consulta bajo un id de conjunto de opciones,
+ * para que la confirmación use exactamente las opciones que vio el usuario sin regenerarlas.
+ * Es LRU, acotada a {@code rutas-tentativas.cache.max-entries} y cada conjunto vence a los
+ * {@code rutas-tentativas.cache.ttl}.
+ */
+@Component
+@Slf4j
+public class RutaTentativaCache {
+
+    private final int maxEntradas;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<String, ConjuntoOpciones> conjuntos;
+    // Último conjunto generado por solicitud (para confirmaciones sin opcionesId)
+    private final Map<Long, String> ultimoPorSolicitud = new HashMap<>();
+
+    public RutaTentativaCache(@Value("${rutas-tentativas.cache.max-entries:1000}") int maxEntradas,
+                              @Value("${rutas-tentativas.cache.ttl:PT30M}") Duration ttl) {
+        this.maxEntradas = maxEntradas;
+        this.ttlNanos = ttl.toNanos();
+        this.conjuntos = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ConjuntoOpciones> eldest) {
+                if (size() > RutaTentativaCache.this.maxEntradas) {
+                    ultimoPorSolicitud.remove(eldest.getValue().solicitudId(), eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Guarda las opciones generadas para la solicitud y devuelve el id del conjunto
+     */
+    public String guardar(Long solicitudId, List<RutaTentativaDTO> opciones) {
+        String opcionesId = UUID.randomUUID().toString();
+        ConjuntoOpciones conjunto = new ConjuntoOpciones(solicitudId, List.copyOf(opciones),
+                System.nanoTime() + ttlNanos);
+
+        synchronized (conjuntos) {
+            conjuntos.put(opcionesId, conjunto);
+            ultimoPorSolicitud.put(solicitudId, opcionesId);
+        }
+        return opcionesId;
+    }
+
+    /**
+     * Obtiene un conjunto vigente por su id, validando que pertenezca a la solicitud
+     */
+    public Optional<List<RutaTentativaDTO>> obtener(String opcionesId, Long solicitudId) {
+        synchronized (conjuntos) {
+            ConjuntoOpciones conjunto = conjuntos.get(opcionesId);
+            if (conjunto == null) {
+                return Optional.empty();
+            }
+            if (conjunto.venceEn() - System.nanoTime() <= 0) {
+                quitar(opcionesId, conjunto);
+                return Optional.empty();
+            }
+            if (!conjunto.solicitudId().equals(solicitudId)) {
+                log.warn("El conjunto de opciones {} no pertenece a la solicitud {}", opcionesId, solicitudId);
+                return Optional.empty();
+            }
+            return Optional.of(conjunto.opciones());
+        }
+    }
+
+    /**
+     * Obtiene el último conjunto vigente generado para la solicitud
+     */
+    public Optional<List<RutaTentativaDTO>> obtenerUltimo(Long solicitudId) {
+        synchronized (conjuntos) {
+            String opcionesId = ultimoPorSolicitud.get(solicitudId);
+            return opcionesId != null ? obtener(opcionesId, solicitudId) : Optional.empty();
+        }
+    }
+
+    /**
+     * Descarta todos los conjuntos de la solicitud (por ejemplo, una vez confirmada la ruta)
+     */
+    public void invalidar(Long solicitudId) {
+        synchronized (conjuntos) {
+            conjuntos.values().removeIf(c -> c.solicitudId().equals(solicitudId));
+            ultimoPorSolicitud.remove(solicitudId);
+        }
+    }
+
+    private void quitar(String opcionesId, ConjuntoOpciones conjunto) {
+        conjuntos.remove(opcionesId);
+        ultimoPorSolicitud.remove(conjunto.solicitudId(), opcionesId);
+    }
+
+    private record ConjuntoOpciones(Long solicitudId, List<RutaTentativaDTO> opciones, long venceEn) {
+    }
+}
@@ -10,12 +10,21 @@ import back.tpi.ms_GestionDeOperaciones.repository.RutaRepository;
 import back.tpi.ms_GestionDeOperaciones.repository.SolicitudTrasladoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +38,15 @@ public class RutaTentativaService {
     private final TarifaClient tarifaClient;
     private final DepositoClient depositoClient;
     private final RutaMapper rutaMapper;
+    private final ExecutorService rutasExecutor;
+    private final RutaTentativaCache rutaTentativaCache;
+    private final CalculadoraCostoTarifa calculadoraCostoTarifa;
+
+    @Value("${rutas-tentativas.paralelo.enabled:true}")
+    private boolean ejecucionParalela;
+
+    @Value("${rutas-tentativas.timeout:PT20S}")
+    private Duration timeoutRutas;
 
     /**
      * Genera rutas tentativas dinámicamente con diferentes estrategias
@@ -43,48 +61,67 @@ public class RutaTentativaService {
         }
 
         List<RutaTentativaDTO> rutasTentativas = new ArrayList<>();
+        Instant limite = Instant.now().plus(timeoutRutas);
 
-        // OPCIÓN 1: Ruta Directa (sin depósitos intermedios)
-        RutaTentativaDTO rutaDirecta = generarRutaDirecta(solicitud);
-        rutasTentativas.add(rutaDirecta);
+        // Depósitos cercanos y tarifa son independientes: se piden a la vez, UNA SOLA VEZ cada uno
+        CompletableFuture<List<DepositoDTO>> consultaDepositos = ejecutar(() -> obtenerDepositosCercanosOptimizado(solicitud));
+        CompletableFuture<TarifaDTO> consultaTarifa = ejecutar(() -> tarifaClient.getTarifa(solicitud.getTarifaId()));
 
-        // OPCIÓN 2 y 3: Rutas con depósitos (si hay disponibles)
+        List<DepositoDTO> depositos = List.of();
         try {
-            // Obtener depósitos cercanos UNA SOLA VEZ
-            List<DepositoDTO> depositosDisponibles = obtenerDepositosCercanosOptimizado(solicitud);
+            depositos = esperar(consultaDepositos, limite);
+        } catch (RuntimeException e) {
+            log.error("❌ Error al obtener depósitos: {}", e.getMessage());
+            // Continuar solo con ruta directa
+        }
 
-            if (!depositosDisponibles.isEmpty()) {
-                log.info("✅ Encontrados {} depósitos disponibles", depositosDisponibles.size());
+        // Los costos de los tramos se calculan localmente con la tarifa
+        TarifaDTO tarifa = esperar(consultaTarifa, limite);
+        if (tarifa == null) {
+            throw new RuntimeException("Tarifa no encontrada con ID: " + solicitud.getTarifaId());
+        }
 
-                // Ruta con 1 depósito
-                RutaTentativaDTO rutaCon1Deposito = generarRutaConDepositos(
-                        solicitud, depositosDisponibles, 1);
-                if (rutaCon1Deposito != null) {
-                    rutasTentativas.add(rutaCon1Deposito);
-                }
+        // Todas las distancias (origen, depósitos, destino) en UNA sola llamada a OSRM
+        List<DepositoDTO> puntosIntermedios = depositos;
+        MatrizDistanciaResponse matriz = esperar(
+                ejecutar(() -> calcularMatrizDistancias(solicitud, puntosIntermedios)), limite);
 
-                // Ruta con 2 depósitos (solo si hay al menos 2)
-                if (depositosDisponibles.size() >= 2) {
-                    RutaTentativaDTO rutaCon2Depositos = generarRutaConDepositos(
-                            solicitud, depositosDisponibles, 2);
-                    if (rutaCon2Depositos != null) {
-                        rutasTentativas.add(rutaCon2Depositos);
+        // Con la matriz, las opciones se arman localmente
+        int cantidadDepositos = depositos.size();
+
+        // OPCIÓN 1: Ruta Directa (sin depósitos intermedios)
+        rutasTentativas.add(generarRutaDirecta(solicitud, tarifa, matriz, cantidadDepositos));
+
+        // OPCIÓN 2 y 3: Rutas con depósitos (si hay disponibles)
+        if (!depositos.isEmpty()) {
+            log.info("✅ Encontrados {} depósitos disponibles", cantidadDepositos);
+
+            // Ruta con 1 depósito y, solo si hay al menos 2, con 2 depósitos
+            for (int numeroDepositos = 1; numeroDepositos <= Math.min(2, cantidadDepositos); numeroDepositos++) {
+                try {
+                    RutaTentativaDTO ruta = generarRutaConDepositos(solicitud, tarifa, depositos, numeroDepositos, matriz);
+                    if (ruta != null) {
+                        rutasTentativas.add(ruta);
                     }
+                } catch (RuntimeException e) {
+                    log.error("❌ Error al generar ruta con depósitos: {}", e.getMessage());
+                    // Continuar con las opciones restantes
                 }
-            } else {
-                log.warn("⚠️ No hay depósitos disponibles para rutas alternativas");
             }
-        } catch (Exception e) {
-            log.error("❌ Error al obtener depósitos: {}", e.getMessage());
-            // Continuar solo con ruta directa
+        } else {
+            log.warn("⚠️ No hay depósitos disponibles para rutas alternativas");
         }
 
+        // Guardar las opciones para confirmarlas sin regenerarlas
+        String opcionesId = rutaTentativaCache.guardar(solicitudId, rutasTentativas);
+
         // Numerar las opciones
         for (int i = 0; i < rutasTentativas.size(); i++) {
             rutasTentativas.get(i).setNumeroOpcion(i + 1);
+            rutasTentativas.get(i).setOpcionesId(opcionesId);
         }
 
-        log.info("✅ Generadas {} rutas tentativas", rutasTentativas.size());
+        log.info("✅ Generadas {} rutas tentativas (opciones {})", rutasTentativas.size(), opcionesId);
         return rutasTentativas;
     }
 
@@ -93,13 +130,13 @@ public class RutaTentativaService {
      * Calcula distancias UNA SOLA VEZ usando Haversine (más rápido que OSRM)
      */
     private List<DepositoDTO> obtenerDepositosCercanosOptimizado(SolicitudTraslado solicitud) {
-        // Obtener todos los depósitos
+        // Obtener depósitos dentro del corredor origen-destino (ordenados por desvío)
         List<DepositoDTO> todosLosDepositos = depositoClient.obtenerDepositosEnRuta(
                 solicitud.getCoordOrigenLat(),
                 solicitud.getCoordOrigenLng(),
                 solicitud.getCoordDestinoLat(),
                 solicitud.getCoordDestinoLng(),
-                10 // Pedir más para tener opciones
+                20 // Pedir más: los muy cercanos al origen/destino se descartan abajo
         );
 
         if (todosLosDepositos.isEmpty()) {
@@ -171,19 +208,31 @@ public class RutaTentativaService {
         return depositosConDistancias;
     }
 
+    /**
+     * Calcula la matriz de distancias entre origen, depósitos y destino con una única llamada /table.
+     * Índices: 0 = origen, 1..n = depósitos (en el orden de la lista), n + 1 = destino
+     */
+    private MatrizDistanciaResponse calcularMatrizDistancias(SolicitudTraslado solicitud,
+                                                             List<DepositoDTO> depositos) {
+        List<double[]> puntos = new ArrayList<>();
+        puntos.add(new double[]{solicitud.getCoordOrigenLat(), solicitud.getCoordOrigenLng()});
+        depositos.forEach(d -> puntos.add(new double[]{d.getLatitud(), d.getLongitud()}));
+        puntos.add(new double[]{solicitud.getCoordDestinoLat(), solicitud.getCoordDestinoLng()});
+
+        return osrmClient.calcularMatriz(puntos);
+    }
+
     /**
      * Genera ruta directa sin depósitos
      */
-    private RutaTentativaDTO generarRutaDirecta(SolicitudTraslado solicitud) {
+    private RutaTentativaDTO generarRutaDirecta(SolicitudTraslado solicitud,
+                                                TarifaDTO tarifa,
+                                                MatrizDistanciaResponse matriz,
+                                                int cantidadDepositos) {
         List<TramoTentativoDTO> tramos = new ArrayList<>();
 
-        // Calcular distancia y tiempo origen -> destino con OSRM (1 llamada)
-        DistanciaResponse resp = osrmClient.calcularDistancia(
-                solicitud.getCoordOrigenLat(),
-                solicitud.getCoordOrigenLng(),
-                solicitud.getCoordDestinoLat(),
-                solicitud.getCoordDestinoLng()
-        );
+        // Distancia y tiempo origen -> destino desde la matriz
+        DistanciaResponse resp = matriz.getDistancia(0, cantidadDepositos + 1);
 
         double distancia = resp.getDistanciaKm();
         double tiempoHoras = resp.getTiempoHoras();
@@ -205,10 +254,7 @@ public class RutaTentativaService {
         tramos.add(tramo);
 
         // Calcular costo total
-        double costoEstimado = tarifaClient.calcularCostoEstimado(
-                solicitud.getTarifaId(),
-                distancia
-        );
+        double costoEstimado = calculadoraCostoTarifa.calcularCostoEstimado(tarifa, distancia);
 
         // Asignar costo al tramo
         tramo.setCostoEstimado(costoEstimado);
@@ -239,8 +285,10 @@ public class RutaTentativaService {
      */
     private RutaTentativaDTO generarRutaConDepositos(
             SolicitudTraslado solicitud,
+            TarifaDTO tarifa,
             List<DepositoDTO> depositosDisponibles,
-            int numeroDepositos) {
+            int numeroDepositos,
+            MatrizDistanciaResponse matriz) {
 
         if (depositosDisponibles.size() < numeroDepositos) {
             log.warn("No hay suficientes depósitos para generar ruta con {} depósitos", numeroDepositos);
@@ -252,6 +300,9 @@ public class RutaTentativaService {
                 .limit(numeroDepositos)
                 .collect(Collectors.toList());
 
+        // Índices en la matriz: 0 = origen, 1..n = depósitos, n + 1 = destino
+        int indiceDestino = depositosDisponibles.size() + 1;
+
         depositosSeleccionados.sort(Comparator.comparing(DepositoDTO::getDistanciaDesdeOrigen));
 
         log.info("🗺️ Orden de depósitos seleccionados (por distancia al origen): {}",
@@ -262,14 +313,10 @@ public class RutaTentativaService {
         double tiempoTotal = 0;
         double costoTotal = 0;
 
-        // Primer tramo: Origen -> Primer Depósito (usar OSRM para ruta real)
+        // Primer tramo: Origen -> Primer Depósito (ruta real de la matriz OSRM)
         DepositoDTO primerDeposito = depositosSeleccionados.get(0);
-        DistanciaResponse dist1 = osrmClient.calcularDistancia(
-                solicitud.getCoordOrigenLat(),
-                solicitud.getCoordOrigenLng(),
-                primerDeposito.getLatitud(),
-                primerDeposito.getLongitud()
-        );
+        DistanciaResponse dist1 = matriz.getDistancia(
+                0, indiceDeposito(depositosDisponibles, primerDeposito));
 
         TramoTentativoDTO tramo1 = crearTramoTransporte(
                 solicitud.getDireccionOrigen(),
@@ -281,16 +328,11 @@ public class RutaTentativaService {
                 dist1
         );
 
-        double costoTramo1 = tarifaClient.calcularCostoEstimado(
-                solicitud.getTarifaId(),
-                dist1.getDistanciaKm()
-        );
-        tramo1.setCostoEstimado(costoTramo1);
+        costoTotal += calcularCostoTramo(tramo1, tarifa);
         tramos.add(tramo1);
 
         distanciaTotal += dist1.getDistanciaKm();
         tiempoTotal += dist1.getTiempoHoras();
-        costoTotal += costoTramo1;
 
         // Tramos entre depósitos
         for (int i = 0; i < depositosSeleccionados.size(); i++) {
@@ -306,12 +348,9 @@ public class RutaTentativaService {
             if (i < depositosSeleccionados.size() - 1) {
                 // Depósito actual -> Siguiente depósito
                 DepositoDTO siguienteDeposito = depositosSeleccionados.get(i + 1);
-                DistanciaResponse dist = osrmClient.calcularDistancia(
-                        depositoActual.getLatitud(),
-                        depositoActual.getLongitud(),
-                        siguienteDeposito.getLatitud(),
-                        siguienteDeposito.getLongitud()
-                );
+                DistanciaResponse dist = matriz.getDistancia(
+                        indiceDeposito(depositosDisponibles, depositoActual),
+                        indiceDeposito(depositosDisponibles, siguienteDeposito));
 
                 TramoTentativoDTO tramoTransporte = crearTramoTransporte(
                         depositoActual.getDireccion(),
@@ -323,24 +362,15 @@ public class RutaTentativaService {
                         dist
                 );
 
-                double costoTramo = tarifaClient.calcularCostoEstimado(
-                        solicitud.getTarifaId(),
-                        dist.getDistanciaKm()
-                );
-                tramoTransporte.setCostoEstimado(costoTramo);
+                costoTotal += calcularCostoTramo(tramoTransporte, tarifa);
                 tramos.add(tramoTransporte);
 
                 distanciaTotal += dist.getDistanciaKm();
                 tiempoTotal += dist.getTiempoHoras();
-                costoTotal += costoTramo;
             } else {
                 // Último depósito -> Destino final
-                DistanciaResponse distFinal = osrmClient.calcularDistancia(
-                        depositoActual.getLatitud(),
-                        depositoActual.getLongitud(),
-                        solicitud.getCoordDestinoLat(),
-                        solicitud.getCoordDestinoLng()
-                );
+                DistanciaResponse distFinal = matriz.getDistancia(
+                        indiceDeposito(depositosDisponibles, depositoActual), indiceDestino);
 
                 TramoTentativoDTO tramoFinal = crearTramoTransporte(
                         depositoActual.getDireccion(),
@@ -352,16 +382,11 @@ public class RutaTentativaService {
                         distFinal
                 );
 
-                double costoTramoFinal = tarifaClient.calcularCostoEstimado(
-                        solicitud.getTarifaId(),
-                        distFinal.getDistanciaKm()
-                );
-                tramoFinal.setCostoEstimado(costoTramoFinal);
+                costoTotal += calcularCostoTramo(tramoFinal, tarifa);
                 tramos.add(tramoFinal);
 
                 distanciaTotal += distFinal.getDistanciaKm();
                 tiempoTotal += distFinal.getTiempoHoras();
-                costoTotal += costoTramoFinal;
             }
         }
 
@@ -386,12 +411,15 @@ public class RutaTentativaService {
     }
 
     /**
-     * Confirma y persiste la ruta tentativa seleccionada
+     * Confirma y persiste la ruta tentativa seleccionada.
+     * Usa las opciones guardadas en la consulta (opcionesId o, si no se envía, la última consulta
+     * vigente de la solicitud), sin volver a llamar a OSRM ni a ms-GestionDeInfraestructura.
+     * Si no hay opciones vigentes se rechaza: hay que consultar las rutas tentativas de nuevo.
      */
     @Transactional
-    public RutaDTO confirmarRutaTentativa(Long solicitudId, int numeroOpcion) {
-        // 1. Regenerar las rutas tentativas
-        List<RutaTentativaDTO> rutasTentativas = consultarRutasTentativas(solicitudId);
+    public RutaDTO confirmarRutaTentativa(Long solicitudId, String opcionesId, int numeroOpcion) {
+        // 1. Recuperar las rutas tentativas consultadas
+        List<RutaTentativaDTO> rutasTentativas = obtenerOpcionesConsultadas(solicitudId, opcionesId);
 
         // 2. Validar que existe la opción seleccionada
         if (numeroOpcion < 1 || numeroOpcion > rutasTentativas.size()) {
@@ -446,8 +474,12 @@ public class RutaTentativaService {
 
         // 9. Guardar
         Ruta rutaGuardada = rutaRepository.save(ruta);
+        rutaGuardada.inicializarProgreso();
         solicitudRepository.save(solicitud);
 
+        // 10. Las opciones consultadas ya no se pueden volver a confirmar
+        rutaTentativaCache.invalidar(solicitudId);
+
         log.info("✅ Ruta confirmada y asignada a solicitud ID: {}", solicitudId);
 
         return rutaMapper.toDTO(rutaGuardada);
@@ -455,6 +487,70 @@ public class RutaTentativaService {
 
     // ========== MÉTODOS AUXILIARES ==========
 
+    /**
+     * Opciones guardadas por la consulta. Nunca las regenera: confirmar solo busca y persiste
+     */
+    private List<RutaTentativaDTO> obtenerOpcionesConsultadas(Long solicitudId, String opcionesId) {
+        if (opcionesId != null) {
+            return rutaTentativaCache.obtener(opcionesId, solicitudId)
+                    .orElseThrow(() -> new RuntimeException(
+                            "Las opciones de ruta " + opcionesId + " no existen o expiraron. Consulte nuevamente las rutas tentativas"));
+        }
+
+        return rutaTentativaCache.obtenerUltimo(solicitudId)
+                .orElseThrow(() -> new RuntimeException(
+                        "Las opciones de ruta de la solicitud " + solicitudId + " no existen o expiraron. Consulte nuevamente las rutas tentativas"));
+    }
+
+    /**
+     * Calcula localmente el costo de un tramo de transporte, lo asigna al tramo y lo devuelve
+     */
+    private double calcularCostoTramo(TramoTentativoDTO tramo, TarifaDTO tarifa) {
+        double costoTramo = calculadoraCostoTarifa.calcularCostoEstimado(tarifa, tramo.getDistancia());
+        tramo.setCostoEstimado(costoTramo);
+        return costoTramo;
+    }
+
+    /**
+     * Ejecuta la llamada remota en el executor de rutas (hilos virtuales) o en el hilo actual
+     * si la ejecución paralela está deshabilitada (en ese caso el límite de tiempo no la corta)
+     */
+    private <T> CompletableFuture<T> ejecutar(Supplier<T> tarea) {
+        if (!ejecucionParalela) {
+            try {
+                return CompletableFuture.completedFuture(tarea.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(tarea, rutasExecutor);
+    }
+
+    /**
+     * Espera el resultado de una llamada remota sin superar el límite de tiempo de toda la consulta
+     */
+    private <T> T esperar(CompletableFuture<T> tarea, Instant limite) {
+        long restanteMs = Math.max(Duration.between(Instant.now(), limite).toMillis(), 0);
+        try {
+            return tarea.get(restanteMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            tarea.cancel(true);
+            throw new RuntimeException("Tiempo agotado al generar las rutas tentativas");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Generación de rutas tentativas interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private int indiceDeposito(List<DepositoDTO> depositosDisponibles, DepositoDTO deposito) {
+        return depositosDisponibles.indexOf(deposito) + 1;
+    }
+
     private TramoTentativoDTO crearTramoTransporte(String origen, String destino,
                                                    Double latOrigen, Double lngOrigen,
                                                    Double latDestino, Double lngDestino,
@@ -6,19 +6,29 @@ import back.tpi.ms_GestionDeOperaciones.domain.*;
 import back.tpi.ms_GestionDeOperaciones.dto.*;
 import back.tpi.ms_GestionDeOperaciones.mapper.SolicitudTrasladoMapper;
 import back.tpi.ms_GestionDeOperaciones.repository.SolicitudTrasladoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +41,13 @@ public class SolicitudTrasladoService {
     private final TarifaClient tarifaClient;
     private final OsrmClient osrmClient;
     private final SolicitudTrasladoMapper solicitudTrasladoMapper;
+    private final CalculadoraCostoTarifa calculadoraCostoTarifa;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    private static final int TAMANIO_MAXIMO_PAGINA = 200;
+    // Filas que se mapean y escriben juntas al exportar (una consulta de tarifas y de tramos por bloque)
+    private static final int TAMANIO_BLOQUE_EXPORTACION = 100;
 
 
     // REQUERIMIENTO 1
@@ -73,7 +90,8 @@ public class SolicitudTrasladoService {
 
 
         // El costo puede depender de distancia, peso y volumen
-        Double costoEstimado = tarifaClient.calcularCostoEstimado(tarifaCreada.getTarifaId(), distancia);
+        // (calculado localmente con la tarifa recién creada, sin otra llamada al servicio de tarifas)
+        Double costoEstimado = calculadoraCostoTarifa.calcularCostoEstimado(tarifaCreada, distancia);
 
         // c) CREAR SOLICITUD DE TRASLADO CON ESTADO PENDIENTE
         SolicitudTraslado solicitud = SolicitudTraslado.builder()
@@ -305,12 +323,108 @@ public class SolicitudTrasladoService {
 
     @Transactional(readOnly = true)
     public List<SolicitudTrasladoDTO> obtenerTodas() {
-        return repository.findAll()
-                .stream()
-                .map(solicitudTrasladoMapper::toDTO) // usa tu mapper
-                .collect(Collectors.toList());
+        // Las tarifas de todas las solicitudes se obtienen juntas, no una por fila
+        return solicitudTrasladoMapper.toDTOs(repository.findAll());
+    }
+
+
+    /**
+     * Página de solicitudes de la más reciente a la más antigua, paginada por cursor (keyset
+     * sobre fechaSolicitud e id): cada página es una consulta por índice, sin OFFSET ni COUNT,
+     * así que su costo no depende de la cantidad de solicitudes históricas
+     */
+    @Transactional(readOnly = true)
+    public PaginaSolicitudesDTO obtenerPagina(FiltrosContenedorDTO filtros, String cursor, int tamanio) {
+        int tamanoPagina = Math.max(1, Math.min(tamanio, TAMANIO_MAXIMO_PAGINA));
+        CursorSolicitud desde = decodificarCursor(cursor);
+
+        // Se pide una fila de más para saber si hay otra página
+        List<SolicitudTraslado> solicitudes = new ArrayList<>(repository.buscarPagina(
+                filtros.getEstado(), filtros.getClienteId(),
+                filtros.getFechaSolicitudDesde(), filtros.getFechaSolicitudHasta(),
+                desde != null ? desde.fechaSolicitud() : null,
+                desde != null ? desde.id() : null,
+                Limit.of(tamanoPagina + 1)));
+
+        boolean hayMas = solicitudes.size() > tamanoPagina;
+        if (hayMas) {
+            solicitudes = solicitudes.subList(0, tamanoPagina);
+        }
+
+        return PaginaSolicitudesDTO.builder()
+                .solicitudes(solicitudTrasladoMapper.toDTOs(solicitudes))
+                .tamanoPagina(tamanoPagina)
+                .hayMas(hayMas)
+                .siguienteCursor(hayMas ? codificarCursor(solicitudes.get(solicitudes.size() - 1)) : null)
+                .build();
     }
 
+    /**
+     * Escribe todas las solicitudes que cumplen los filtros como NDJSON (un JSON por línea).
+     * Las filas se leen con un cursor de base de datos y se procesan por bloques, liberando
+     * el contexto de persistencia después de cada uno: la memoria usada no depende del tamaño de la tabla
+     */
+    @Transactional(readOnly = true)
+    public long exportarSolicitudes(FiltrosContenedorDTO filtros, OutputStream salida) throws IOException {
+        long total = 0;
+        List<SolicitudTraslado> bloque = new ArrayList<>(TAMANIO_BLOQUE_EXPORTACION);
+
+        try (Stream<SolicitudTraslado> solicitudes = repository.streamListado(
+                filtros.getEstado(), filtros.getClienteId(),
+                filtros.getFechaSolicitudDesde(), filtros.getFechaSolicitudHasta(),
+                null, null)) {
+
+            Iterator<SolicitudTraslado> iterador = solicitudes.iterator();
+            while (iterador.hasNext()) {
+                bloque.add(iterador.next());
+                // Se escribe antes de avanzar el cursor, para no desasociar la fila siguiente
+                if (bloque.size() == TAMANIO_BLOQUE_EXPORTACION) {
+                    total += escribirBloque(bloque, salida);
+                }
+            }
+            total += escribirBloque(bloque, salida);
+        }
+
+        log.info("📤 Exportadas {} solicitudes de traslado", total);
+        return total;
+    }
+
+    private int escribirBloque(List<SolicitudTraslado> bloque, OutputStream salida) throws IOException {
+        if (bloque.isEmpty()) {
+            return 0;
+        }
+
+        for (SolicitudTrasladoDTO dto : solicitudTrasladoMapper.toDTOs(bloque)) {
+            salida.write(objectMapper.writeValueAsBytes(dto));
+            salida.write('\n');
+        }
+        salida.flush();
+
+        int escritas = bloque.size();
+        bloque.clear();
+        entityManager.clear();
+        return escritas;
+    }
+
+    private String codificarCursor(SolicitudTraslado ultima) {
+        String valor = ultima.getFechaSolicitud() + "|" + ultima.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private CursorSolicitud decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new CursorSolicitud(LocalDateTime.parse(partes[0]), Long.valueOf(partes[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new RuntimeException("Cursor de paginación inválido: " + cursor);
+        }
+    }
+
+    private record CursorSolicitud(LocalDateTime fechaSolicitud, Long id) {
+    }
 
     @Transactional(readOnly = true)
     public SolicitudTrasladoDTO obtenerPorId(Long id) {
@@ -0,0 +1,397 @@
+package back.tpi.ms_GestionDeOperaciones.service;
+
+import back.tpi.ms_GestionDeOperaciones.domain.EstadoTramo;
+import back.tpi.ms_GestionDeOperaciones.domain.PosicionCamion;
+import back.tpi.ms_GestionDeOperaciones.domain.Tramo;
+import back.tpi.ms_GestionDeOperaciones.dto.PosicionCamionDTO;
+import back.tpi.ms_GestionDeOperaciones.repository.PosicionCamionRepository;
+import back.tpi.ms_GestionDeOperaciones.repository.TramoRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingesta de posiciones GPS de los camiones.
+ * Las posiciones recibidas se encolan en memoria (hasta {@code telemetria.buffer.capacidad})
+ * y un único hilo las vuelca cada {@code telemetria.volcado.intervalo} en lotes de
+ * {@code telemetria.volcado.tamanio-lote} a la tabla de solo inserción posicion_camion.
+ * Al volcar, cada posición se asocia al tramo EN_CURSO del camión y se acumula la distancia
+ * recorrida del tramo, que queda guardada en la propia posición.
+ * Un lote que no se puede guardar se reintenta en los volcados siguientes y, tras
+ * {@code telemetria.volcado.reintentos} intentos, se guarda posición por posición.
+ */
+@Service
+@Slf4j
+public class TelemetriaService {
+
+    private static final double RADIO_TIERRA_KM = 6371.0;
+    private static final int LONGITUD_MAXIMA_PATENTE = 20;
+
+    private final PosicionCamionRepository posicionRepository;
+    private final TramoRepository tramoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int tamanioLote;
+    private final int reintentos;
+    private final long revalidarNanos;
+    private final double velocidadMaximaKmh;
+
+    private final BlockingQueue<PosicionCamionDTO> buffer;
+    private final ScheduledExecutorService volcador;
+
+    // Solo lo modifica el hilo volcador; los demás hilos únicamente quitan entradas
+    private final Map<String, Seguimiento> seguimientos = new ConcurrentHashMap<>();
+    // Momento (System.nanoTime) en que se olvidó cada camión por última vez
+    private final Map<String, Long> olvidos = new ConcurrentHashMap<>();
+
+    // Lote que no se pudo guardar (solo lo usa el hilo volcador)
+    private List<PosicionCamionDTO> pendiente = new ArrayList<>();
+    private int intentosPendiente;
+
+    private final AtomicLong recibidas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong escritas = new AtomicLong();
+
+    public TelemetriaService(PosicionCamionRepository posicionRepository,
+                             TramoRepository tramoRepository,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${telemetria.buffer.capacidad:100000}") int capacidad,
+                             @Value("${telemetria.volcado.tamanio-lote:500}") int tamanioLote,
+                             @Value("${telemetria.volcado.reintentos:3}") int reintentos,
+                             @Value("${telemetria.volcado.intervalo:PT1S}") Duration intervalo,
+                             @Value("${telemetria.seguimiento.revalidar-despues:PT1M}") Duration revalidarDespues,
+                             @Value("${telemetria.velocidad-maxima-kmh:150}") double velocidadMaximaKmh,
+                             MeterRegistry meterRegistry) {
+        this.posicionRepository = posicionRepository;
+        this.tramoRepository = tramoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanioLote = tamanioLote;
+        this.reintentos = reintentos;
+        this.revalidarNanos = revalidarDespues.toNanos();
+        this.velocidadMaximaKmh = velocidadMaximaKmh;
+        this.buffer = new ArrayBlockingQueue<>(capacidad);
+
+        this.volcador = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("telemetria-volcado").daemon().factory());
+        this.volcador.scheduleWithFixedDelay(this::volcarSeguro,
+                intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+
+        FunctionCounter.builder("telemetria.posiciones.recibidas", recibidas, AtomicLong::get)
+                .description("Posiciones aceptadas en el buffer")
+                .register(meterRegistry);
+        FunctionCounter.builder("telemetria.posiciones.descartadas", descartadas, AtomicLong::get)
+                .description("Posiciones rechazadas por inválidas, buffer lleno o error al escribir")
+                .register(meterRegistry);
+        FunctionCounter.builder("telemetria.posiciones.escritas", escritas, AtomicLong::get)
+                .description("Posiciones guardadas en la base")
+                .register(meterRegistry);
+        Gauge.builder("telemetria.buffer.size", buffer, BlockingQueue::size)
+                .description("Posiciones esperando ser guardadas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encola las posiciones válidas.
+     * Si el buffer está lleno, las restantes se rechazan para que el cliente las reenvíe.
+     */
+    public ResultadoRecepcion registrarPosiciones(List<PosicionCamionDTO> posiciones) {
+        int aceptadas = 0;
+        int invalidas = 0;
+        int sinCapacidad = 0;
+        for (PosicionCamionDTO posicion : posiciones) {
+            if (!esValida(posicion)) {
+                invalidas++;
+                continue;
+            }
+            posicion.setPatente(posicion.getPatente().trim().toUpperCase(Locale.ROOT));
+            if (buffer.offer(posicion)) {
+                aceptadas++;
+            } else {
+                sinCapacidad++;
+            }
+        }
+        recibidas.addAndGet(aceptadas);
+        descartadas.addAndGet(invalidas + sinCapacidad);
+        if (sinCapacidad > 0) {
+            log.warn("⚠️ Buffer de telemetría lleno: {} posiciones rechazadas", sinCapacidad);
+        }
+        return new ResultadoRecepcion(aceptadas, invalidas, sinCapacidad);
+    }
+
+    /**
+     * Descarta el tramo asociado al camión para que la próxima posición lo vuelva a buscar
+     * (se llama al iniciar o finalizar un tramo). Si hay una transacción activa se descarta después
+     * del commit: antes, el volcado podría volver a leer el estado anterior del tramo y cachearlo
+     */
+    public void olvidarCamion(String patente) {
+        if (patente == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    olvidar(patente);
+                }
+            });
+        } else {
+            olvidar(patente);
+        }
+    }
+
+    private void olvidar(String patente) {
+        // Las posiciones se guardan con la patente en mayúsculas
+        String clave = patente.trim().toUpperCase(Locale.ROOT);
+        olvidos.put(clave, System.nanoTime());
+        seguimientos.remove(clave);
+    }
+
+    @PreDestroy
+    void detener() {
+        volcador.shutdown();
+        try {
+            volcador.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Lo que quedó en el buffer se guarda antes de cerrar
+        volcarSeguro();
+    }
+
+    private void volcarSeguro() {
+        try {
+            volcar();
+        } catch (Exception e) {
+            log.error("❌ Error al volcar posiciones de telemetría: {}", e.getMessage());
+        }
+    }
+
+    private void volcar() {
+        if (!pendiente.isEmpty() && !reintentarPendiente()) {
+            return;
+        }
+        List<PosicionCamionDTO> lote = new ArrayList<>(tamanioLote);
+        while (buffer.drainTo(lote, tamanioLote) > 0) {
+            lote.sort(Comparator.comparing(PosicionCamionDTO::getFechaHora));
+            try {
+                guardar(lote);
+            } catch (Exception e) {
+                log.warn("⚠️ No se pudo guardar un lote de {} posiciones, se reintentará: {}", lote.size(), e.getMessage());
+                pendiente = lote;
+                intentosPendiente = 1;
+                return;
+            }
+            lote.clear();
+        }
+    }
+
+    /**
+     * Reintenta el lote pendiente. Agotados los reintentos lo guarda posición por posición
+     * y descarta solo las que fallan. Devuelve false si el lote sigue pendiente
+     */
+    private boolean reintentarPendiente() {
+        try {
+            guardar(pendiente);
+        } catch (Exception e) {
+            if (++intentosPendiente < reintentos) {
+                log.warn("⚠️ Reintento {} del lote pendiente de {} posiciones fallido: {}",
+                        intentosPendiente, pendiente.size(), e.getMessage());
+                return false;
+            }
+            for (PosicionCamionDTO posicion : pendiente) {
+                try {
+                    guardar(List.of(posicion));
+                } catch (Exception ex) {
+                    descartadas.incrementAndGet();
+                    log.error("❌ Posición descartada del camión {} ({}): {}",
+                            posicion.getPatente(), posicion.getFechaHora(), ex.getMessage());
+                }
+            }
+        }
+        pendiente = new ArrayList<>();
+        intentosPendiente = 0;
+        return true;
+    }
+
+    /**
+     * Guarda el lote (ordenado por fecha) en una transacción. Los seguimientos avanzan sobre copias
+     * que se publican recién después del commit, así el acumulado en memoria coincide con lo guardado
+     */
+    private void guardar(List<PosicionCamionDTO> lote) {
+        Map<String, Seguimiento> avances = new HashMap<>();
+        List<PosicionCamion> filas = procesar(lote, avances);
+        transactionTemplate.executeWithoutResult(status -> posicionRepository.insertarLote(filas));
+        seguimientos.putAll(avances);
+        escritas.addAndGet(lote.size());
+    }
+
+    /**
+     * Asocia cada posición al tramo en curso de su camión y calcula el recorrido acumulado
+     */
+    private List<PosicionCamion> procesar(List<PosicionCamionDTO> lote, Map<String, Seguimiento> avances) {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        List<PosicionCamion> filas = new ArrayList<>(lote.size());
+        for (PosicionCamionDTO posicion : lote) {
+            Seguimiento seguimiento = avances.computeIfAbsent(posicion.getPatente(),
+                    patente -> new Seguimiento(obtenerSeguimiento(patente)));
+            Double acumulado = seguimiento.tramoId != null ? seguimiento.avanzar(posicion) : null;
+
+            filas.add(PosicionCamion.builder()
+                    .camionPatente(posicion.getPatente())
+                    .tramoId(seguimiento.tramoId)
+                    .fechaHora(posicion.getFechaHora())
+                    .latitud(posicion.getLatitud())
+                    .longitud(posicion.getLongitud())
+                    .distanciaAcumuladaKm(acumulado)
+                    .recibidoEn(ahora)
+                    .build());
+        }
+        return filas;
+    }
+
+    /**
+     * Seguimiento del camión: se revalida contra la base cada {@code revalidarNanos}
+     * (una consulta por camión, no por posición)
+     */
+    private Seguimiento obtenerSeguimiento(String patente) {
+        Seguimiento actual = seguimientos.get(patente);
+        if (actual != null && actual.verificadoEn + revalidarNanos - System.nanoTime() > 0
+                && !olvidadoDesde(patente, actual.verificadoEn)) {
+            return actual;
+        }
+
+        // Si el camión se olvidó mientras se consultaba, la lectura pudo ver el estado anterior al commit
+        long consultadoEn;
+        Long tramoId;
+        do {
+            consultadoEn = System.nanoTime();
+            tramoId = tramoRepository.findFirstByCamionPatenteAndEstado(patente, EstadoTramo.EN_CURSO)
+                    .map(Tramo::getId)
+                    .orElse(null);
+        } while (olvidadoDesde(patente, consultadoEn));
+
+        Seguimiento seguimiento;
+        if (actual != null && tramoId != null && tramoId.equals(actual.tramoId)) {
+            seguimiento = actual;
+        } else {
+            seguimiento = new Seguimiento(tramoId);
+            // Retoma el acumulado si el tramo ya tenía posiciones (por ejemplo, tras un reinicio)
+            if (tramoId != null) {
+                posicionRepository.findFirstByTramoIdOrderByFechaHoraDesc(tramoId)
+                        .ifPresent(seguimiento::retomar);
+            }
+        }
+        // Se toma el inicio de la consulta: un olvido posterior invalida esta entrada aunque llegue antes del put
+        seguimiento.verificadoEn = consultadoEn;
+        seguimientos.put(patente, seguimiento);
+        return seguimiento;
+    }
+
+    private boolean olvidadoDesde(String patente, long instante) {
+        Long olvidadoEn = olvidos.get(patente);
+        return olvidadoEn != null && olvidadoEn - instante >= 0;
+    }
+
+    private boolean esValida(PosicionCamionDTO posicion) {
+        return posicion != null && posicion.getPatente() != null && !posicion.getPatente().isBlank()
+                && posicion.getPatente().trim().length() <= LONGITUD_MAXIMA_PATENTE && posicion.getFechaHora() != null
+                && posicion.getLatitud() != null && Math.abs(posicion.getLatitud()) <= 90
+                && posicion.getLongitud() != null && Math.abs(posicion.getLongitud()) <= 180;
+    }
+
+    /**
+     * Recorrido acumulado del tramo en curso de un camión
+     */
+    private class Seguimiento {
+        final Long tramoId;
+        long verificadoEn;
+        LocalDateTime ultimaFecha;
+        Double ultimaLatitud;
+        Double ultimaLongitud;
+        double distanciaKm;
+
+        Seguimiento(Long tramoId) {
+            this.tramoId = tramoId;
+        }
+
+        Seguimiento(Seguimiento otro) {
+            this.tramoId = otro.tramoId;
+            this.verificadoEn = otro.verificadoEn;
+            this.ultimaFecha = otro.ultimaFecha;
+            this.ultimaLatitud = otro.ultimaLatitud;
+            this.ultimaLongitud = otro.ultimaLongitud;
+            this.distanciaKm = otro.distanciaKm;
+        }
+
+        void retomar(PosicionCamion ultima) {
+            ultimaFecha = ultima.getFechaHora();
+            ultimaLatitud = ultima.getLatitud();
+            ultimaLongitud = ultima.getLongitud();
+            distanciaKm = ultima.getDistanciaAcumuladaKm() != null ? ultima.getDistanciaAcumuladaKm() : 0.0;
+        }
+
+        /**
+         * Suma el tramo desde la última posición. Ignora posiciones atrasadas y saltos
+         * que implicarían superar la velocidad máxima (ruido del GPS)
+         */
+        double avanzar(PosicionCamionDTO posicion) {
+            if (ultimaFecha != null && !posicion.getFechaHora().isAfter(ultimaFecha)) {
+                return distanciaKm;
+            }
+            if (ultimaLatitud != null) {
+                double km = calcularDistanciaHaversine(ultimaLatitud, ultimaLongitud,
+                        posicion.getLatitud(), posicion.getLongitud());
+                double horas = Duration.between(ultimaFecha, posicion.getFechaHora()).toMillis() / 3_600_000.0;
+                if (km / horas > velocidadMaximaKmh) {
+                    return distanciaKm;
+                }
+                distanciaKm += km;
+            }
+            ultimaFecha = posicion.getFechaHora();
+            ultimaLatitud = posicion.getLatitud();
+            ultimaLongitud = posicion.getLongitud();
+            return distanciaKm;
+        }
+    }
+
+    /**
+     * Fórmula de Haversine para calcular distancia en línea recta (km)
+     */
+    private static double calcularDistanciaHaversine(double lat1, double lon1, double lat2, double lon2) {
+        double latDistancia = Math.toRadians(lat2 - lat1);
+        double lonDistancia = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(latDistancia / 2) * Math.sin(latDistancia / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistancia / 2) * Math.sin(lonDistancia / 2);
+
+        return RADIO_TIERRA_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    public record ResultadoRecepcion(int aceptadas, int invalidas, int rechazadasSinCapacidad) {
+    }
+}
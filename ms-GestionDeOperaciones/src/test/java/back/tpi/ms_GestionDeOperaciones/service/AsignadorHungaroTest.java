@@ -0,0 +1,116 @@
+package back.tpi.ms_GestionDeOperaciones.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static back.tpi.ms_GestionDeOperaciones.service.AsignadorHungaro.SIN_ASIGNAR;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsignadorHungaroTest {
+
+    private static final double X = Double.POSITIVE_INFINITY;
+
+    private final AsignadorHungaro asignador = new AsignadorHungaro();
+
+    @Test
+    void eligeLaAsignacionDeMenorCostoTotal() {
+        double[][] costos = {
+                {4, 1, 3},
+                {2, 0, 5},
+                {3, 2, 2}
+        };
+        // 1 + 2 + 2 = 5; dar a la fila 1 su opción más barata (0) obliga a pagar 6 o más
+        assertArrayEquals(new int[]{1, 0, 2}, asignador.resolver(costos));
+    }
+
+    @Test
+    void conMasTramosQueCamionesQuedanFilasSinAsignar() {
+        double[][] costos = {
+                {10, 1},
+                {1, 10},
+                {5, 5}
+        };
+        assertArrayEquals(new int[]{1, 0, SIN_ASIGNAR}, asignador.resolver(costos));
+    }
+
+    @Test
+    void priorizaAsignarMasTramosAntesQueElCosto() {
+        // La fila 1 solo puede ir a la columna 0: la fila 0 debe resignar su opción más barata
+        double[][] costos = {
+                {1, 100},
+                {5, X}
+        };
+        assertArrayEquals(new int[]{1, 0}, asignador.resolver(costos));
+    }
+
+    @Test
+    void losParesImposiblesNuncaSeAsignan() {
+        double[][] costos = {
+                {X, X},
+                {3, 4}
+        };
+        assertArrayEquals(new int[]{SIN_ASIGNAR, 0}, asignador.resolver(costos));
+    }
+
+    @Test
+    void coincideConFuerzaBrutaEnMatricesAleatorias() {
+        Random random = new Random(42);
+        for (int caso = 0; caso < 200; caso++) {
+            int filas = 1 + random.nextInt(5);
+            int columnas = 1 + random.nextInt(5);
+            double[][] costos = new double[filas][columnas];
+            for (int i = 0; i < filas; i++) {
+                for (int j = 0; j < columnas; j++) {
+                    costos[i][j] = random.nextInt(5) == 0 ? X : random.nextInt(100);
+                }
+            }
+
+            int[] asignacion = asignador.resolver(costos);
+            Set<Integer> usadas = new HashSet<>();
+            for (int columna : asignacion) {
+                assertTrue(columna == SIN_ASIGNAR || usadas.add(columna));
+            }
+            assertArrayEquals(mejor(costos, 0, new boolean[columnas]), evaluar(costos, asignacion));
+        }
+    }
+
+    /**
+     * {cantidad asignada, costo total} de la mejor asignación, por fuerza bruta
+     */
+    private double[] mejor(double[][] costos, int fila, boolean[] usadas) {
+        if (fila == costos.length) {
+            return new double[]{0, 0};
+        }
+        double[] mejor = mejor(costos, fila + 1, usadas);
+        for (int j = 0; j < usadas.length; j++) {
+            if (usadas[j] || costos[fila][j] == X) {
+                continue;
+            }
+            usadas[j] = true;
+            double[] resto = mejor(costos, fila + 1, usadas);
+            usadas[j] = false;
+            double[] candidato = {resto[0] + 1, resto[1] + costos[fila][j]};
+            if (candidato[0] > mejor[0] || (candidato[0] == mejor[0] && candidato[1] < mejor[1])) {
+                mejor = candidato;
+            }
+        }
+        return mejor;
+    }
+
+    private double[] evaluar(double[][] costos, int[] asignacion) {
+        double cantidad = 0;
+        double costo = 0;
+        for (int i = 0; i < asignacion.length; i++) {
+            if (asignacion[i] != SIN_ASIGNAR) {
+                assertTrue(costos[i][asignacion[i]] != X);
+                cantidad++;
+                costo += costos[i][asignacion[i]];
+            }
+        }
+        return new double[]{cantidad, costo};
+    }
+}
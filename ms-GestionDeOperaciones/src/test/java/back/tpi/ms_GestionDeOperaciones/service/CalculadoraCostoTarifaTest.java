@@ -0,0 +1,48 @@
+package back.tpi.ms_GestionDeOperaciones.service;
+
+import back.tpi.ms_GestionDeOperaciones.dto.TarifaDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Casos de referencia de la fórmula de costo estimado.
+ * ms-GestionDeInfraestructura y ms-GestionDeOperaciones tienen este mismo test con los mismos casos:
+ * si la fórmula cambia en un servicio, los casos deben actualizarse en ambos.
+ */
+class CalculadoraCostoTarifaTest {
+
+    private final CalculadoraCostoTarifa calculadora = new CalculadoraCostoTarifa();
+
+    @ParameterizedTest(name = "combustible={0}, gestion={1}, distancia={2} km -> {3}")
+    @CsvSource({
+            "980.5,   1500,   100,    50915.0",
+            "1000,    0,      0,      0.0",
+            "1200.75, 2500,   12.345, 9415.98",
+            "850.0,   1800.5, 732.4,  335042.5",
+            "0,       0,      1,      200.0",
+            "1105.3,  950,    0.005,  952.66"
+    })
+    void calcularCostoEstimado(double valorCombustibleLitro, double cargoGestionTrama,
+                               double distanciaKm, double esperado) {
+        assertEquals(esperado,
+                calculadora.calcularCostoEstimado(valorCombustibleLitro, cargoGestionTrama, distanciaKm));
+    }
+
+    @Test
+    void calcularCostoEstimadoConTarifaDTO() {
+        TarifaDTO tarifa = TarifaDTO.builder()
+                .valorCombustibleLitro(980.5)
+                .cargoGestionTrama(1500.0)
+                .build();
+
+        assertEquals(50915.0, calculadora.calcularCostoEstimado(tarifa, 100));
+    }
+
+    @Test
+    void calcularCostoEstimadoConValoresNulosLosTomaComoCero() {
+        assertEquals(200.0, calculadora.calcularCostoEstimado(new TarifaDTO(), 1));
+    }
+}
@@ -1,8 +1,12 @@
 package back.tpi.ms_GestionDeTransporte.controller;
 
+import back.tpi.ms_GestionDeTransporte.dto.CambiosFlotaDTO;
 import back.tpi.ms_GestionDeTransporte.dto.CamionRequestDTO;
 import back.tpi.ms_GestionDeTransporte.dto.CamionResponseDTO;
+import back.tpi.ms_GestionDeTransporte.dto.ReservaCamionRequestDTO;
+import back.tpi.ms_GestionDeTransporte.dto.ReservaCamionResponseDTO;
 import back.tpi.ms_GestionDeTransporte.service.CamionService;
+import back.tpi.ms_GestionDeTransporte.service.ReservaCamionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,11 +16,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Tag(name = "Camiones", description = "Operaciones relacionadas con camiones")
@@ -26,6 +33,7 @@ import java.util.List;
 public class CamionController {
 
     private final CamionService camionService;
+    private final ReservaCamionService reservaCamionService;
 
     // -------------------------------------------------------------------------
     @Operation(
@@ -80,14 +88,48 @@ public class CamionController {
     // -------------------------------------------------------------------------
     @Operation(
             summary = "Obtener camiones disponibles",
-            description = "Devuelve todos los camiones que actualmente están disponibles."
+            description = "Devuelve los camiones disponibles con capacidad para el peso y volumen indicados, " +
+                    "ordenados por mejor ajuste (menor capacidad suficiente primero) y paginados. " +
+                    "Si hay más resultados, el encabezado X-Pagina-Siguiente indica la próxima página."
     )
     @ApiResponse(responseCode = "200", description = "Listado obtenido correctamente")
     @GetMapping("/disponibles")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR','TRANSPORTISTA')")
-    public ResponseEntity<List<CamionResponseDTO>> obtenerCamionesDisponibles() {
-        List<CamionResponseDTO> response = camionService.obtenerCamionesDisponibles();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<List<CamionResponseDTO>> obtenerCamionesDisponibles(
+            @Parameter(description = "Peso mínimo a transportar (kg)", example = "12000")
+            @RequestParam(required = false) Double pesoMinimo,
+            @Parameter(description = "Volumen mínimo a transportar (m³)", example = "30")
+            @RequestParam(required = false) Double volumenMinimo,
+            @Parameter(description = "Número de página, desde 0", example = "0")
+            @RequestParam(defaultValue = "0") int pagina,
+            @Parameter(description = "Cantidad de camiones por página (máximo 200)", example = "20")
+            @RequestParam(defaultValue = "50") int tamanio) {
+
+        Slice<CamionResponseDTO> camiones =
+                camionService.obtenerCamionesDisponibles(pesoMinimo, volumenMinimo, pagina, tamanio);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (camiones.hasNext()) {
+            response.header("X-Pagina-Siguiente", String.valueOf(camiones.getNumber() + 1));
+        }
+        return response.body(camiones.getContent());
+    }
+
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Obtener camiones modificados desde una fecha",
+            description = "Devuelve los camiones cuyos datos o tipo cambiaron después de 'desde' " +
+                    "(los cambios de disponibilidad no cuentan). Permite mantener copias locales de la flota " +
+                    "actualizadas sin volver a descargarla completa."
+    )
+    @ApiResponse(responseCode = "200", description = "Cambios obtenidos correctamente",
+            content = @Content(schema = @Schema(implementation = CambiosFlotaDTO.class)))
+    @GetMapping("/cambios")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','TRANSPORTISTA')")
+    public ResponseEntity<CambiosFlotaDTO> obtenerCambios(
+            @Parameter(description = "Fecha/hora desde la cual buscar cambios (ISO)", example = "2025-02-14T08:30:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde) {
+        return ResponseEntity.ok(camionService.obtenerCambiosDesde(desde));
     }
 
     // -------------------------------------------------------------------------
@@ -130,6 +172,140 @@ public class CamionController {
         return ResponseEntity.noContent().build();
     }
 
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Reservar un camión",
+            description = "Marca el camión como no disponible solo si estaba disponible. " +
+                    "La operación es atómica: ante pedidos simultáneos, uno la obtiene y el resto recibe 409."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Camión reservado"),
+            @ApiResponse(responseCode = "404", description = "Camión no encontrado"),
+            @ApiResponse(responseCode = "409", description = "El camión ya no está disponible")
+    })
+    @PostMapping("/{patente}/reserva")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','TRANSPORTISTA')")
+    public ResponseEntity<Void> reservarCamion(
+            @Parameter(description = "Patente del camión", example = "AC456BD")
+            @PathVariable String patente,
+            @Parameter(description = "Tramo que inicia; el camión no puede estar agendado ahora para otro tramo", example = "150")
+            @RequestParam(required = false) Long tramoId) {
+
+        camionService.reservarCamion(patente, tramoId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Liberar un camión",
+            description = "Vuelve a marcar el camión como disponible. Repetir la liberación no es un error."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Camión liberado"),
+            @ApiResponse(responseCode = "404", description = "Camión no encontrado")
+    })
+    @DeleteMapping("/{patente}/reserva")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','TRANSPORTISTA')")
+    public ResponseEntity<Void> liberarCamion(
+            @Parameter(description = "Patente del camión", example = "AC456BD")
+            @PathVariable String patente) {
+
+        camionService.liberarCamion(patente);
+        return ResponseEntity.noContent().build();
+    }
+
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Buscar camiones libres en una franja",
+            description = "Devuelve los camiones con capacidad suficiente que no tienen reservas en [inicio, fin), " +
+                    "del que mejor se ajusta al mayor. Si la franja ya empezó, además deben estar disponibles ahora."
+    )
+    @ApiResponse(responseCode = "200", description = "Camiones libres obtenidos correctamente")
+    @GetMapping("/libres")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','TRANSPORTISTA')")
+    public ResponseEntity<List<CamionResponseDTO>> obtenerCamionesLibres(
+            @Parameter(description = "Inicio de la franja (ISO)", example = "2025-03-10T08:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @Parameter(description = "Fin de la franja (ISO)", example = "2025-03-10T18:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @Parameter(description = "Peso mínimo que debe soportar (kg)", example = "12000")
+            @RequestParam(required = false) Double pesoMinimo,
+            @Parameter(description = "Volumen mínimo que debe soportar (m³)", example = "30")
+            @RequestParam(required = false) Double volumenMinimo) {
+        return ResponseEntity.ok(reservaCamionService.obtenerCamionesLibres(inicio, fin, pesoMinimo, volumenMinimo));
+    }
+
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Agendar un camión",
+            description = "Reserva al camión en una franja horaria (por ejemplo, para un tramo futuro). " +
+                    "Falla si se superpone con otra reserva del camión. Si se indica un tramo, reemplaza su reserva anterior."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Reserva creada",
+                    content = @Content(schema = @Schema(implementation = ReservaCamionResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Camión no encontrado"),
+            @ApiResponse(responseCode = "409", description = "La franja se superpone con otra reserva")
+    })
+    @PostMapping("/{patente}/agenda")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','TRANSPORTISTA')")
+    public ResponseEntity<ReservaCamionResponseDTO> agendarCamion(
+            @Parameter(description = "Patente del camión", example = "AC456BD")
+            @PathVariable String patente,
+            @Valid @RequestBody ReservaCamionRequestDTO requestDTO) {
+        return new ResponseEntity<>(reservaCamionService.reservar(patente, requestDTO), HttpStatus.CREATED);
+    }
+
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Consultar la agenda de un camión",
+            description = "Devuelve las reservas del camión que se superponen con [desde, hasta)."
+    )
+    @ApiResponse(responseCode = "200", description = "Reservas obtenidas correctamente")
+    @GetMapping("/{patente}/agenda")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','TRANSPORTISTA')")
+    public ResponseEntity<List<ReservaCamionResponseDTO>> obtenerAgenda(
+            @Parameter(description = "Patente del camión", example = "AC456BD")
+            @PathVariable String patente,
+            @Parameter(description = "Desde (ISO)", example = "2025-03-01T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @Parameter(description = "Hasta (ISO)", example = "2025-04-01T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        return ResponseEntity.ok(reservaCamionService.obtenerReservas(patente, desde, hasta));
+    }
+
+    // -------------------------------------------------------------------------
+    @Operation(summary = "Cancelar una reserva de la agenda")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Reserva cancelada"),
+            @ApiResponse(responseCode = "404", description = "Reserva no encontrada")
+    })
+    @DeleteMapping("/{patente}/agenda/{reservaId}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','TRANSPORTISTA')")
+    public ResponseEntity<Void> cancelarReserva(
+            @Parameter(description = "Patente del camión", example = "AC456BD")
+            @PathVariable String patente,
+            @Parameter(description = "ID de la reserva", example = "31")
+            @PathVariable Long reservaId) {
+        reservaCamionService.cancelarReserva(patente, reservaId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // -------------------------------------------------------------------------
+    @Operation(
+            summary = "Cancelar las reservas de un tramo",
+            description = "Elimina de la agenda las reservas originadas por el tramo. Repetirlo no es un error."
+    )
+    @ApiResponse(responseCode = "204", description = "Reservas canceladas")
+    @DeleteMapping("/agenda/tramo/{tramoId}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','TRANSPORTISTA')")
+    public ResponseEntity<Void> cancelarReservasDeTramo(
+            @Parameter(description = "ID del tramo", example = "150")
+            @PathVariable Long tramoId) {
+        reservaCamionService.cancelarReservasDeTramo(tramoId);
+        return ResponseEntity.noContent().build();
+    }
+
     // -------------------------------------------------------------------------
     @Operation(
             summary = "Actualizar un camión",
@@ -3,9 +3,15 @@ package back.tpi.ms_GestionDeTransporte.domain;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "camion")
+@Table(name = "camion", indexes = {
+        // Búsqueda de camiones disponibles por tipo (capacidad)
+        @Index(name = "idx_camion_disponible_tipo", columnList = "disponible, id_tipo_camion")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,6 +31,11 @@ public class Camion {
     @Column
     Boolean disponible = true;
 
+    // Última modificación de los datos (no de la disponibilidad); la usa /api/camiones/cambios
+    @UpdateTimestamp
+    @Column(columnDefinition = "timestamp default now()")
+    LocalDateTime actualizadoEn;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_transportista", nullable = false)
     Transportista transportista;
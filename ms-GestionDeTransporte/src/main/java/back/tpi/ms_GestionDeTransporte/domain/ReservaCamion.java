@@ -0,0 +1,45 @@
+package back.tpi.ms_GestionDeTransporte.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Franja [inicio, fin) en la que un camión está comprometido (normalmente con un tramo planificado).
+ * Las franjas de un mismo camión nunca se superponen.
+ */
+@Entity
+@Table(name = "reserva_camion", indexes = {
+        // Superposición por camión: r.inicio < :fin AND r.fin > :inicio
+        @Index(name = "idx_reserva_camion_patente_inicio", columnList = "camion_patente, inicio"),
+        @Index(name = "idx_reserva_camion_tramo", columnList = "tramo_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ReservaCamion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "camion_patente", nullable = false)
+    String camionPatente;
+
+    @Column(nullable = false)
+    LocalDateTime inicio;
+
+    @Column(nullable = false)
+    LocalDateTime fin;
+
+    // Tramo de ms-GestionDeOperaciones que originó la reserva (opcional)
+    @Column(name = "tramo_id")
+    Long tramoId;
+
+    LocalDateTime creadaEn;
+}
@@ -3,6 +3,9 @@ package back.tpi.ms_GestionDeTransporte.domain;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "tipo_camion")
@@ -26,4 +29,9 @@ public class TipoCamion {
     @Column(nullable = false, name = "capacidad_peso")
     Double capacidadPeso;
 
+    // Última modificación de los datos (no de la disponibilidad); la usa /api/camiones/cambios
+    @UpdateTimestamp
+    @Column(columnDefinition = "timestamp default now()")
+    LocalDateTime actualizadoEn;
+
 }
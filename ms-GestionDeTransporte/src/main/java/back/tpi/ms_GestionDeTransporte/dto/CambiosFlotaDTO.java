@@ -0,0 +1,26 @@
+package back.tpi.ms_GestionDeTransporte.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Camiones modificados desde una fecha, para sincronizar copias locales de la flota")
+public class CambiosFlotaDTO {
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    @Schema(
+            description = "Momento de la consulta según el servidor; usarlo como 'desde' en la próxima consulta",
+            example = "2025-02-14T08:30:00.000"
+    )
+    private LocalDateTime consultadoEn;
+
+    @Schema(description = "Camiones cuyos datos o tipo cambiaron. La disponibilidad no se considera un cambio")
+    private List<CamionResponseDTO> camiones;
+}
@@ -0,0 +1,37 @@
+package back.tpi.ms_GestionDeTransporte.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Franja horaria a reservar en la agenda de un camión")
+public class ReservaCamionRequestDTO {
+
+    @Schema(description = "Inicio de la franja (incluido)", example = "2025-03-10T08:00:00", required = true)
+    @NotNull(message = "El inicio es obligatorio")
+    private LocalDateTime inicio;
+
+    @Schema(description = "Fin de la franja (excluido)", example = "2025-03-10T18:00:00", required = true)
+    @NotNull(message = "El fin es obligatorio")
+    private LocalDateTime fin;
+
+    @Schema(
+            description = "Tramo que origina la reserva. Si el tramo ya tenía una reserva, se reemplaza",
+            example = "150"
+    )
+    private Long tramoId;
+
+    @JsonIgnore
+    @AssertTrue(message = "El fin debe ser posterior al inicio")
+    public boolean isFranjaValida() {
+        return inicio == null || fin == null || fin.isAfter(inicio);
+    }
+}
@@ -0,0 +1,29 @@
+package back.tpi.ms_GestionDeTransporte.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Reserva de la agenda de un camión")
+public class ReservaCamionResponseDTO {
+
+    @Schema(description = "ID de la reserva", example = "31")
+    private Long id;
+
+    @Schema(description = "Patente del camión", example = "AB123CD")
+    private String patente;
+
+    @Schema(description = "Inicio de la franja (incluido)", example = "2025-03-10T08:00:00")
+    private LocalDateTime inicio;
+
+    @Schema(description = "Fin de la franja (excluido)", example = "2025-03-10T18:00:00")
+    private LocalDateTime fin;
+
+    @Schema(description = "Tramo que originó la reserva", example = "150")
+    private Long tramoId;
+}
@@ -0,0 +1,7 @@
+package back.tpi.ms_GestionDeTransporte.exception;
+
+public class CamionNoDisponibleException extends RuntimeException {
+    public CamionNoDisponibleException(String message) {
+        super(message);
+    }
+}
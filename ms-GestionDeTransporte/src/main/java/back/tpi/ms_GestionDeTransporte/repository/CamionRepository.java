@@ -1,20 +1,77 @@
 package back.tpi.ms_GestionDeTransporte.repository;
 
 import back.tpi.ms_GestionDeTransporte.domain.Camion;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CamionRepository extends JpaRepository<Camion, String> {
-    List<Camion> findByDisponible(Boolean disponible);
-    List<Camion> findByTransportistaId(Long transportistaId);
+    // Todas las lecturas traen transportista y tipo de camión en la misma consulta
+    // (el mapper usa ambas relaciones LAZY; sin JOIN FETCH serían 2 SELECT extra por camión)
+    @Query("SELECT c FROM Camion c JOIN FETCH c.transportista JOIN FETCH c.tipoCamion " +
+            "WHERE c.disponible = :disponible ORDER BY c.patente")
+    List<Camion> findByDisponible(@Param("disponible") Boolean disponible);
+
+    @Query("SELECT c FROM Camion c JOIN FETCH c.transportista t JOIN FETCH c.tipoCamion " +
+            "WHERE t.id = :transportistaId ORDER BY c.patente")
+    List<Camion> findByTransportistaId(@Param("transportistaId") Long transportistaId);
 
     @Query("SELECT c FROM Camion c JOIN FETCH c.transportista JOIN FETCH c.tipoCamion")
     List<Camion> findAllWithDetails();
 
     @Query("SELECT c FROM Camion c JOIN FETCH c.transportista JOIN FETCH c.tipoCamion WHERE c.patente = :patente")
     Camion findByPatenteWithDetails(String patente);
+
+    // Camiones cuyos datos o tipo cambiaron después de 'desde' (sincronización incremental de la flota)
+    @Query("SELECT c FROM Camion c JOIN FETCH c.transportista JOIN FETCH c.tipoCamion t " +
+            "WHERE c.actualizadoEn > :desde OR t.actualizadoEn > :desde ORDER BY c.patente")
+    List<Camion> findModificadosDesde(@Param("desde") LocalDateTime desde);
+
+    // Disponibles con capacidad suficiente, del que mejor se ajusta (menor capacidad) al mayor.
+    // Slice: trae una fila extra para saber si hay más, sin consulta de conteo
+    @Query("SELECT c FROM Camion c JOIN FETCH c.transportista JOIN FETCH c.tipoCamion t " +
+            "WHERE c.disponible = true " +
+            "AND t.capacidadPeso >= :pesoMinimo AND t.capacidadVolumen >= :volumenMinimo " +
+            "ORDER BY t.capacidadPeso ASC, t.capacidadVolumen ASC, c.patente ASC")
+    Slice<Camion> findDisponiblesConCapacidad(@Param("pesoMinimo") double pesoMinimo,
+                                              @Param("volumenMinimo") double volumenMinimo,
+                                              Pageable pageable);
+
+    // Todos los camiones con capacidad suficiente (disponibles o no), del que mejor se ajusta al mayor
+    @Query("SELECT c FROM Camion c JOIN FETCH c.transportista JOIN FETCH c.tipoCamion t " +
+            "WHERE t.capacidadPeso >= :pesoMinimo AND t.capacidadVolumen >= :volumenMinimo " +
+            "ORDER BY t.capacidadPeso ASC, t.capacidadVolumen ASC, c.patente ASC")
+    List<Camion> findConCapacidad(@Param("pesoMinimo") double pesoMinimo,
+                                  @Param("volumenMinimo") double volumenMinimo);
+
+    // Bloquea el camión para serializar las reservas de agenda del mismo camión
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Camion c WHERE c.patente = :patente")
+    Optional<Camion> findByPatenteParaActualizar(@Param("patente") String patente);
+
+    // Reserva atómica: solo afecta al camión si estaba disponible (1 = reservado, 0 = ocupado o inexistente).
+    // Disponible es siempre disponible = true, igual que en las búsquedas de disponibles
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Camion c SET c.disponible = false WHERE c.patente = :patente AND c.disponible = true")
+    int reservar(@Param("patente") String patente);
+
+    // Liberación: vuelve a marcar el camión como disponible (0 si no existe)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Camion c SET c.disponible = true WHERE c.patente = :patente")
+    int liberar(@Param("patente") String patente);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Camion c SET c.disponible = :disponible WHERE c.patente = :patente")
+    int actualizarDisponibilidad(@Param("patente") String patente, @Param("disponible") Boolean disponible);
 }
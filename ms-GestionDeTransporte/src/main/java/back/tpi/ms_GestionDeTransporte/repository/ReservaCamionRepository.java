@@ -0,0 +1,28 @@
+package back.tpi.ms_GestionDeTransporte.repository;
+
+import back.tpi.ms_GestionDeTransporte.domain.ReservaCamion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReservaCamionRepository extends JpaRepository<ReservaCamion, Long> {
+
+    // Reservas vigentes o futuras (carga del calendario en memoria)
+    List<ReservaCamion> findByFinAfter(LocalDateTime instante);
+
+    // Reservas de un camión que se superponen con [desde, hasta), en orden
+    @Query("SELECT r FROM ReservaCamion r WHERE r.camionPatente = :patente " +
+            "AND r.inicio < :hasta AND r.fin > :desde ORDER BY r.inicio")
+    List<ReservaCamion> findSolapadas(@Param("patente") String patente,
+                                      @Param("desde") LocalDateTime desde,
+                                      @Param("hasta") LocalDateTime hasta);
+
+    List<ReservaCamion> findByTramoId(Long tramoId);
+
+    List<ReservaCamion> findByCamionPatente(String camionPatente);
+}
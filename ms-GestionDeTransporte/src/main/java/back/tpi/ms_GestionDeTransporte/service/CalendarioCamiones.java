@@ -0,0 +1,88 @@
+package back.tpi.ms_GestionDeTransporte.service;
+
+import back.tpi.ms_GestionDeTransporte.domain.ReservaCamion;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copia en memoria de las reservas vigentes y futuras de cada camión, para responder
+ * "¿está libre en [inicio, fin)?" sin ir a la base.
+ * Como las franjas de un camión no se superponen, alcanza con un árbol ordenado por inicio:
+ * la única franja que puede cruzarse con [inicio, fin) es la última que empieza antes de fin (O(log n)).
+ * La base sigue siendo la fuente de verdad al reservar (ver {@link ReservaCamionService}).
+ */
+@Component
+public class CalendarioCamiones {
+
+    private final Map<String, NavigableMap<LocalDateTime, Franja>> porCamion = new ConcurrentHashMap<>();
+
+    /**
+     * Reemplaza el contenido por las reservas indicadas
+     */
+    public void cargar(Collection<ReservaCamion> reservas) {
+        porCamion.clear();
+        reservas.forEach(this::agregar);
+    }
+
+    public void agregar(ReservaCamion reserva) {
+        NavigableMap<LocalDateTime, Franja> franjas =
+                porCamion.computeIfAbsent(reserva.getCamionPatente(), p -> new TreeMap<>());
+        synchronized (franjas) {
+            // De paso se descartan las franjas que ya terminaron
+            LocalDateTime ahora = LocalDateTime.now();
+            while (!franjas.isEmpty() && !franjas.firstEntry().getValue().fin().isAfter(ahora)) {
+                franjas.pollFirstEntry();
+            }
+            franjas.put(reserva.getInicio(),
+                    new Franja(reserva.getId(), reserva.getInicio(), reserva.getFin(), reserva.getTramoId()));
+        }
+    }
+
+    public void quitar(ReservaCamion reserva) {
+        NavigableMap<LocalDateTime, Franja> franjas = porCamion.get(reserva.getCamionPatente());
+        if (franjas == null) {
+            return;
+        }
+        synchronized (franjas) {
+            Franja franja = franjas.get(reserva.getInicio());
+            if (franja != null && Objects.equals(franja.id(), reserva.getId())) {
+                franjas.remove(reserva.getInicio());
+            }
+        }
+    }
+
+    /**
+     * Indica si el camión no tiene ninguna franja que se cruce con [inicio, fin)
+     */
+    public boolean estaLibre(String patente, LocalDateTime inicio, LocalDateTime fin) {
+        return buscarSolapada(patente, inicio, fin) == null;
+    }
+
+    /**
+     * Franja que ocupa al camión en el instante indicado, o null
+     */
+    public Franja ocupacionEn(String patente, LocalDateTime instante) {
+        return buscarSolapada(patente, instante, instante.plusNanos(1));
+    }
+
+    private Franja buscarSolapada(String patente, LocalDateTime inicio, LocalDateTime fin) {
+        NavigableMap<LocalDateTime, Franja> franjas = porCamion.get(patente);
+        if (franjas == null) {
+            return null;
+        }
+        synchronized (franjas) {
+            Map.Entry<LocalDateTime, Franja> anterior = franjas.lowerEntry(fin);
+            return anterior != null && anterior.getValue().fin().isAfter(inicio) ? anterior.getValue() : null;
+        }
+    }
+
+    public record Franja(Long id, LocalDateTime inicio, LocalDateTime fin, Long tramoId) {
+    }
+}
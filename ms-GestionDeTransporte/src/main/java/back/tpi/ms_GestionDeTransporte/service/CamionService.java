@@ -3,17 +3,24 @@ package back.tpi.ms_GestionDeTransporte.service;
 import back.tpi.ms_GestionDeTransporte.domain.Camion;
 import back.tpi.ms_GestionDeTransporte.domain.TipoCamion;
 import back.tpi.ms_GestionDeTransporte.domain.Transportista;
+import back.tpi.ms_GestionDeTransporte.dto.CambiosFlotaDTO;
 import back.tpi.ms_GestionDeTransporte.dto.CamionRequestDTO;
 import back.tpi.ms_GestionDeTransporte.dto.CamionResponseDTO;
+import back.tpi.ms_GestionDeTransporte.exception.CamionNoDisponibleException;
+import back.tpi.ms_GestionDeTransporte.exception.ResourceNotFoundException;
 import back.tpi.ms_GestionDeTransporte.mapper.CamionMapper;
 import back.tpi.ms_GestionDeTransporte.repository.CamionRepository;
 import back.tpi.ms_GestionDeTransporte.repository.TipoCamionRepository;
 import back.tpi.ms_GestionDeTransporte.repository.TransportistaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,6 +33,10 @@ public class CamionService {
     private final TransportistaRepository transportistaRepository;
     private final TipoCamionRepository tipoCamionRepository;
     private final CamionMapper camionMapper;
+    private final ReservaCamionService reservaCamionService;
+
+    @Value("${camiones.disponibles.tamanio-maximo:200}")
+    private int tamanioMaximoPagina;
 
     @Transactional
     public CamionResponseDTO registrarCamion(CamionRequestDTO requestDTO) {
@@ -53,11 +64,9 @@ public class CamionService {
                 .tipoCamion(tipoCamion)
                 .build();
 
+        // Transportista y tipo ya están cargados: se mapea sin volver a leer el camión
         Camion savedCamion = camionRepository.save(camion);
 
-        // Recargar con relaciones para el DTO
-        savedCamion = camionRepository.findByPatenteWithDetails(savedCamion.getPatente());
-
         return camionMapper.toResponseDTO(savedCamion);
     }
 
@@ -79,11 +88,37 @@ public class CamionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Camiones disponibles que soportan el peso y volumen indicados, ordenados por mejor ajuste
+     * (la menor capacidad suficiente primero) y paginados
+     */
     @Transactional(readOnly = true)
-    public List<CamionResponseDTO> obtenerCamionesDisponibles() {
-        return camionRepository.findByDisponible(true).stream()
+    public Slice<CamionResponseDTO> obtenerCamionesDisponibles(Double pesoMinimo, Double volumenMinimo,
+                                                               int pagina, int tamanio) {
+        int tamanioPagina = Math.max(1, Math.min(tamanio, tamanioMaximoPagina));
+        return camionRepository.findDisponiblesConCapacidad(
+                        pesoMinimo != null ? pesoMinimo : 0.0,
+                        volumenMinimo != null ? volumenMinimo : 0.0,
+                        PageRequest.of(Math.max(pagina, 0), tamanioPagina))
+                .map(camionMapper::toResponseDTO);
+    }
+
+    /**
+     * Camiones cuyos datos o tipo cambiaron después de {@code desde}
+     */
+    @Transactional(readOnly = true)
+    public CambiosFlotaDTO obtenerCambiosDesde(LocalDateTime desde) {
+        // Se toma antes de consultar: lo que cambie durante la consulta entra en la próxima
+        LocalDateTime consultadoEn = LocalDateTime.now();
+
+        List<CamionResponseDTO> camiones = camionRepository.findModificadosDesde(desde).stream()
                 .map(camionMapper::toResponseDTO)
                 .collect(Collectors.toList());
+
+        return CambiosFlotaDTO.builder()
+                .consultadoEn(consultadoEn)
+                .camiones(camiones)
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -97,20 +132,52 @@ public class CamionService {
     public void actualizarDisponibilidad(String patente, Boolean disponible) {
         log.info("Actualizando disponibilidad del camion {} a: {}", patente, disponible);
 
-        Camion camion = camionRepository.findById(patente.toUpperCase())
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Camion no encontrado con patente: " + patente));
-
-        camion.setDisponible(disponible);
-        camionRepository.save(camion);
+        // Un solo UPDATE, sin leer el camión antes
+        if (camionRepository.actualizarDisponibilidad(patente.toUpperCase(), disponible) == 0) {
+            throw new IllegalArgumentException("Camion no encontrado con patente: " + patente);
+        }
 
         log.info("Disponibilidad del camion {} actualizada a: {}", patente, disponible);
     }
 
+    /**
+     * Reserva el camión si está disponible. El UPDATE condicional decide de forma atómica:
+     * si dos pedidos llegan a la vez, solo uno lo reserva y el otro recibe un conflicto.
+     * Si la agenda tiene el camión comprometido ahora con otro tramo, tampoco se reserva.
+     */
+    @Transactional
+    public void reservarCamion(String patente, Long tramoId) {
+        String patenteNormalizada = patente.toUpperCase();
+        reservaCamionService.validarLibreAhora(patenteNormalizada, tramoId);
+
+        if (camionRepository.reservar(patenteNormalizada) == 1) {
+            log.info("Camion {} reservado", patenteNormalizada);
+            return;
+        }
+
+        if (!camionRepository.existsById(patenteNormalizada)) {
+            throw new ResourceNotFoundException("Camion no encontrado con patente: " + patente);
+        }
+        throw new CamionNoDisponibleException("El camion " + patenteNormalizada + " no esta disponible");
+    }
+
+    /**
+     * Libera el camión. Es idempotente: liberar un camión ya disponible no es un error.
+     */
+    @Transactional
+    public void liberarCamion(String patente) {
+        if (camionRepository.liberar(patente.toUpperCase()) == 0) {
+            throw new ResourceNotFoundException("Camion no encontrado con patente: " + patente);
+        }
+        log.info("Camion {} liberado", patente.toUpperCase());
+    }
+
     @Transactional
     public CamionResponseDTO actualizarCamion(String patente, CamionRequestDTO requestDTO) {
-        Camion camion = camionRepository.findById(patente.toUpperCase())
-                .orElseThrow(() -> new IllegalArgumentException("Camion no encontrado con patente: " + patente));
+        Camion camion = camionRepository.findByPatenteWithDetails(patente.toUpperCase());
+        if (camion == null) {
+            throw new IllegalArgumentException("Camion no encontrado con patente: " + patente);
+        }
 
         // Validar transportista si cambio
         if (!camion.getTransportista().getId().equals(requestDTO.getIdTransportista())) {
@@ -133,7 +200,6 @@ public class CamionService {
         camion.setDisponible(requestDTO.getDisponible());
 
         Camion updatedCamion = camionRepository.save(camion);
-        updatedCamion = camionRepository.findByPatenteWithDetails(updatedCamion.getPatente());
 
         return camionMapper.toResponseDTO(updatedCamion);
     }
@@ -143,6 +209,7 @@ public class CamionService {
         if (!camionRepository.existsById(patente.toUpperCase())) {
             throw new IllegalArgumentException("Camion no encontrado con patente: " + patente);
         }
+        reservaCamionService.eliminarReservasDeCamion(patente.toUpperCase());
         camionRepository.deleteById(patente.toUpperCase());
     }
 }
\ No newline at end of file
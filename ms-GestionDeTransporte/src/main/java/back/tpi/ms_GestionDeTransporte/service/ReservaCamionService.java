@@ -0,0 +1,192 @@
+package back.tpi.ms_GestionDeTransporte.service;
+
+import back.tpi.ms_GestionDeTransporte.domain.Camion;
+import back.tpi.ms_GestionDeTransporte.domain.ReservaCamion;
+import back.tpi.ms_GestionDeTransporte.dto.CamionResponseDTO;
+import back.tpi.ms_GestionDeTransporte.dto.ReservaCamionRequestDTO;
+import back.tpi.ms_GestionDeTransporte.dto.ReservaCamionResponseDTO;
+import back.tpi.ms_GestionDeTransporte.exception.CamionNoDisponibleException;
+import back.tpi.ms_GestionDeTransporte.exception.ResourceNotFoundException;
+import back.tpi.ms_GestionDeTransporte.mapper.CamionMapper;
+import back.tpi.ms_GestionDeTransporte.repository.CamionRepository;
+import back.tpi.ms_GestionDeTransporte.repository.ReservaCamionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Agenda de los camiones: reservas por franja horaria, para comprometer un camión con un tramo
+ * futuro aunque hoy esté en viaje. La disponibilidad inmediata sigue en {@code Camion.disponible}.
+ * <p>
+ * Al reservar se bloquea el camión y la superposición se comprueba en la base (índice por patente e inicio);
+ * las consultas de camiones libres usan {@link CalendarioCamiones}, que se carga al arrancar
+ * y se actualiza después de cada commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservaCamionService implements ApplicationRunner {
+
+    private final ReservaCamionRepository reservaRepository;
+    private final CamionRepository camionRepository;
+    private final CalendarioCamiones calendario;
+    private final CamionMapper camionMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        List<ReservaCamion> vigentes = reservaRepository.findByFinAfter(LocalDateTime.now());
+        calendario.cargar(vigentes);
+        log.info("📅 Agenda de camiones cargada: {} reservas vigentes", vigentes.size());
+    }
+
+    /**
+     * Reserva la franja si el camión no tiene otra que se superponga.
+     * Si se indica un tramo, sus reservas anteriores (de este u otro camión) se reemplazan
+     */
+    @Transactional
+    public ReservaCamionResponseDTO reservar(String patente, ReservaCamionRequestDTO requestDTO) {
+        String patenteNormalizada = patente.toUpperCase();
+        Long tramoId = requestDTO.getTramoId();
+
+        // El lock del camión serializa las reservas concurrentes sobre el mismo camión
+        camionRepository.findByPatenteParaActualizar(patenteNormalizada)
+                .orElseThrow(() -> new ResourceNotFoundException("Camion no encontrado con patente: " + patente));
+
+        Optional<ReservaCamion> conflicto = reservaRepository
+                .findSolapadas(patenteNormalizada, requestDTO.getInicio(), requestDTO.getFin()).stream()
+                .filter(r -> tramoId == null || !tramoId.equals(r.getTramoId()))
+                .findFirst();
+        if (conflicto.isPresent()) {
+            throw new CamionNoDisponibleException(String.format(
+                    "El camion %s ya esta reservado entre %s y %s",
+                    patenteNormalizada, conflicto.get().getInicio(), conflicto.get().getFin()));
+        }
+
+        List<ReservaCamion> anteriores = tramoId != null ? reservaRepository.findByTramoId(tramoId) : List.of();
+        reservaRepository.deleteAll(anteriores);
+        reservaRepository.flush();
+
+        ReservaCamion reserva = reservaRepository.save(ReservaCamion.builder()
+                .camionPatente(patenteNormalizada)
+                .inicio(requestDTO.getInicio())
+                .fin(requestDTO.getFin())
+                .tramoId(tramoId)
+                .creadaEn(LocalDateTime.now())
+                .build());
+
+        despuesDelCommit(() -> {
+            anteriores.forEach(calendario::quitar);
+            calendario.agregar(reserva);
+        });
+        log.info("📅 Camion {} reservado de {} a {} (tramo {})",
+                patenteNormalizada, reserva.getInicio(), reserva.getFin(), tramoId);
+
+        return toResponseDTO(reserva);
+    }
+
+    /**
+     * Elimina las reservas del tramo (idempotente). Devuelve cuántas había
+     */
+    @Transactional
+    public int cancelarReservasDeTramo(Long tramoId) {
+        List<ReservaCamion> reservas = reservaRepository.findByTramoId(tramoId);
+        reservaRepository.deleteAll(reservas);
+        despuesDelCommit(() -> reservas.forEach(calendario::quitar));
+        return reservas.size();
+    }
+
+    @Transactional
+    public void cancelarReserva(String patente, Long reservaId) {
+        ReservaCamion reserva = reservaRepository.findById(reservaId)
+                .filter(r -> r.getCamionPatente().equals(patente.toUpperCase()))
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Reserva " + reservaId + " no encontrada para el camion " + patente));
+        reservaRepository.delete(reserva);
+        despuesDelCommit(() -> calendario.quitar(reserva));
+    }
+
+    /**
+     * Elimina todas las reservas del camión (al darlo de baja)
+     */
+    @Transactional
+    public void eliminarReservasDeCamion(String patente) {
+        List<ReservaCamion> reservas = reservaRepository.findByCamionPatente(patente);
+        reservaRepository.deleteAll(reservas);
+        despuesDelCommit(() -> reservas.forEach(calendario::quitar));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReservaCamionResponseDTO> obtenerReservas(String patente, LocalDateTime desde, LocalDateTime hasta) {
+        return reservaRepository.findSolapadas(patente.toUpperCase(), desde, hasta).stream()
+                .map(this::toResponseDTO)
+                .toList();
+    }
+
+    /**
+     * Camiones con capacidad suficiente y sin reservas en [inicio, fin), del que mejor se ajusta al mayor.
+     * Si la franja ya empezó, además deben estar disponibles ahora
+     */
+    @Transactional(readOnly = true)
+    public List<CamionResponseDTO> obtenerCamionesLibres(LocalDateTime inicio, LocalDateTime fin,
+                                                         Double pesoMinimo, Double volumenMinimo) {
+        if (!fin.isAfter(inicio)) {
+            throw new IllegalArgumentException("El fin debe ser posterior al inicio");
+        }
+        boolean empiezaAhora = !inicio.isAfter(LocalDateTime.now());
+
+        List<Camion> candidatos = camionRepository.findConCapacidad(
+                pesoMinimo != null ? pesoMinimo : 0.0,
+                volumenMinimo != null ? volumenMinimo : 0.0);
+
+        return candidatos.stream()
+                .filter(c -> !empiezaAhora || Boolean.TRUE.equals(c.getDisponible()))
+                .filter(c -> calendario.estaLibre(c.getPatente(), inicio, fin))
+                .map(camionMapper::toResponseDTO)
+                .toList();
+    }
+
+    /**
+     * Lanza {@link CamionNoDisponibleException} si en este momento el camión está reservado para otro tramo
+     */
+    public void validarLibreAhora(String patente, Long tramoId) {
+        CalendarioCamiones.Franja franja = calendario.ocupacionEn(patente, LocalDateTime.now());
+        if (franja != null && (tramoId == null || !tramoId.equals(franja.tramoId()))) {
+            throw new CamionNoDisponibleException(String.format(
+                    "El camion %s esta reservado para el tramo %s hasta %s",
+                    patente, franja.tramoId(), franja.fin()));
+        }
+    }
+
+    private void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private ReservaCamionResponseDTO toResponseDTO(ReservaCamion reserva) {
+        return ReservaCamionResponseDTO.builder()
+                .id(reserva.getId())
+                .patente(reserva.getCamionPatente())
+                .inicio(reserva.getInicio())
+                .fin(reserva.getFin())
+                .tramoId(reserva.getTramoId())
+                .build();
+    }
+}
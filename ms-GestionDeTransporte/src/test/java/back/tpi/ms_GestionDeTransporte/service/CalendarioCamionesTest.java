@@ -0,0 +1,71 @@
+package back.tpi.ms_GestionDeTransporte.service;
+
+import back.tpi.ms_GestionDeTransporte.domain.ReservaCamion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalendarioCamionesTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    private final CalendarioCamiones calendario = new CalendarioCamiones();
+
+    @BeforeEach
+    void cargarReservas() {
+        calendario.cargar(List.of(
+                reserva(1L, "AA111AA", 8, 12, 100L),
+                reserva(2L, "AA111AA", 14, 18, 101L),
+                reserva(3L, "BB222BB", 10, 11, 200L)));
+    }
+
+    @Test
+    void detectaSuperposicionesParcialesYTotales() {
+        assertFalse(calendario.estaLibre("AA111AA", hora(11), hora(13)));
+        assertFalse(calendario.estaLibre("AA111AA", hora(13), hora(15)));
+        assertFalse(calendario.estaLibre("AA111AA", hora(7), hora(20)));
+        assertFalse(calendario.estaLibre("AA111AA", hora(9), hora(10)));
+    }
+
+    @Test
+    void lasFranjasSonSemiabiertas() {
+        assertTrue(calendario.estaLibre("AA111AA", hora(12), hora(14)));
+        assertTrue(calendario.estaLibre("AA111AA", hora(6), hora(8)));
+        assertTrue(calendario.estaLibre("AA111AA", hora(18), hora(22)));
+    }
+
+    @Test
+    void cadaCamionTieneSuPropiaAgenda() {
+        assertTrue(calendario.estaLibre("BB222BB", hora(8), hora(10)));
+        assertTrue(calendario.estaLibre("CC333CC", hora(0), hora(23)));
+        assertEquals(200L, calendario.ocupacionEn("BB222BB", hora(10)).tramoId());
+        assertNull(calendario.ocupacionEn("BB222BB", hora(11)));
+    }
+
+    @Test
+    void quitarLiberaLaFranja() {
+        calendario.quitar(reserva(2L, "AA111AA", 14, 18, 101L));
+        assertTrue(calendario.estaLibre("AA111AA", hora(13), hora(20)));
+    }
+
+    private static ReservaCamion reserva(Long id, String patente, int desde, int hasta, Long tramoId) {
+        return ReservaCamion.builder()
+                .id(id)
+                .camionPatente(patente)
+                .inicio(hora(desde))
+                .fin(hora(hasta))
+                .tramoId(tramoId)
+                .build();
+    }
+
+    private static LocalDateTime hora(int hora) {
+        return BASE.plusHours(hora);
+    }
+}
@@ -0,0 +1,120 @@
+package back.tpi.ms_GestionDeTransporte.service;
+
+import back.tpi.ms_GestionDeTransporte.domain.Camion;
+import back.tpi.ms_GestionDeTransporte.domain.TipoCamion;
+import back.tpi.ms_GestionDeTransporte.domain.Transportista;
+import back.tpi.ms_GestionDeTransporte.dto.CamionResponseDTO;
+import back.tpi.ms_GestionDeTransporte.mapper.CamionMapper;
+import back.tpi.ms_GestionDeTransporte.mapper.TransportistaMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cada listado de camiones debe resolverse con una cantidad fija de consultas,
+ * sin importar cuántos camiones devuelva (transportista y tipo van en JOIN FETCH).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import({CamionService.class, ReservaCamionService.class, CalendarioCamiones.class,
+        CamionMapper.class, TransportistaMapper.class})
+class CamionServiceConsultasTest {
+
+    private static final int CAMIONES = 12;
+
+    @Autowired
+    private CamionService camionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long transportistaId;
+
+    @BeforeEach
+    void cargarFlota() {
+        TipoCamion chico = persistir(TipoCamion.builder().nombre("Chico").capacidadPeso(5000.0).capacidadVolumen(20.0).build());
+        TipoCamion grande = persistir(TipoCamion.builder().nombre("Grande").capacidadPeso(25000.0).capacidadVolumen(80.0).build());
+
+        for (int i = 0; i < CAMIONES; i++) {
+            // Un transportista por camión: con LAZY sin JOIN FETCH cada uno sería un SELECT más
+            Transportista transportista = persistir(Transportista.builder()
+                    .nombre("Transportista " + i).telefono("351000" + i).email("t" + i + "@tpi.com")
+                    .disponible(true).build());
+            if (i == 0) {
+                transportistaId = transportista.getId();
+            }
+            persistir(Camion.builder()
+                    .patente(String.format("AA%03dBB", i))
+                    .costoCombustible(30.0).costoKm(100.0)
+                    .disponible(true)
+                    .transportista(transportista)
+                    .tipoCamion(i % 2 == 0 ? chico : grande)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void listarTodosUsaUnaConsulta() {
+        assertThat(contarConsultas(() -> camionService.obtenerTodosLosCamiones())).isEqualTo(1);
+    }
+
+    @Test
+    void listarDisponiblesUsaUnaConsulta() {
+        long consultas = contarConsultas(() -> camionService.obtenerCamionesDisponibles(null, null, 0, 50).getContent());
+        assertThat(consultas).isEqualTo(1);
+    }
+
+    @Test
+    void listarDisponiblesConCapacidadUsaUnaConsulta() {
+        long consultas = contarConsultas(() -> camionService.obtenerCamionesDisponibles(10000.0, 30.0, 0, 50).getContent());
+        assertThat(consultas).isEqualTo(1);
+    }
+
+    @Test
+    void listarPorTransportistaUsaUnaConsulta() {
+        assertThat(contarConsultas(() -> camionService.obtenerCamionesPorTransportista(transportistaId))).isEqualTo(1);
+    }
+
+    @Test
+    void obtenerPorPatenteUsaUnaConsulta() {
+        assertThat(contarConsultas(() -> List.of(camionService.obtenerCamionPorPatente("AA000BB")))).isEqualTo(1);
+    }
+
+    private long contarConsultas(Supplier<List<CamionResponseDTO>> listado) {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        List<CamionResponseDTO> camiones = listado.get();
+
+        assertThat(camiones).isNotEmpty();
+        assertThat(camiones).allSatisfy(c -> {
+            assertThat(c.getTransportista().getNombre()).isNotNull();
+            assertThat(c.getTipoCamion().getNombre()).isNotNull();
+        });
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    private <T> T persistir(T entidad) {
+        entityManager.persist(entidad);
+        return entidad;
+    }
+}